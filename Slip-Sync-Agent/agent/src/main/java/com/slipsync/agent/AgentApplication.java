@@ -1,5 +1,6 @@
 package com.slipsync.agent;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
@@ -11,23 +12,58 @@ import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
 
 @SpringBootApplication
 @EnableScheduling
 public class AgentApplication implements CommandLineRunner {
 
     private static final String CONFIG_FILE = "agent-config.properties";
+    // Seconds the backend may hold an empty poll open; the read timeout leaves room on top
+    private static final int LONG_POLL_SECONDS = 25;
+    private static final long RETRY_DELAY_MS = 5000;
+    private static final long MIN_EMPTY_POLL_MS = 1000;
+    // Push channel reconnects: exponential backoff with jitter, reset once a stream has held
+    private static final long MIN_BACKOFF_MS = 1000;
+    private static final long MAX_BACKOFF_MS = 60000;
+    private static final long STABLE_STREAM_MS = 60000;
+    private static final int HANDLED_JOBS_KEPT = 1000;
+    // Acks are collected for up to ACK_FLUSH_MS and sent together, at most MAX_ACKS_PER_BATCH at a time
+    private static final long ACK_FLUSH_MS = 250;
+    private static final int MAX_ACKS_PER_BATCH = 100;
 
     private String backendUrl;
     private String deviceSecret; // Long-lived key
     private String deviceId;
     private String deviceName;
+    private String printerPath; // Printer device or share, e.g. /dev/usb/lp0 or \\host\receipt
+    private String printerRole; // Store queue this printer serves: receipt, kitchen or label
 
     private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
 
-    public AgentApplication(RestTemplateBuilder builder) {
-        this.restTemplate = builder.build();
+    // Job results waiting for the next ack flush
+    private final ConcurrentLinkedQueue<Map<String, String>> pendingAcks = new ConcurrentLinkedQueue<>();
+    private volatile boolean batchAcks = true; // false once the backend turns out not to support them
+
+    // Jobs already printed, so replays after a reconnect are only re-acked
+    private final Set<String> handledJobs = Collections.newSetFromMap(new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > HANDLED_JOBS_KEPT;
+        }
+    });
+
+    // The read timeout also applies to the push stream, where it must exceed the server's heartbeat
+    public AgentApplication(RestTemplateBuilder builder, ObjectMapper objectMapper) {
+        this.restTemplate = builder
+                .setReadTimeout(Duration.ofSeconds(LONG_POLL_SECONDS + 15))
+                .build();
+        this.objectMapper = objectMapper;
     }
 
     public static void main(String[] args) {
@@ -44,9 +80,15 @@ public class AgentApplication implements CommandLineRunner {
         } else {
             System.out.println("✅ Agent Loaded with Device Secret.");
         }
+        if (this.printerPath == null || this.printerPath.isEmpty()) {
+            System.err.println("⚠️  No printerPath in " + CONFIG_FILE + "; jobs will be reported as failed until one is set.");
+        }
 
         System.out.println("🚀 Agent is running (ID: " + this.deviceId + ")");
         sendHeartbeat();
+
+        Thread channel = new Thread(this::channelLoop, "job-channel");
+        channel.start();
     }
 
     // --- ONE-TIME SETUP WIZARD ---
@@ -62,6 +104,14 @@ public class AgentApplication implements CommandLineRunner {
         System.out.println("\nEnter the name of this device:");
          deviceName = scanner.nextLine().trim();
 
+        System.out.println("\nWhat does this printer print? (receipt, kitchen or label) [receipt]:");
+        printerRole = scanner.nextLine().trim();
+        if (printerRole.isEmpty())
+            printerRole = "receipt";
+
+        System.out.println("\nPrinter device or share (e.g. /dev/usb/lp0 or \\\\host\\receipt):");
+        printerPath = scanner.nextLine().trim();
+
         if (tempToken.isEmpty()) {
             System.err.println("Token required.");
             System.exit(1);
@@ -71,6 +121,11 @@ public class AgentApplication implements CommandLineRunner {
             System.err.println("Name is required.");
             System.exit(1);
         }
+
+        if (printerPath.isEmpty()) {
+            System.err.println("Printer is required.");
+            System.exit(1);
+        }
         // Exchange Token for Secret
         try {
             HttpHeaders headers = new HttpHeaders();
@@ -79,7 +134,8 @@ public class AgentApplication implements CommandLineRunner {
 
             Map<String, String> body = Map.of(
                     "deviceIdentifier", this.deviceId,
-                    "name", this.deviceName);
+                    "name", this.deviceName,
+                    "role", this.printerRole);
 
             System.out.print("Pairing with backend... ");
             ResponseEntity<Map> response = restTemplate.postForEntity(
@@ -101,14 +157,122 @@ public class AgentApplication implements CommandLineRunner {
 
     // --- PERSISTENT LOOP (Uses Secret) ---
 
-    @Scheduled(fixedRate = 5000)
-    public void loop() {
-        if (deviceSecret == null)
-            return;
-        try {
-            pollForJobs();
-        } catch (Exception e) {
-            /* ignore connection errors */ }
+    // Push channel: one stream from the backend carrying jobs, cancellations and config.
+    // On reconnect the backend replays every job still queued, i.e. everything after the last ack.
+    private void channelLoop() {
+        long backoffMs = MIN_BACKOFF_MS;
+        while (!Thread.currentThread().isInterrupted()) {
+            long started = System.currentTimeMillis();
+            if (deviceSecret != null) {
+                try {
+                    streamJobs();
+                } catch (HttpClientErrorException.NotFound e) {
+                    System.out.println("Backend has no push channel, falling back to polling");
+                    pollLoop();
+                    return;
+                } catch (Exception e) {
+                    System.out.println("⚠️  Job stream dropped: " + e.getMessage());
+                }
+            }
+            if (System.currentTimeMillis() - started >= STABLE_STREAM_MS) {
+                backoffMs = MIN_BACKOFF_MS;
+            }
+            try {
+                Thread.sleep(backoffMs + ThreadLocalRandom.current().nextLong(backoffMs / 2 + 1));
+            } catch (InterruptedException e) {
+                return;
+            }
+            backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+        }
+    }
+
+    // Returns when the backend closes the stream (it does so periodically)
+    private void streamJobs() {
+        restTemplate.execute(backendUrl + "/print-devices/stream", HttpMethod.GET,
+                request -> {
+                    request.getHeaders().set("X-Device-Secret", this.deviceSecret);
+                    request.getHeaders().setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+                },
+                response -> {
+                    System.out.println("📡 Job stream connected");
+                    readEvents(new BufferedReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8)));
+                    return null;
+                });
+    }
+
+    private void readEvents(BufferedReader reader) throws IOException {
+        String name = null;
+        String id = null;
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (data.length() > 0) {
+                    handleEvent(name, id, data.toString());
+                }
+                name = null;
+                id = null;
+                data.setLength(0);
+            } else if (line.startsWith("event:")) {
+                name = line.substring(6).trim();
+            } else if (line.startsWith("id:")) {
+                id = line.substring(3).trim();
+            } else if (line.startsWith("data:")) {
+                if (data.length() > 0) {
+                    data.append('\n');
+                }
+                data.append(line.substring(5).startsWith(" ") ? line.substring(6) : line.substring(5));
+            }
+            // lines starting with ':' are heartbeats
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void handleEvent(String name, String id, String data) throws IOException {
+        if ("job".equals(name)) {
+            if (id != null && handledJobs.contains(id)) {
+                sendJobResponse(id); // printed before, but the ack may not have arrived
+                return;
+            }
+            processJob(objectMapper.readValue(data, Map.class));
+        } else if ("cancel".equals(name)) {
+            System.out.println("🛑 Job cancelled: " + id);
+            if (id != null) {
+                handledJobs.add(id);
+            }
+        } else if ("config".equals(name)) {
+            Map<String, Object> config = objectMapper.readValue(data, Map.class);
+            if (config.get("name") instanceof String configuredName) {
+                this.deviceName = configuredName;
+            }
+            if (config.get("role") instanceof String configuredRole) {
+                this.printerRole = configuredRole;
+            }
+            System.out.println("⚙️  Config received: " + config);
+        }
+    }
+
+    // Long-poll: the backend answers as soon as a job is queued, so polls run back to back.
+    // Runs on its own thread because each poll blocks for up to LONG_POLL_SECONDS.
+    private void pollLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                if (deviceSecret != null) {
+                    long started = System.currentTimeMillis();
+                    int jobs = pollForJobs();
+                    // A backend without long-poll support answers at once; don't spin on it
+                    if (jobs > 0 || System.currentTimeMillis() - started >= MIN_EMPTY_POLL_MS) {
+                        continue;
+                    }
+                }
+            } catch (Exception e) {
+                /* ignore connection errors, retry after a pause */ }
+            try {
+                Thread.sleep(RETRY_DELAY_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
     }
 
     @Scheduled(fixedRate = 30000)
@@ -142,11 +306,10 @@ public class AgentApplication implements CommandLineRunner {
                 String.class);
     }
 
-    private void pollForJobs() {
-        System.out.println("Polling for jobs");
+    private int pollForJobs() {
         HttpHeaders headers = getDeviceHeaders();
         ResponseEntity<List> response = restTemplate.exchange(
-                backendUrl + "/print-jobs/pending",
+                backendUrl + "/print-jobs/pending?wait=" + LONG_POLL_SECONDS,
                 HttpMethod.GET,
                 new HttpEntity<>(headers),
                 List.class);
@@ -158,6 +321,7 @@ public class AgentApplication implements CommandLineRunner {
                 processJob(job);
             }
         }
+        return jobs != null ? jobs.size() : 0;
     }
 
     private void processJob(Map<String, Object> job) {
@@ -166,14 +330,86 @@ public class AgentApplication implements CommandLineRunner {
         System.out.println("Printing Job: " + jobId);
         
         System.out.println("payload:"+(String) job.get("payload"));
-        // ... write to file ...
 
-        // Send Response
-        HttpHeaders headers = getDeviceHeaders();
-        Map<String, String> body = Map.of("status", "success");
+        // The backend renders receipts to ESC/POS; the bytes go to the printer unchanged
+        String escpos = (String) job.get("escpos");
+        if (escpos != null) {
+            if (printerPath == null || printerPath.isEmpty()) {
+                // Reported as a failed attempt so the backend retries it instead of marking it printed
+                System.err.println("No printer configured, job " + jobId + " not printed");
+                sendJobResponse(jobId, Map.of("status", "failed", "error", "No printer configured on the agent"));
+                return;
+            }
+            try (OutputStream printer = new FileOutputStream(printerPath)) {
+                printer.write(Base64.getDecoder().decode(escpos));
+            } catch (IOException e) {
+                System.err.println("Printer write failed: " + e.getMessage());
+                sendJobResponse(jobId, Map.of("status", "failed", "error", String.valueOf(e.getMessage())));
+                return;
+            }
+        }
+
+        handledJobs.add(jobId);
+        sendJobResponse(jobId);
+    }
+
+    private void sendJobResponse(String jobId) {
+        sendJobResponse(jobId, Map.of("status", "success"));
+    }
+
+    // Queued for the next flush rather than posted one by one
+    private void sendJobResponse(String jobId, Map<String, String> body) {
+        Map<String, String> ack = new HashMap<>(body);
+        ack.put("jobId", jobId);
+        pendingAcks.add(ack);
+    }
+
+    @Scheduled(fixedDelay = ACK_FLUSH_MS)
+    public void flushAcks() {
+        while (deviceSecret != null && !pendingAcks.isEmpty()) {
+            List<Map<String, String>> batch = new ArrayList<>();
+            Map<String, String> ack;
+            while (batch.size() < MAX_ACKS_PER_BATCH && (ack = pendingAcks.poll()) != null) {
+                batch.add(ack);
+            }
+            try {
+                if (batchAcks) {
+                    postAcks(batch);
+                } else {
+                    for (Map<String, String> single : batch) {
+                        try {
+                            postAck(single);
+                        } catch (HttpClientErrorException.NotFound e) {
+                            // the job is gone on the backend; nothing left to ack
+                        }
+                    }
+                }
+            } catch (HttpClientErrorException.NotFound e) {
+                System.out.println("Backend has no batch acks, sending them one by one");
+                batchAcks = false;
+                pendingAcks.addAll(batch);
+            } catch (Exception e) {
+                // Kept for the next flush; a job whose lease runs out meanwhile is simply redelivered
+                System.out.println("⚠️  Ack flush failed: " + e.getMessage());
+                pendingAcks.addAll(batch);
+                return;
+            }
+        }
+    }
+
+    private void postAcks(List<Map<String, String>> acks) {
+        restTemplate.postForEntity(
+                backendUrl + "/print-jobs/responses",
+                new HttpEntity<>(acks, getDeviceHeaders()),
+                String.class);
+    }
+
+    private void postAck(Map<String, String> ack) {
+        Map<String, String> body = new HashMap<>(ack);
+        String jobId = body.remove("jobId");
         restTemplate.postForEntity(
                 backendUrl + "/print-jobs/" + jobId + "/response",
-                new HttpEntity<>(body, headers),
+                new HttpEntity<>(body, getDeviceHeaders()),
                 String.class);
     }
 
@@ -195,6 +431,8 @@ public class AgentApplication implements CommandLineRunner {
                 this.deviceSecret = props.getProperty("deviceSecret");
                 this.deviceId = props.getProperty("deviceId");
                 this.deviceName = props.getProperty("deviceName");
+                this.printerPath = props.getProperty("printerPath");
+                this.printerRole = props.getProperty("printerRole", "receipt");
             } catch (IOException e) {
             }
         }
@@ -219,6 +457,12 @@ public class AgentApplication implements CommandLineRunner {
         if (deviceName != null)
             props.setProperty("deviceName", deviceName);
 
+        if (printerPath != null)
+            props.setProperty("printerPath", printerPath);
+
+        if (printerRole != null)
+            props.setProperty("printerRole", printerRole);
+
         try (FileOutputStream out = new FileOutputStream(CONFIG_FILE)) {
             props.store(out, null);
         } catch (IOException e) {
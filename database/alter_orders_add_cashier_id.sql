@@ -0,0 +1,20 @@
+-- Record which user rang up each order (null for orders placed before this change)
+
+ALTER TABLE public.orders
+    ADD COLUMN IF NOT EXISTS cashier_id UUID;
+
+ALTER TABLE public.orders
+    DROP CONSTRAINT IF EXISTS orders_cashier_id_fkey;
+
+ALTER TABLE public.orders
+    ADD CONSTRAINT orders_cashier_id_fkey FOREIGN KEY (cashier_id)
+        REFERENCES public.users(id) ON DELETE SET NULL;
+
+-- Per-employee history lookups, which are always scoped to a store.
+-- Dropped first so databases that ran the earlier (cashier_id, placed_at) version pick up the new columns;
+-- ON DELETE SET NULL on users is rare enough to scan for.
+DROP INDEX IF EXISTS public.idx_orders_cashier_placed_at;
+
+CREATE INDEX idx_orders_cashier_placed_at
+    ON public.orders (store_id, cashier_id, placed_at DESC)
+    WHERE cashier_id IS NOT NULL;
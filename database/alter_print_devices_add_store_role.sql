@@ -0,0 +1,14 @@
+-- Store-level print queues: devices serve a store and a printer role, and jobs may name
+-- a role instead of a device; the backend routes them to the least-loaded live device
+
+ALTER TABLE public.print_devices
+    ADD COLUMN IF NOT EXISTS store_id UUID REFERENCES public.stores (id) ON DELETE SET NULL,
+    ADD COLUMN IF NOT EXISTS role VARCHAR(20) NOT NULL DEFAULT 'receipt';
+
+ALTER TABLE public.print_jobs
+    ADD COLUMN IF NOT EXISTS target_role VARCHAR(20);
+
+-- Store queue jobs still waiting for a device of their role
+CREATE INDEX IF NOT EXISTS idx_print_jobs_unassigned
+    ON public.print_jobs (created_at, id)
+    WHERE print_device_id IS NULL AND status = 'queued';
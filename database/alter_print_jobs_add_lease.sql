@@ -0,0 +1,10 @@
+-- Claim-and-lease delivery for print jobs: a claimed job is 'processing' until this time,
+-- after which the sweeper puts it back to 'queued' (and counts the attempt)
+
+ALTER TABLE public.print_jobs
+    ADD COLUMN IF NOT EXISTS lease_expires_at TIMESTAMP WITHOUT TIME ZONE;
+
+-- The sweeper only looks at leased jobs
+CREATE INDEX IF NOT EXISTS idx_print_jobs_lease_expires_at
+    ON public.print_jobs (lease_expires_at)
+    WHERE status = 'processing';
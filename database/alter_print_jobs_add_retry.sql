@@ -0,0 +1,22 @@
+-- Retry policy for print jobs: a failed attempt moves the job to 'retrying' until
+-- next_attempt_at, after which the sweeper queues it again; after the last allowed
+-- attempt it is dead-lettered as 'dead' (completed_at records when)
+
+ALTER TABLE public.print_jobs
+    ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP WITHOUT TIME ZONE;
+
+-- Jobs left in the old terminal 'failed' state become dead letters, so they can be replayed
+UPDATE public.print_jobs
+SET status = 'dead',
+    completed_at = COALESCE(completed_at, created_at)
+WHERE status = 'failed';
+
+-- The sweeper only looks at jobs waiting for their next attempt
+CREATE INDEX IF NOT EXISTS idx_print_jobs_next_attempt_at
+    ON public.print_jobs (next_attempt_at)
+    WHERE status = 'retrying';
+
+-- Dead-letter list: a merchant's dead jobs, most recent first
+CREATE INDEX IF NOT EXISTS idx_print_jobs_dead
+    ON public.print_jobs (merchant_id, completed_at DESC)
+    WHERE status = 'dead';
@@ -0,0 +1,5 @@
+-- Add cost of goods sold to end-of-day reports so margin can be compared across
+-- periods from the daily rollups. Existing rows stay NULL (cost unknown).
+
+ALTER TABLE public.store_daily_reports
+    ADD COLUMN IF NOT EXISTS cost_of_goods NUMERIC(14, 2);
@@ -0,0 +1,7 @@
+-- Keyset pagination for the invoice listing: newest first, ties broken by id.
+-- The listing reads (store_id, issued_at DESC, id DESC) in index order and stops after one page.
+CREATE INDEX IF NOT EXISTS idx_invoices_store_issued_at_id
+    ON public.invoices USING btree (store_id, issued_at DESC, id DESC) TABLESPACE pg_default;
+
+-- Superseded by the index above (same leading columns; range scans work in either direction)
+DROP INDEX IF EXISTS public.idx_invoices_store_id_issued_at;
@@ -0,0 +1,17 @@
+-- Keeps print job delivery and retention independent of how much history print_jobs holds
+
+-- Claims and pending-job lookups: a device's open jobs, oldest first. Finished jobs are
+-- not in the index, so it stays as small as the backlog
+CREATE INDEX IF NOT EXISTS idx_print_jobs_device_open
+    ON public.print_jobs (print_device_id, created_at)
+    WHERE status IN ('queued', 'processing');
+
+-- Archiver: finished jobs that still carry a payload; rows leave the index once compacted
+CREATE INDEX IF NOT EXISTS idx_print_jobs_compactable
+    ON public.print_jobs (created_at)
+    WHERE status IN ('success', 'cancelled') AND payload IS NOT NULL;
+
+-- Archiver, when deletion is enabled
+CREATE INDEX IF NOT EXISTS idx_print_jobs_finished_created_at
+    ON public.print_jobs (created_at)
+    WHERE status IN ('success', 'cancelled');
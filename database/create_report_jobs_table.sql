@@ -0,0 +1,33 @@
+-- Create report_jobs table for background report computation.
+-- Result files live in the server's local report file store (reports.jobs.dir).
+
+CREATE TABLE IF NOT EXISTS public.report_jobs (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    merchant_id TEXT NOT NULL,
+    store_id UUID,
+    requested_by UUID NOT NULL,
+    report_type VARCHAR(50) NOT NULL,
+    params TEXT,
+    status VARCHAR(20) NOT NULL DEFAULT 'queued',
+    file_name VARCHAR(255),
+    content_type VARCHAR(100),
+    file_path TEXT,
+    size_bytes BIGINT,
+    error TEXT,
+    created_at TIMESTAMP DEFAULT NOW(),
+    started_at TIMESTAMP,
+    completed_at TIMESTAMP,
+
+    CONSTRAINT report_jobs_pkey PRIMARY KEY (id),
+    CONSTRAINT report_jobs_merchant_id_fkey FOREIGN KEY (merchant_id)
+        REFERENCES public.merchants(id) ON DELETE CASCADE
+) TABLESPACE pg_default;
+
+-- "My recent jobs" listing
+CREATE INDEX IF NOT EXISTS idx_report_jobs_requested_by_created_at
+    ON public.report_jobs (requested_by, created_at DESC);
+
+-- Retention sweep over finished jobs
+CREATE INDEX IF NOT EXISTS idx_report_jobs_completed_at
+    ON public.report_jobs (completed_at)
+    WHERE completed_at IS NOT NULL;
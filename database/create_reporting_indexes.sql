@@ -0,0 +1,11 @@
+-- Indexes supporting the reporting queries (sales summary, exports, top products)
+
+-- Every report filters orders by store and a placed_at window
+CREATE INDEX IF NOT EXISTS idx_orders_store_id_placed_at
+    ON public.orders USING btree (store_id, placed_at DESC) TABLESPACE pg_default;
+
+-- Product-level aggregation joins order_items by order and groups by variant;
+-- including the summed columns lets Postgres answer it from the index alone
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id_variant
+    ON public.order_items USING btree (order_id, product_variant_id)
+    INCLUDE (quantity, total_price) TABLESPACE pg_default;
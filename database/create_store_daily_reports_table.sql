@@ -0,0 +1,34 @@
+-- Create store_daily_reports table holding materialized end-of-day (Z) reports.
+-- Rows are written once per store and business day by the nightly job and never updated.
+
+CREATE TABLE IF NOT EXISTS public.store_daily_reports (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    merchant_id TEXT NOT NULL,
+    store_id UUID NOT NULL,
+    business_date DATE NOT NULL,
+    timezone TEXT NOT NULL,
+    gross_sales NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    discounts_total NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    taxes_total NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    net_sales NUMERIC(14, 2) NOT NULL DEFAULT 0,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    item_count BIGINT NOT NULL DEFAULT 0,
+    tax_breakdown JSONB,
+    top_items JSONB,
+    first_invoice_number TEXT,
+    last_invoice_number TEXT,
+    invoice_count BIGINT NOT NULL DEFAULT 0,
+    currency TEXT DEFAULT 'PKR',
+    generated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+
+    CONSTRAINT store_daily_reports_pkey PRIMARY KEY (id),
+    CONSTRAINT store_daily_reports_merchant_id_fkey FOREIGN KEY (merchant_id)
+        REFERENCES public.merchants(id) ON DELETE CASCADE,
+    CONSTRAINT store_daily_reports_store_id_fkey FOREIGN KEY (store_id)
+        REFERENCES public.stores(id) ON DELETE CASCADE,
+    CONSTRAINT store_daily_reports_store_date_unique UNIQUE (store_id, business_date)
+) TABLESPACE pg_default;
+
+-- Invoice range lookups for the day
+CREATE INDEX IF NOT EXISTS idx_invoices_store_id_issued_at
+    ON public.invoices USING btree (store_id, issued_at) TABLESPACE pg_default;
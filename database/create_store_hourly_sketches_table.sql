@@ -0,0 +1,19 @@
+-- Create store_hourly_sketches table holding per-store, per-hour mergeable sketches
+-- (HyperLogLog of customers, quantile sketches of ticket size and items per order).
+-- bucket_start is the start of the hour in the store's local time.
+
+CREATE TABLE IF NOT EXISTS public.store_hourly_sketches (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    store_id UUID NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    order_count BIGINT NOT NULL DEFAULT 0,
+    customer_hll BYTEA,
+    order_total_sketch BYTEA,
+    item_count_sketch BYTEA,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+
+    CONSTRAINT store_hourly_sketches_pkey PRIMARY KEY (id),
+    CONSTRAINT store_hourly_sketches_store_id_fkey FOREIGN KEY (store_id)
+        REFERENCES public.stores(id) ON DELETE CASCADE,
+    CONSTRAINT store_hourly_sketches_store_bucket_unique UNIQUE (store_id, bucket_start)
+) TABLESPACE pg_default;
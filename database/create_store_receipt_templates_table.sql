@@ -0,0 +1,18 @@
+-- Per-store receipt templates for server-side ESC/POS rendering, plus the rendered bytes
+-- stored on each print job so agents can send them to the printer as-is.
+
+CREATE TABLE IF NOT EXISTS public.store_receipt_templates (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    store_id UUID NOT NULL,
+    body TEXT NOT NULL,
+    logo BYTEA,
+    updated_at TIMESTAMP WITH TIME ZONE DEFAULT NOW(),
+
+    CONSTRAINT store_receipt_templates_pkey PRIMARY KEY (id),
+    CONSTRAINT store_receipt_templates_store_id_fkey FOREIGN KEY (store_id)
+        REFERENCES public.stores(id) ON DELETE CASCADE,
+    CONSTRAINT store_receipt_templates_store_unique UNIQUE (store_id)
+) TABLESPACE pg_default;
+
+ALTER TABLE public.print_jobs
+    ADD COLUMN IF NOT EXISTS escpos BYTEA;
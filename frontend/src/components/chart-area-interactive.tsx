@@ -95,7 +95,25 @@ export function ChartAreaInteractive({
     const fetchRevenueData = async () => {
       try {
         setLoading(true)
-        const response = await fetch(`${apiBaseUrl}/api/orders`, {
+        let days = 90
+        if (timeRange === "30d") {
+          days = 30
+        } else if (timeRange === "7d") {
+          days = 7
+        }
+        const toDate = new Date()
+        const fromDate = new Date(toDate)
+        fromDate.setDate(fromDate.getDate() - (days - 1))
+        const formatDate = (d: Date) =>
+          `${d.getFullYear()}-${String(d.getMonth() + 1).padStart(2, '0')}-${String(d.getDate()).padStart(2, '0')}`
+
+        // The backend buckets sales per day in the store's timezone and fills empty days
+        const params = new URLSearchParams({
+          bucket: 'day',
+          from: formatDate(fromDate),
+          to: formatDate(toDate),
+        })
+        const response = await fetch(`${apiBaseUrl}/api/reports/sales/timeseries?${params}`, {
           headers: buildHeaders(),
         })
         
@@ -105,36 +123,15 @@ export function ChartAreaInteractive({
             return
           }
           const errorText = await response.text()
-          throw new Error(errorText || 'Failed to fetch orders')
+          throw new Error(errorText || 'Failed to fetch revenue data')
         }
 
-        const orders = await response.json()
-        
-        // Group orders by date and calculate daily revenue and order count
-        const dailyData = new Map<string, { revenue: number; orders: number }>()
-        
-        orders.forEach((order: any) => {
-          if (!order.placedAt) return
-          const date = new Date(order.placedAt).toISOString().split('T')[0]
-          const revenue = parseFloat(order.totalAmount || order.subtotal || 0)
-          
-          if (!dailyData.has(date)) {
-            dailyData.set(date, { revenue: 0, orders: 0 })
-          }
-          
-          const dayData = dailyData.get(date)!
-          dayData.revenue += revenue
-          dayData.orders += 1
-        })
-
-        // Convert to array and sort by date
-        const data = Array.from(dailyData.entries())
-          .map(([date, values]) => ({
-            date,
-            revenue: Number(values.revenue.toFixed(2)),
-            orders: values.orders,
-          }))
-          .sort((a, b) => a.date.localeCompare(b.date))
+        const series = await response.json()
+        const data = (series.points || []).map((point: any) => ({
+          date: String(point.bucketStart).split('T')[0],
+          revenue: Number(parseFloat(point.netSales || 0).toFixed(2)),
+          orders: Number(point.orderCount || 0),
+        }))
 
         setChartData(data)
       } catch (error) {
@@ -145,55 +142,15 @@ export function ChartAreaInteractive({
     }
 
     fetchRevenueData()
-  }, [apiBaseUrl, token, storeId, userRole, storeAccess])
-
-  const filteredData = React.useMemo(() => {
-    if (!chartData.length) return []
-    
-    const now = new Date()
-    let daysToSubtract = 90
-    if (timeRange === "30d") {
-      daysToSubtract = 30
-    } else if (timeRange === "7d") {
-      daysToSubtract = 7
-    }
-    
-    const startDate = new Date(now)
-    startDate.setDate(startDate.getDate() - daysToSubtract)
-    startDate.setHours(0, 0, 0, 0)
-
-    return chartData.filter((item) => {
-      const date = new Date(item.date)
-      return date >= startDate
-    })
-  }, [chartData, timeRange])
-
-  // Fill in missing dates with zero values for smoother chart
-  const filledData = React.useMemo(() => {
-    if (!filteredData.length) return []
-    
-    const result: Array<{ date: string; revenue: number; orders: number }> = []
-    const dataMap = new Map(filteredData.map(item => [item.date, item]))
-    
-    const startDate = new Date(filteredData[0].date)
-    const endDate = new Date(filteredData[filteredData.length - 1].date)
-    
-    for (let d = new Date(startDate); d <= endDate; d.setDate(d.getDate() + 1)) {
-      const dateStr = d.toISOString().split('T')[0]
-      const existing = dataMap.get(dateStr)
-      result.push(existing || { date: dateStr, revenue: 0, orders: 0 })
-    }
-    
-    return result
-  }, [filteredData])
+  }, [apiBaseUrl, token, storeId, userRole, storeAccess, timeRange])
 
   const totalRevenue = React.useMemo(() => {
-    return filledData.reduce((sum, item) => sum + item.revenue, 0)
-  }, [filledData])
+    return chartData.reduce((sum, item) => sum + item.revenue, 0)
+  }, [chartData])
 
   const totalOrders = React.useMemo(() => {
-    return filledData.reduce((sum, item) => sum + item.orders, 0)
-  }, [filledData])
+    return chartData.reduce((sum, item) => sum + item.orders, 0)
+  }, [chartData])
 
   return (
     <Card className="@container/card">
@@ -244,7 +201,7 @@ export function ChartAreaInteractive({
           <div className="flex items-center justify-center h-[250px]">
             <div className="text-sm text-muted-foreground">Loading revenue data...</div>
           </div>
-        ) : filledData.length === 0 ? (
+        ) : chartData.length === 0 ? (
           <div className="flex items-center justify-center h-[250px]">
             <div className="text-sm text-muted-foreground">No revenue data available</div>
           </div>
@@ -270,7 +227,7 @@ export function ChartAreaInteractive({
               config={chartConfig}
               className="aspect-auto h-[250px] w-full max-w-full"
             >
-              <AreaChart data={filledData}>
+              <AreaChart data={chartData}>
                 <defs>
                   <linearGradient id="fillRevenue" x1="0" y1="0" x2="0" y2="1">
                     <stop
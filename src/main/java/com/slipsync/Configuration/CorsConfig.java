@@ -22,7 +22,7 @@ public class CorsConfig {
                         )
                         .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                         .allowedHeaders("*")
-                        .exposedHeaders("X-Store-Id")
+                        .exposedHeaders("X-Store-Id", "X-Next-Cursor")
                         .allowCredentials(true);
             }
         };
@@ -0,0 +1,30 @@
+package com.slipsync.Configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class InvoiceDocumentExecutorConfig {
+
+    // Separate from reportExecutor so a burst of checkouts cannot queue renders in front of
+    // report fan-out. Each thread holds a connection while it loads the invoice.
+    @Value("${invoices.documents.render-threads:1}")
+    private int threads;
+
+    @Value("${invoices.documents.render-queue-capacity:100}")
+    private int queueCapacity;
+
+    @Bean(name = "invoiceRenderExecutor")
+    public ThreadPoolTaskExecutor invoiceRenderExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("invoice-render-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
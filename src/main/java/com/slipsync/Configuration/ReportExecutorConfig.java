@@ -0,0 +1,58 @@
+package com.slipsync.Configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class ReportExecutorConfig {
+
+    // Each report thread holds one connection while it runs, so the pool is capped at the
+    // Hikari pool size minus the connections kept back for request threads.
+    @Value("${reports.executor.threads:3}")
+    private int threads;
+
+    @Value("${reports.executor.reserved-connections:2}")
+    private int reservedConnections;
+
+    @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+    private int connectionPoolSize;
+
+    @Value("${reports.executor.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${reports.jobs.workers:2}")
+    private int jobWorkers;
+
+    @Bean(name = "reportExecutor")
+    public ThreadPoolTaskExecutor reportExecutor() {
+        int size = Math.max(1, Math.min(threads, connectionPoolSize - reservedConnections));
+        if (size < threads) {
+            System.out.println("⚠️  [Reports] reports.executor.threads=" + threads + " capped to " + size
+                    + " (Hikari pool " + connectionPoolSize + ", " + reservedConnections + " reserved)");
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("report-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+
+    // Runs background report jobs. The job service never hands it more than jobWorkers
+    // jobs at once; their database work is pushed onto reportExecutor above.
+    @Bean(name = "reportJobExecutor")
+    public ThreadPoolTaskExecutor reportJobExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(jobWorkers);
+        executor.setMaxPoolSize(jobWorkers);
+        executor.setQueueCapacity(jobWorkers);
+        executor.setThreadNamePrefix("report-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(false);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,47 @@
+package com.slipsync.Configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+public class SchedulingConfig {
+
+    public static final String PRINT_SCHEDULER = "printTaskScheduler";
+    public static final String STREAM_HEARTBEAT_SCHEDULER = "streamHeartbeatScheduler";
+
+    @Value("${printing.scheduler.threads:2}")
+    private int printThreads;
+
+    @Value("${printing.channel.heartbeat-threads:1}")
+    private int heartbeatThreads;
+
+    // Default scheduler for report and maintenance tasks, sized by spring.task.scheduling.*.
+    // Declared here because a second TaskScheduler bean turns off Boot's own.
+    @Bean(name = "taskScheduler")
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    // Print delivery tasks (lease sweep, routing, heartbeat flush) run here, so an hourly archive
+    // or a slow Z-report pass can never hold up requeueing or routing jobs.
+    @Bean(name = PRINT_SCHEDULER)
+    public ThreadPoolTaskScheduler printTaskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(printThreads);
+        scheduler.setThreadNamePrefix("print-scheduling-");
+        return scheduler;
+    }
+
+    // Agent stream heartbeats write to every open stream and each write blocks until the
+    // agent's socket takes it, so they get their own threads.
+    @Bean(name = STREAM_HEARTBEAT_SCHEDULER)
+    public ThreadPoolTaskScheduler streamHeartbeatScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(heartbeatThreads);
+        scheduler.setThreadNamePrefix("stream-heartbeat-");
+        return scheduler;
+    }
+}
@@ -6,30 +6,78 @@ import com.slipsync.Entities.Store;
 import com.slipsync.Entities.User;
 import com.slipsync.Repositories.InvoiceRepository;
 import com.slipsync.Repositories.UserRepository;
+import com.slipsync.Services.InvoiceArchiveService;
+import com.slipsync.Services.InvoiceDocumentService;
+import com.slipsync.Services.InvoiceDocumentStore;
+import com.slipsync.Services.PermissionService;
+import com.slipsync.Services.SalesReportService;
+import com.slipsync.Services.SalesReportService.DateWindow;
 import com.slipsync.Services.StoreContextService;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api")
 public class InvoiceController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final Pattern LIKE_SPECIAL = Pattern.compile("[!%_]");
+    private static final long MAX_ARCHIVE_DAYS = 93;
+    private static final MediaType ZIP = MediaType.parseMediaType("application/zip");
+
     private final InvoiceRepository invoiceRepository;
     private final UserRepository userRepository;
     private final StoreContextService storeContextService;
+    private final SalesReportService salesReportService;
+    private final PermissionService permissionService;
+    private final InvoiceDocumentService invoiceDocumentService;
+    private final InvoiceDocumentStore invoiceDocumentStore;
+    private final InvoiceArchiveService invoiceArchiveService;
 
     public InvoiceController(InvoiceRepository invoiceRepository,
                              UserRepository userRepository,
-                             StoreContextService storeContextService) {
+                             StoreContextService storeContextService,
+                             SalesReportService salesReportService,
+                             PermissionService permissionService,
+                             InvoiceDocumentService invoiceDocumentService,
+                             InvoiceDocumentStore invoiceDocumentStore,
+                             InvoiceArchiveService invoiceArchiveService) {
         this.invoiceRepository = invoiceRepository;
         this.userRepository = userRepository;
         this.storeContextService = storeContextService;
+        this.salesReportService = salesReportService;
+        this.permissionService = permissionService;
+        this.invoiceDocumentService = invoiceDocumentService;
+        this.invoiceDocumentStore = invoiceDocumentStore;
+        this.invoiceArchiveService = invoiceArchiveService;
     }
 
     private User getCurrentUser(HttpServletRequest request) {
@@ -42,8 +90,19 @@ public class InvoiceController {
                 .orElse(null);
     }
 
+    /**
+     * Newest invoices first, in pages. The response body stays a plain array; when more
+     * rows exist the cursor for the next page is returned in the X-Next-Cursor header.
+     */
     @GetMapping("/invoices")
-    public ResponseEntity<?> getInvoices(HttpServletRequest request) {
+    public ResponseEntity<?> getInvoices(@RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "10") int limit,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                         @RequestParam(required = false) String number,
+                                         @RequestParam(required = false) BigDecimal minTotal,
+                                         @RequestParam(required = false) BigDecimal maxTotal,
+                                         HttpServletRequest request) {
         User user = getCurrentUser(request);
         if (user == null) {
             return ResponseEntity.status(401).body("Unauthorized");
@@ -52,32 +111,163 @@ public class InvoiceController {
         if (store == null) {
             return ResponseEntity.status(400).body("No store assigned");
         }
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.status(400).body("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (from != null && to != null && to.isBefore(from)) {
+            return ResponseEntity.status(400).body("'to' must not be before 'from'");
+        }
+        if (minTotal != null && maxTotal != null && maxTotal.compareTo(minTotal) < 0) {
+            return ResponseEntity.status(400).body("'maxTotal' must not be below 'minTotal'");
+        }
+
+        LocalDateTime cursorIssuedAt = null;
+        UUID cursorId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+                cursorIssuedAt = LocalDateTime.parse(parts[0]);
+                cursorId = UUID.fromString(parts[1]);
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(400).body("Invalid cursor");
+            }
+        }
 
-        List<InvoiceSummaryDto> invoices = invoiceRepository
-                .findTop10ByStoreIdOrderByIssuedAtDesc(store.getId())
-                .stream()
-                .map(invoice -> toDto(invoice, store))
-                .toList();
+        // Date filters are whole days in the store's timezone
+        LocalDateTime start = from != null ? salesReportService.windowFor(store, from, from).start() : null;
+        LocalDateTime end = to != null ? salesReportService.windowFor(store, to, to).end() : null;
+        String numberPrefix = number != null && !number.isBlank()
+                ? LIKE_SPECIAL.matcher(number.trim().toUpperCase(Locale.ROOT)).replaceAll("!$0") + "%"
+                : null;
 
-        return ResponseEntity.ok(invoices);
+        // One extra row tells whether another page exists
+        List<InvoiceSummaryDto> rows = invoiceRepository.findPage(store.getId(), cursorIssuedAt, cursorId,
+                start, end, numberPrefix, minTotal, maxTotal, PageRequest.of(0, limit + 1));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            InvoiceSummaryDto last = rows.get(limit - 1);
+            String next = last.issuedAt() + "|" + last.id();
+            response.header(NEXT_CURSOR_HEADER,
+                    Base64.getUrlEncoder().withoutPadding().encodeToString(next.getBytes(StandardCharsets.UTF_8)));
+        }
+        return response.body(rows);
     }
 
-            private InvoiceSummaryDto toDto(Invoice invoice, Store store) {
-        BigDecimal total = invoice.getTotal() != null ? invoice.getTotal() : BigDecimal.ZERO;
-        String orderNumber = invoice.getOrder() != null ? invoice.getOrder().getOrderNumber() : null;
-                String currency = invoice.getCurrency() != null
-                        ? invoice.getCurrency()
-                        : (store.getCurrency() != null ? store.getCurrency() : "PKR");
-
-        return new InvoiceSummaryDto(
-                invoice.getId(),
-                invoice.getInvoiceNumber(),
-                orderNumber,
-                total,
-                invoice.getIssuedAt(),
-                currency
-        );
+    /**
+     * Current PDF for the invoice. Revalidated by ETag (the content hash), so an unchanged
+     * document costs a 304.
+     */
+    @GetMapping("/invoices/{invoiceId}/pdf")
+    public ResponseEntity<?> getInvoicePdf(@PathVariable UUID invoiceId, HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        Invoice invoice = findAccessibleInvoice(invoiceId, user, request);
+        if (invoice == null) {
+            return ResponseEntity.status(404).body("Invoice not found");
+        }
+
+        String hash = invoiceDocumentService.ensurePdf(invoice);
+        return pdfResponse(invoice, hash, request, CacheControl.noCache().cachePrivate());
     }
-}
 
+    /**
+     * A specific stored rendering (the pdfUrl form). The URL changes whenever the content
+     * does, so the response can be cached indefinitely.
+     */
+    @GetMapping("/invoices/{invoiceId}/pdf/{hash}")
+    public ResponseEntity<?> getInvoicePdfVersion(@PathVariable UUID invoiceId, @PathVariable String hash,
+                                                  HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        Invoice invoice = findAccessibleInvoice(invoiceId, user, request);
+        if (invoice == null) {
+            return ResponseEntity.status(404).body("Invoice not found");
+        }
+        if (invoiceDocumentStore.find(invoiceId, hash) == null
+                && !hash.equals(invoiceDocumentService.ensurePdf(invoice))) {
+            return ResponseEntity.status(404).body("Document version not found");
+        }
+        return pdfResponse(invoice, hash, request,
+                CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable());
+    }
 
+    /**
+     * ZIP of every invoice PDF issued in [from, to] (store-local days) with a CSV manifest,
+     * streamed as it is built.
+     */
+    @GetMapping(value = "/invoices/archive", produces = {"application/zip", MediaType.TEXT_PLAIN_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportInvoiceArchive(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return textResponse(401, "Unauthorized");
+        }
+        if (!permissionService.hasPermission(user, "view_reports")) {
+            return textResponse(403, "Forbidden: role cannot export invoices");
+        }
+        Store store = user.getStore();
+        if (store == null) {
+            return textResponse(400, "No store assigned");
+        }
+        if (to.isBefore(from)) {
+            return textResponse(400, "'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_ARCHIVE_DAYS) {
+            return textResponse(400, "Range cannot exceed " + MAX_ARCHIVE_DAYS + " days");
+        }
+
+        DateWindow window = salesReportService.windowFor(store, from, to);
+        String filename = "invoices-" + from + "-to-" + to + ".zip";
+        StreamingResponseBody body = out -> invoiceArchiveService.writeArchive(store, window.start(), window.end(), out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .contentType(ZIP)
+                .body(body);
+    }
+
+    private ResponseEntity<?> pdfResponse(Invoice invoice, String hash, HttpServletRequest request,
+                                          CacheControl cacheControl) {
+        String etag = "\"" + hash + "\"";
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(304).eTag(etag).cacheControl(cacheControl).build();
+        }
+
+        Path file = invoiceDocumentStore.find(invoice.getId(), hash);
+        if (file == null) {
+            return ResponseEntity.status(404).body("Document not found");
+        }
+        String fileName = (invoice.getInvoiceNumber() != null ? invoice.getInvoiceNumber() : invoice.getId()) + ".pdf";
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .contentType(MediaType.APPLICATION_PDF)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.inline().filename(fileName).build().toString())
+                .body(new FileSystemResource(file));
+    }
+
+    private Invoice findAccessibleInvoice(UUID invoiceId, User user, HttpServletRequest request) {
+        Invoice invoice = invoiceRepository.findById(invoiceId).orElse(null);
+        if (invoice == null || invoice.getStore() == null || invoice.getMerchant() == null
+                || !invoice.getMerchant().getId().equals(user.getMerchant().getId())) {
+            return null;
+        }
+        Set<String> storeAccess = storeContextService.getStoreAccess(request, user);
+        return permissionService.canAccessStore(user, invoice.getStore().getId(), storeAccess) ? invoice : null;
+    }
+
+    private ResponseEntity<StreamingResponseBody> textResponse(int status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
+    }
+}
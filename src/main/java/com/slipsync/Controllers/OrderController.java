@@ -4,15 +4,18 @@ import com.slipsync.DTO.OrderSummaryDto;
 import com.slipsync.DTO.OrderDetailDto;
 import com.slipsync.DTO.OrderItemDetailDto;
 import com.slipsync.Entities.*;
+import com.slipsync.Events.OrderChangedEvent;
 import com.slipsync.Repositories.*;
 import com.slipsync.Services.StoreContextService;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Instant;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -31,6 +34,7 @@ public class OrderController {
     private final CustomerRepository customerRepository;
     private final UserRepository userRepository;
     private final StoreContextService storeContextService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public OrderController(OrderRepository orderRepository,
             OrderItemRepository orderItemRepository,
@@ -39,7 +43,8 @@ public class OrderController {
             InventoryRepository inventoryRepository,
             CustomerRepository customerRepository,
             UserRepository userRepository,
-            StoreContextService storeContextService) {
+            StoreContextService storeContextService,
+            ApplicationEventPublisher eventPublisher) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.invoiceRepository = invoiceRepository;
@@ -48,6 +53,7 @@ public class OrderController {
         this.customerRepository = customerRepository;
         this.userRepository = userRepository;
         this.storeContextService = storeContextService;
+        this.eventPublisher = eventPublisher;
     }
 
     private User getCurrentUser(HttpServletRequest request) {
@@ -192,6 +198,7 @@ public class OrderController {
             Order order = new Order();
             order.setMerchant(user.getMerchant());
             order.setStore(currentStore);
+            order.setCashier(user);
             order.setOrderNumber("ORD-" + System.currentTimeMillis()); // Simple generator
             String status = payload.getOrDefault("status", "paid").toString();
             order.setStatus(status);
@@ -225,6 +232,7 @@ public class OrderController {
             Order savedOrder = orderRepository.save(order);
 
             BigDecimal subtotal = BigDecimal.ZERO;
+            int itemCount = 0;
             @SuppressWarnings("unchecked")
             List<Map<String, Object>> items = (List<Map<String, Object>>) payload.get("items");
             if (items == null || items.isEmpty()) {
@@ -264,6 +272,7 @@ public class OrderController {
 
                 orderItemRepository.save(orderItem);
                 subtotal = subtotal.add(lineTotal);
+                itemCount += qty;
 
                 // B. Decrement Inventory
                 Inventory inventory = inventoryRepository.findByStoreIdAndVariantId(currentStore.getId(), variantId)
@@ -320,6 +329,17 @@ public class OrderController {
             invoice.setCurrency(savedOrder.getCurrency());
             invoiceRepository.save(invoice);
 
+            // Cached reports for this store are dropped and sketches updated once the transaction commits
+            eventPublisher.publishEvent(new OrderChangedEvent(
+                    currentStore.getId(),
+                    savedOrder.getId(),
+                    OrderChangedEvent.PLACED,
+                    savedOrder.getCustomer() != null ? savedOrder.getCustomer().getId() : null,
+                    total,
+                    itemCount,
+                    currentStore.getTimezone(),
+                    Instant.now()));
+
             return ResponseEntity.ok(savedOrder);
 
         } catch (Exception e) {
@@ -1,44 +1,93 @@
 package com.slipsync.Controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.slipsync.DTO.PrintJobAckDto;
+import com.slipsync.DTO.ReceiptPayloadDto;
 import com.slipsync.Entities.*;
+import com.slipsync.Events.PrintJobCancelledEvent;
+import com.slipsync.Events.PrintJobQueuedEvent;
 import com.slipsync.Repositories.*;
+import com.slipsync.Services.DeviceHeartbeatRegistry;
+import com.slipsync.Services.PrintAgentChannelService;
+import com.slipsync.Services.PrintJobLeaseService;
+import com.slipsync.Services.PrintJobRetryService;
+import com.slipsync.Services.PrintJobRouter;
+import com.slipsync.Services.PrintJobWaitService;
+import com.slipsync.Services.PermissionService;
+import com.slipsync.Services.ReceiptPayloadService;
+import com.slipsync.Services.ReceiptRenderService;
 import com.slipsync.Services.StoreContextService;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 @RestController
 @RequestMapping("/api")
 public class PrintingController {
 
+    private static final int MAX_ACKS_PER_BATCH = 500;
+
     private final PrintDeviceRepository deviceRepository;
     private final PrintJobRepository jobRepository;
     private final UserRepository userRepository;
-    private final OrderRepository orderRepository;
     private final StoreContextService storeContextService;
-    private final ObjectMapper objectMapper; // To convert Order to JSON payload
+    private final ObjectMapper objectMapper; // To convert the receipt to JSON payload
+    private final ReceiptPayloadService receiptPayloadService;
+    private final ReceiptRenderService receiptRenderService;
+    private final PermissionService permissionService;
+    private final PrintJobWaitService printJobWaitService;
+    private final PrintAgentChannelService printAgentChannelService;
+    private final PrintJobLeaseService printJobLeaseService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DeviceHeartbeatRegistry heartbeatRegistry;
+    private final PrintJobRetryService printJobRetryService;
+    private final PrintJobRouter printJobRouter;
 
     public PrintingController(PrintDeviceRepository deviceRepository,
             PrintJobRepository jobRepository,
             UserRepository userRepository,
-            OrderRepository orderRepository,
+            ReceiptPayloadService receiptPayloadService,
+            ReceiptRenderService receiptRenderService,
+            PermissionService permissionService,
             ObjectMapper objectMapper,
-            StoreContextService storeContextService) {
+            StoreContextService storeContextService,
+            PrintJobWaitService printJobWaitService,
+            PrintAgentChannelService printAgentChannelService,
+            PrintJobLeaseService printJobLeaseService,
+            ApplicationEventPublisher eventPublisher,
+            DeviceHeartbeatRegistry heartbeatRegistry,
+            PrintJobRetryService printJobRetryService,
+            PrintJobRouter printJobRouter) {
         this.deviceRepository = deviceRepository;
         this.jobRepository = jobRepository;
         this.userRepository = userRepository;
-        this.orderRepository = orderRepository;
+        this.receiptPayloadService = receiptPayloadService;
+        this.receiptRenderService = receiptRenderService;
+        this.permissionService = permissionService;
         this.objectMapper = objectMapper;
         this.storeContextService = storeContextService;
+        this.printJobWaitService = printJobWaitService;
+        this.printAgentChannelService = printAgentChannelService;
+        this.printJobLeaseService = printJobLeaseService;
+        this.eventPublisher = eventPublisher;
+        this.heartbeatRegistry = heartbeatRegistry;
+        this.printJobRetryService = printJobRetryService;
+        this.printJobRouter = printJobRouter;
     }
 
     private User getCurrentUser(HttpServletRequest request) {
@@ -52,23 +101,16 @@ public class PrintingController {
     }
 
     // --- 1. HEARTBEAT (Called by Local Agent) ---
-    // Note: Ideally, the Agent should have its own API Key.
-    // For MVP, we'll assume the Agent sends the User's JWT (Owner is logged in on
-    // the PC).
+    // The agent authenticates with its X-Device-Secret; the beat is only recorded in
+    // memory and written to last_seen by the registry's periodic flush.
     @PostMapping("/print-devices/heartbeat")
-    public ResponseEntity<?> heartbeat(HttpServletRequest request, @RequestBody Map<String, String> payload) {
-
-        String deviceIdentifier = payload.get("deviceIdentifier");
-        String deviceName = payload.getOrDefault("name", "Local POS Terminal");
-
-        PrintDevice device = deviceRepository.findByDeviceIdentifier(deviceIdentifier).orElse(null);
-
-        if (device != null) {
-            // New Device
-            device.setLastSeen(LocalDateTime.now());
-        }
+    public ResponseEntity<?> heartbeat(HttpServletRequest request) {
+        PrintDevice device = (PrintDevice) request.getAttribute("print.device");
+        if (device == null)
+            return ResponseEntity.status(401).body("Unauthorized");
 
-        return ResponseEntity.ok(deviceRepository.save(device));
+        LocalDateTime lastSeen = heartbeatRegistry.beat(device);
+        return ResponseEntity.ok(Map.of("deviceIdentifier", device.getDeviceIdentifier(), "lastSeen", lastSeen));
     }
 
     @PostMapping("/print-devices/register")
@@ -79,6 +121,9 @@ public class PrintingController {
 
         String deviceIdentifier = payload.get("deviceIdentifier");
         String deviceName = payload.getOrDefault("name", "POS Terminal");
+        String role = payload.getOrDefault("role", "receipt");
+        if (!PrintJobRouter.ROLES.contains(role))
+            return ResponseEntity.status(400).body("role must be one of " + PrintJobRouter.ROLES);
 
         PrintDevice device = deviceRepository.findByDeviceIdentifier(deviceIdentifier)
                 .orElse(new PrintDevice());
@@ -90,10 +135,14 @@ public class PrintingController {
 
         device.setDeviceIdentifier(deviceIdentifier);
         device.setMerchant(user.getMerchant()); // Link to this user's merchant
+        device.setStore(user.getStore()); // Serves this store's queues
         device.setName(deviceName);
+        device.setRole(role);
         device.setLastSeen(LocalDateTime.now());
 
         deviceRepository.save(device);
+        heartbeatRegistry.beat(device);
+        printAgentChannelService.pushConfig(device);
 
         // Return the secret to the agent
         Map<String, String> response = new HashMap<>();
@@ -111,19 +160,17 @@ public class PrintingController {
         if (user == null)
             return ResponseEntity.status(401).body("Unauthorized");
 
-        List<PrintDevice> devices = deviceRepository.findByMerchantId(user.getMerchant().getId());
-
-        Map<String, Object> response = new HashMap<>();       
+        Map<String, Object> response = new HashMap<>();
         // Build a list of device info objects (name + lastSeen) to return to the client
         java.util.List<Map<String, Object>> deviceList = new java.util.ArrayList<>();
-        for (PrintDevice d : devices) {
-            if (d.getLastSeen() != null && ChronoUnit.SECONDS.between(d.getLastSeen(), LocalDateTime.now()) < 10) {
-                Map<String, Object> dev = new HashMap<>();
-                dev.put("name", d.getName());
-                dev.put("deviceIdentifier", d.getApiSecret());
-                dev.put("lastSeen", d.getLastSeen());
-                deviceList.add(dev);
-            }
+        for (DeviceHeartbeatRegistry.Beat beat : heartbeatRegistry.liveDevices(user.getMerchant().getId())) {
+            Map<String, Object> dev = new HashMap<>();
+            dev.put("name", beat.name());
+            dev.put("deviceIdentifier", beat.apiSecret());
+            dev.put("role", beat.role());
+            dev.put("storeId", beat.storeId());
+            dev.put("lastSeen", beat.lastSeen());
+            deviceList.add(dev);
         }
         response.put("devices", deviceList);
 
@@ -131,64 +178,242 @@ public class PrintingController {
     }
 
     // --- 3. CREATE JOB (Called by React Frontend) ---
+    // Body: {"deviceIdentifier": "..."} prints on that device; {"role": "kitchen"} uses the
+    // store's queue for that role, served by the least-loaded live device
     @PostMapping("/print-jobs/{orderId}")
     public ResponseEntity<?> createPrintJob(HttpServletRequest request, @PathVariable UUID orderId,
             @RequestBody Map<String, String> payload) {
         User user = getCurrentUser(request);
         String deviceIdentifier = payload.get("deviceIdentifier");
+        String role = payload.get("role");
         System.out.println("deviceIdentifier of selected device:" + deviceIdentifier);
-        if (user == null || deviceIdentifier == null)
+        if (user == null)
             return ResponseEntity.status(401).body("Unauthorized");
-
-        Order order = orderRepository.findById(orderId).orElse(null);
-        if (order == null)
+        if (deviceIdentifier == null && role == null)
+            return ResponseEntity.status(400).body("deviceIdentifier or role is required");
+        if (deviceIdentifier == null && !PrintJobRouter.ROLES.contains(role))
+            return ResponseEntity.status(400).body("role must be one of " + PrintJobRouter.ROLES);
+        if (deviceIdentifier == null && user.getStore() == null)
+            return ResponseEntity.status(400).body("No store assigned");
+
+        ReceiptPayloadDto receipt = receiptPayloadService.build(orderId, user.getMerchant().getId()).orElse(null);
+        if (receipt == null)
             return ResponseEntity.status(404).body("Order not found");
 
         try {
             PrintJob job = new PrintJob();
-            job.setPrintDeviceId(deviceIdentifier);
+            if (deviceIdentifier != null) {
+                job.setPrintDeviceId(deviceIdentifier);
+            } else {
+                // No live device yet: the job waits unassigned until the router finds one
+                job.setTargetRole(role);
+                job.setPrintDeviceId(printJobRouter.pickDevice(user.getMerchant().getId(),
+                        user.getStore().getId(), role, null).orElse(null));
+            }
             job.setMerchant(user.getMerchant());
             job.setStore(user.getStore()); // Job is for THIS store
             job.setJobType("receipt");
             job.setStatus("queued");
 
-            // Serialize the Order object to JSON string for the payload
-            // The Agent will download this JSON and print it
-            String orderJson = objectMapper.writeValueAsString(order);
-            job.setPayload(orderJson);
+            // The Agent gets everything it prints in this JSON (see ReceiptPayloadDto)
+            job.setPayload(objectMapper.writeValueAsString(receipt));
+            // ...and the same receipt as printer bytes, rendered with the store's template
+            job.setEscpos(receiptRenderService.render(
+                    user.getStore() != null ? user.getStore().getId() : null, receipt));
 
-            return ResponseEntity.ok(jobRepository.save(job));
+            PrintJob saved = jobRepository.save(job);
+            // Wakes the device's parked long-poll, if any
+            eventPublisher.publishEvent(new PrintJobQueuedEvent(saved.getId(), saved.getPrintDeviceId()));
+            return ResponseEntity.ok(saved);
 
         } catch (Exception e) {
             return ResponseEntity.status(500).body("Failed to queue print job: " + e.getMessage());
         }
     }
 
+    // --- 3b. RECEIPT TEMPLATE (Called by React Frontend) ---
+    @GetMapping("/print-templates")
+    public ResponseEntity<?> getReceiptTemplate(HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null)
+            return ResponseEntity.status(401).body("Unauthorized");
+        if (user.getStore() == null)
+            return ResponseEntity.status(400).body("No store assigned");
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("body", receiptRenderService.templateSource(user.getStore().getId()));
+        return ResponseEntity.ok(response);
+    }
+
+    // Body: {"body": "<template>", "logo": "<base64 image>"}; omit logo to keep it, "" to remove it
+    @PutMapping("/print-templates")
+    public ResponseEntity<?> saveReceiptTemplate(HttpServletRequest request, @RequestBody Map<String, String> payload) {
+        User user = getCurrentUser(request);
+        if (user == null)
+            return ResponseEntity.status(401).body("Unauthorized");
+        if (!permissionService.hasPermission(user, "manage_stores"))
+            return ResponseEntity.status(403).body("Forbidden: role cannot manage stores");
+        if (user.getStore() == null)
+            return ResponseEntity.status(400).body("No store assigned");
+        String body = payload.get("body");
+        if (body == null || body.isBlank())
+            return ResponseEntity.status(400).body("body is required");
+
+        try {
+            String encodedLogo = payload.get("logo");
+            byte[] logo = !payload.containsKey("logo") ? null
+                    : encodedLogo == null ? new byte[0] : Base64.getDecoder().decode(encodedLogo);
+            receiptRenderService.save(user.getStore(), body, logo);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(e.getMessage());
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("body", body);
+        return ResponseEntity.ok(response);
+    }
+
     // --- 4. POLL FOR JOBS (Called by Local Agent) ---
+    // Returned jobs are claimed: 'processing' under a lease until the agent acks them.
+    // With ?wait=N (seconds) an empty poll is held open until a job arrives or N passes
     @GetMapping("/print-jobs/pending")
-    public ResponseEntity<?> getPendingJobs(HttpServletRequest request) {
+    public DeferredResult<List<PrintJob>> getPendingJobs(HttpServletRequest request,
+            @RequestParam(defaultValue = "0") long wait,
+            @RequestParam(defaultValue = "10") int limit) {
         String deviceSecret = request.getHeader("X-Device-Secret");
+        if (wait > 0 && deviceSecret != null) {
+            return printJobWaitService.awaitJobs(deviceSecret, wait, limit);
+        }
 
-        // Fetch all queued jobs for this store
-        List<PrintJob> jobs = jobRepository.findByPrintDeviceIdAndStatus(deviceSecret, "queued");
+        List<PrintJob> jobs = printJobLeaseService.claim(deviceSecret, limit);
         System.out.println("jobs size:"+jobs.size());
-        // In a real app, you might mark them as 'processing' here to avoid double
-        // printing
-        return ResponseEntity.ok(jobs);
+        DeferredResult<List<PrintJob>> result = new DeferredResult<>();
+        result.setResult(jobs);
+        return result;
+    }
+
+    // --- 4b. PUSH CHANNEL (Called by Local Agent) ---
+    // Streams queued jobs, cancellations and config changes; acks still go to /response
+    @GetMapping(value = "/print-devices/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJobs(HttpServletRequest request) {
+        String deviceSecret = request.getHeader("X-Device-Secret");
+        PrintDevice device = deviceSecret != null ? deviceRepository.findByApiSecret(deviceSecret).orElse(null) : null;
+        if (device == null)
+            return ResponseEntity.status(401).build();
+
+        return ResponseEntity.ok(printAgentChannelService.connect(device));
+    }
+
+    // --- 4c. CANCEL JOB (Called by React Frontend) ---
+    @PostMapping("/print-jobs/{jobId}/cancel")
+    public ResponseEntity<?> cancelPrintJob(HttpServletRequest request, @PathVariable UUID jobId) {
+        User user = getCurrentUser(request);
+        if (user == null)
+            return ResponseEntity.status(401).body("Unauthorized");
+
+        PrintJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getMerchant() == null
+                || !job.getMerchant().getId().equals(user.getMerchant().getId()))
+            return ResponseEntity.status(404).body("Print job not found");
+        if (!"queued".equals(job.getStatus()) && !"retrying".equals(job.getStatus()))
+            return ResponseEntity.status(409).body("Print job is already " + job.getStatus());
+
+        job.setStatus("cancelled");
+        job.setNextAttemptAt(null);
+        PrintJob saved = jobRepository.save(job);
+        eventPublisher.publishEvent(new PrintJobCancelledEvent(saved.getId(), saved.getPrintDeviceId()));
+        return ResponseEntity.ok(saved);
+    }
+
+    // --- 4d. DEAD LETTERS (Called by React Frontend) ---
+    // Jobs that failed every attempt, most recent first
+    @GetMapping("/print-jobs/dead")
+    public ResponseEntity<?> getDeadJobs(HttpServletRequest request, @RequestParam(defaultValue = "50") int limit) {
+        User user = getCurrentUser(request);
+        if (user == null)
+            return ResponseEntity.status(401).body("Unauthorized");
+
+        return ResponseEntity.ok(printJobRetryService.deadJobs(user.getMerchant().getId(), limit));
+    }
+
+    @PostMapping("/print-jobs/{jobId}/replay")
+    public ResponseEntity<?> replayPrintJob(HttpServletRequest request, @PathVariable UUID jobId) {
+        User user = getCurrentUser(request);
+        if (user == null)
+            return ResponseEntity.status(401).body("Unauthorized");
+
+        PrintJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getMerchant() == null
+                || !job.getMerchant().getId().equals(user.getMerchant().getId()))
+            return ResponseEntity.status(404).body("Print job not found");
+        if (!PrintJobRetryService.DEAD.equals(job.getStatus()))
+            return ResponseEntity.status(409).body("Print job is " + job.getStatus() + ", not dead");
+
+        return ResponseEntity.ok(printJobRetryService.replay(job));
+    }
+
+    // --- 5a. BATCHED JOB RESPONSES (Called by Local Agent) ---
+    // Body: [{"jobId": "...", "status": "success" | "failed", "error": "..."}, ...]
+    // Applied with one update for the successes and one for the failures
+    @PostMapping("/print-jobs/responses")
+    public ResponseEntity<?> updateJobStatuses(HttpServletRequest request, @RequestBody List<PrintJobAckDto> acks) {
+        PrintDevice device = (PrintDevice) request.getAttribute("print.device");
+        if (device == null)
+            return ResponseEntity.status(401).body("Unauthorized");
+        if (acks.size() > MAX_ACKS_PER_BATCH)
+            return ResponseEntity.status(400).body("At most " + MAX_ACKS_PER_BATCH + " acks per batch");
+
+        Set<UUID> printed = new HashSet<>();
+        Map<UUID, String> failed = new LinkedHashMap<>();
+        for (PrintJobAckDto ack : acks) {
+            if (ack.jobId() == null)
+                return ResponseEntity.status(400).body("jobId is required");
+            if ("success".equalsIgnoreCase(ack.status())) {
+                printed.add(ack.jobId());
+            } else if ("failed".equalsIgnoreCase(ack.status())) {
+                failed.put(ack.jobId(), ack.error());
+            } else {
+                return ResponseEntity.status(400).body("status must be success or failed");
+            }
+        }
+        // A job reported both ways counts as printed
+        failed.keySet().removeAll(printed);
+
+        // Only jobs addressed to this device are touched; the rest count as ignored
+        String merchantId = device.getMerchant().getId();
+        int completed = printed.isEmpty() ? 0
+                : jobRepository.completeJobs(merchantId, device.getApiSecret(), printed, LocalDateTime.now());
+        int failures = printJobRetryService.failAll(merchantId, device.getApiSecret(), failed).size();
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("acknowledged", completed + failures);
+        response.put("ignored", printed.size() + failed.size() - completed - failures);
+        return ResponseEntity.ok(response);
     }
 
     // --- 5. JOB RESPONSE (Called by Local Agent) ---
     @PostMapping("/print-jobs/{jobId}/response")
     public ResponseEntity<?> updateJobStatus(HttpServletRequest request, @PathVariable UUID jobId,
             @RequestBody Map<String, String> payload) {
-       
-        return jobRepository.findById(jobId).map(job -> {
-            job.setStatus(payload.get("status")); // "success" or "failed"
-            job.setError(payload.get("error"));
-            if ("success".equalsIgnoreCase(payload.get("status"))) {
-                job.setCompletedAt(LocalDateTime.now());
-            }
-            return ResponseEntity.ok(jobRepository.save(job));
-        }).orElse(ResponseEntity.notFound().build());
+        PrintDevice device = (PrintDevice) request.getAttribute("print.device");
+        if (device == null)
+            return ResponseEntity.status(401).body("Unauthorized");
+        String merchantId = device.getMerchant().getId();
+        String status = payload.get("status");
+
+        // A failure counts an attempt: the job is retried after a backoff, or dead-lettered
+        if ("failed".equalsIgnoreCase(status)) {
+            return printJobRetryService.fail(merchantId, device.getApiSecret(), jobId, payload.get("error"))
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        }
+        if (!"success".equalsIgnoreCase(status))
+            return ResponseEntity.status(400).body("status must be success or failed");
+
+        // Same rules as the batch ack: jobs already finished or moved to another device stay as they are
+        jobRepository.completeJobs(merchantId, device.getApiSecret(), Set.of(jobId), LocalDateTime.now());
+        return jobRepository.findByIdAndMerchantIdAndPrintDeviceId(jobId, merchantId, device.getApiSecret())
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
-}
\ No newline at end of file
+}
@@ -2,9 +2,11 @@ package com.slipsync.Controllers;
 
 import com.slipsync.DTO.ProductInventoryDto;
 import com.slipsync.Entities.*;
+import com.slipsync.Events.CategoryChangedEvent;
 import com.slipsync.Repositories.*;
 import com.slipsync.Services.StoreContextService;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
@@ -14,6 +16,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -28,6 +31,7 @@ public class ProductController {
     private final UserRepository userRepository;
     private final StoreContextService storeContextService;
     private final OrderItemRepository orderItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ProductController(ProductRepository productRepository,
                              ProductVariantRepository variantRepository,
@@ -35,7 +39,8 @@ public class ProductController {
                              InventoryRepository inventoryRepository,
                              UserRepository userRepository,
                              StoreContextService storeContextService,
-                             OrderItemRepository orderItemRepository) {
+                             OrderItemRepository orderItemRepository,
+                             ApplicationEventPublisher eventPublisher) {
         this.productRepository = productRepository;
         this.variantRepository = variantRepository;
         this.categoryRepository = categoryRepository;
@@ -43,6 +48,7 @@ public class ProductController {
         this.userRepository = userRepository;
         this.storeContextService = storeContextService;
         this.orderItemRepository = orderItemRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     // Helper to get the User for the current request
@@ -82,7 +88,9 @@ public class ProductController {
              categoryRepository.findById(parentId).ifPresent(category::setParent);
         }
 
-        return ResponseEntity.ok(categoryRepository.save(category));
+        Category saved = categoryRepository.save(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(user.getMerchant().getId()));
+        return ResponseEntity.ok(saved);
     }
 
     // --- PRODUCTS ---
@@ -263,6 +271,7 @@ public class ProductController {
         }
 
         try {
+            UUID previousCategoryId = product.getCategory() != null ? product.getCategory().getId() : null;
             if (payload.containsKey("name")) {
                 product.setName((String) payload.get("name"));
             }
@@ -300,7 +309,13 @@ public class ProductController {
                 // This would require a StoreRepository injection - for now, we'll skip this validation
             }
 
-            return ResponseEntity.ok(productRepository.save(product));
+            Product saved = productRepository.save(product);
+            UUID categoryId = saved.getCategory() != null ? saved.getCategory().getId() : null;
+            if (!Objects.equals(previousCategoryId, categoryId)) {
+                // Category sales group by the product's current category
+                eventPublisher.publishEvent(new CategoryChangedEvent(user.getMerchant().getId()));
+            }
+            return ResponseEntity.ok(saved);
         } catch (Exception e) {
             return ResponseEntity.status(400).body("Error updating product: " + e.getMessage());
         }
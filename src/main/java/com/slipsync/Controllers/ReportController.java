@@ -1,14 +1,25 @@
 package com.slipsync.Controllers;
 
 import com.slipsync.DTO.SalesReportDto;
-import com.slipsync.Entities.Order;
+import com.slipsync.DTO.ZReportDto;
 import com.slipsync.Entities.Store;
 import com.slipsync.Entities.User;
-import com.slipsync.Repositories.OrderRepository;
+import com.slipsync.Repositories.StoreRepository;
 import com.slipsync.Repositories.UserRepository;
+import com.slipsync.Services.CategorySalesReportService;
+import com.slipsync.Services.EmployeeSalesReportService;
+import com.slipsync.Services.MarginReportService;
 import com.slipsync.Services.PermissionService;
+import com.slipsync.Services.ReportCacheService;
+import com.slipsync.Services.SalesExportService;
+import com.slipsync.Services.SalesReportService;
+import com.slipsync.Services.SalesReportService.DateWindow;
+import com.slipsync.Services.SalesSketchService;
 import com.slipsync.Services.StoreContextService;
+import com.slipsync.Services.ZReportService;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -16,34 +27,69 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.math.BigDecimal;
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Locale;
-import java.util.stream.Collectors;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/reports")
 public class ReportController {
 
-    private final OrderRepository orderRepository;
+    private static final String GZIP_MEDIA_TYPE = "application/gzip";
+    private static final int EXPORT_BUFFER_SIZE = 8192;
+    private static final long MAX_RANGE_DAYS = 366;
+    private static final int MAX_TOP_LIMIT = 100;
+
+    private final StoreRepository storeRepository;
     private final UserRepository userRepository;
     private final StoreContextService storeContextService;
     private final PermissionService permissionService;
+    private final SalesExportService salesExportService;
+    private final SalesReportService salesReportService;
+    private final ReportCacheService reportCacheService;
+    private final ZReportService zReportService;
+    private final MarginReportService marginReportService;
+    private final SalesSketchService salesSketchService;
+    private final EmployeeSalesReportService employeeSalesReportService;
+    private final CategorySalesReportService categorySalesReportService;
 
-    public ReportController(OrderRepository orderRepository,
+    public ReportController(StoreRepository storeRepository,
                             UserRepository userRepository,
                             StoreContextService storeContextService,
-                            PermissionService permissionService) {
-        this.orderRepository = orderRepository;
+                            PermissionService permissionService,
+                            SalesExportService salesExportService,
+                            SalesReportService salesReportService,
+                            ReportCacheService reportCacheService,
+                            ZReportService zReportService,
+                            MarginReportService marginReportService,
+                            SalesSketchService salesSketchService,
+                            EmployeeSalesReportService employeeSalesReportService,
+                            CategorySalesReportService categorySalesReportService) {
+        this.storeRepository = storeRepository;
         this.userRepository = userRepository;
         this.storeContextService = storeContextService;
         this.permissionService = permissionService;
+        this.salesExportService = salesExportService;
+        this.salesReportService = salesReportService;
+        this.reportCacheService = reportCacheService;
+        this.zReportService = zReportService;
+        this.marginReportService = marginReportService;
+        this.salesSketchService = salesSketchService;
+        this.employeeSalesReportService = employeeSalesReportService;
+        this.categorySalesReportService = categorySalesReportService;
     }
 
     @GetMapping("/sales/summary")
@@ -62,41 +108,417 @@ public class ReportController {
         }
 
         String normalizedRange = normalizeRange(range);
-        DateWindow window = resolveWindow(normalizedRange, store);
-        List<Order> orders = orderRepository.findByStoreIdAndPlacedAtBetweenOrderByPlacedAtDesc(
-                store.getId(), window.start(), window.end());
-
-        SalesReportDto summary = buildSummary(normalizedRange, orders);
+        DateWindow window = salesReportService.resolveWindow(normalizedRange, store);
+        SalesReportDto summary = salesReportService.aggregate(
+                        store.getId(), salesReportService.periodKey(normalizedRange, store, window), window)
+                .toReport(normalizedRange);
         return ResponseEntity.ok(summary);
     }
 
-    @GetMapping(value = "/sales/export", produces = MediaType.TEXT_PLAIN_VALUE)
-    public ResponseEntity<?> exportSalesCsv(@RequestParam(defaultValue = "daily") String range,
+    @GetMapping("/sales/range")
+    public ResponseEntity<?> getSalesForRange(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                              @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                              @RequestParam(required = false) List<UUID> storeIds,
+                                              HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (!hasReportingAccess(user)) {
+            return ResponseEntity.status(403).body("Forbidden: role cannot view reports");
+        }
+        if (to.isBefore(from)) {
+            return ResponseEntity.status(400).body("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            return ResponseEntity.status(400).body("Range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+
+        List<Store> stores = storeContextService.resolveRequestedStores(user, storeIds, request);
+        if (stores == null) {
+            return ResponseEntity.status(403).body("Forbidden: no access to one or more requested stores");
+        }
+        if (stores.isEmpty()) {
+            return ResponseEntity.status(400).body("No accessible stores");
+        }
+
+        try {
+            return ResponseEntity.ok(salesReportService.aggregateStores(stores, from, to));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(503).body("Reporting is busy, please retry shortly");
+        }
+    }
+
+    @GetMapping("/sales/compare")
+    public ResponseEntity<?> compareSales(@RequestParam(defaultValue = "week") String period,
+                                          @RequestParam(defaultValue = "previous") String against,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate compareFrom,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate compareTo,
+                                          HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (!hasReportingAccess(user)) {
+            return ResponseEntity.status(403).body("Forbidden: role cannot view reports");
+        }
+        Store store = user.getStore();
+        if (store == null) {
+            return ResponseEntity.status(400).body("No store assigned");
+        }
+
+        // Explicit dates take precedence over period/against
+        if (from != null || to != null) {
+            if (from == null || to == null || to.isBefore(from)) {
+                return ResponseEntity.status(400).body("'from' and 'to' must both be set, with 'to' not before 'from'");
+            }
+            if ((compareFrom == null) != (compareTo == null)
+                    || (compareFrom != null && compareTo.isBefore(compareFrom))) {
+                return ResponseEntity.status(400).body("'compareFrom' and 'compareTo' must both be set, with 'compareTo' not before 'compareFrom'");
+            }
+            if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS
+                    || (compareFrom != null && ChronoUnit.DAYS.between(compareFrom, compareTo) >= MAX_RANGE_DAYS)) {
+                return ResponseEntity.status(400).body("Range cannot exceed " + MAX_RANGE_DAYS + " days");
+            }
+            return ResponseEntity.ok(salesReportService.compare(store, from, to, compareFrom, compareTo));
+        }
+
+        String normalizedPeriod = period.toLowerCase(Locale.ROOT);
+        String normalizedAgainst = against.toLowerCase(Locale.ROOT);
+        if (!Set.of("day", "week", "month").contains(normalizedPeriod)) {
+            return ResponseEntity.status(400).body("period must be one of: day, week, month");
+        }
+        if (!Set.of("previous", "last_year").contains(normalizedAgainst)) {
+            return ResponseEntity.status(400).body("against must be one of: previous, last_year");
+        }
+        return ResponseEntity.ok(salesReportService.compare(store, normalizedPeriod, normalizedAgainst));
+    }
+
+    @GetMapping("/sales/timeseries")
+    public ResponseEntity<?> getSalesTimeSeries(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                @RequestParam(defaultValue = "day") String bucket,
+                                                HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (!hasReportingAccess(user)) {
+            return ResponseEntity.status(403).body("Forbidden: role cannot view reports");
+        }
+        Store store = user.getStore();
+        if (store == null) {
+            return ResponseEntity.status(400).body("No store assigned");
+        }
+
+        // Default to the last 30 days, ending today in the store's timezone
+        LocalDate end = to != null ? to : LocalDate.now(salesReportService.resolveZone(store));
+        LocalDate start = from != null ? from : end.minusDays(29);
+        if (end.isBefore(start)) {
+            return ResponseEntity.status(400).body("'to' must not be before 'from'");
+        }
+
+        try {
+            return ResponseEntity.ok(salesReportService.timeSeries(
+                    store, start, end, bucket.toLowerCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(400).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/products/top")
+    public ResponseEntity<?> getTopProducts(@RequestParam(defaultValue = "daily") String range,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            @RequestParam(defaultValue = "10") int limit,
                                             HttpServletRequest request) {
         User user = getCurrentUser(request);
         if (user == null) {
             return ResponseEntity.status(401).body("Unauthorized");
         }
         if (!hasReportingAccess(user)) {
-            return ResponseEntity.status(403).body("Forbidden: role cannot export reports");
+            return ResponseEntity.status(403).body("Forbidden: role cannot view reports");
+        }
+        Store store = user.getStore();
+        if (store == null) {
+            return ResponseEntity.status(400).body("No store assigned");
+        }
+        if (limit < 1 || limit > MAX_TOP_LIMIT) {
+            return ResponseEntity.status(400).body("limit must be between 1 and " + MAX_TOP_LIMIT);
+        }
+
+        String rangeError = customRangeError(from, to);
+        if (rangeError != null) {
+            return ResponseEntity.status(400).body(rangeError);
+        }
+
+        RequestedWindow requested = resolveRequestedWindow(store, range, from, to);
+        return ResponseEntity.ok(salesReportService.topProducts(
+                store.getId(), requested.key(), requested.window(), limit));
+    }
+
+    @GetMapping("/categories/sales")
+    public ResponseEntity<?> getCategorySales(@RequestParam(defaultValue = "daily") String range,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                              HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (!hasReportingAccess(user)) {
+            return ResponseEntity.status(403).body("Forbidden: role cannot view reports");
+        }
+        Store store = user.getStore();
+        if (store == null) {
+            return ResponseEntity.status(400).body("No store assigned");
+        }
+        String rangeError = customRangeError(from, to);
+        if (rangeError != null) {
+            return ResponseEntity.status(400).body(rangeError);
+        }
+
+        RequestedWindow requested = resolveRequestedWindow(store, range, from, to);
+        return ResponseEntity.ok(categorySalesReportService.categorySales(store, requested.key(), requested.window()));
+    }
+
+    @GetMapping("/customers/insights")
+    public ResponseEntity<?> getCustomerInsights(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                 @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                 @RequestParam(required = false) List<UUID> storeIds,
+                                                 HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (!hasReportingAccess(user)) {
+            return ResponseEntity.status(403).body("Forbidden: role cannot view reports");
+        }
+        List<Store> stores = storeContextService.resolveRequestedStores(user, storeIds, request);
+        if (stores == null) {
+            return ResponseEntity.status(403).body("Forbidden: no access to one or more requested stores");
+        }
+        if (stores.isEmpty()) {
+            return ResponseEntity.status(400).body("No accessible stores");
+        }
+
+        // Default to the last 7 days; days are store-local
+        LocalDate end = to != null ? to : LocalDate.now(salesReportService.resolveZone(user.getStore()));
+        LocalDate start = from != null ? from : end.minusDays(6);
+        if (end.isBefore(start)) {
+            return ResponseEntity.status(400).body("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+            return ResponseEntity.status(400).body("Range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+        return ResponseEntity.ok(salesSketchService.insights(stores, start, end));
+    }
+
+    @GetMapping("/employees/sales")
+    public ResponseEntity<?> getEmployeeSales(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                              @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                              @RequestParam(required = false) List<UUID> storeIds,
+                                              HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (!hasReportingAccess(user)) {
+            return ResponseEntity.status(403).body("Forbidden: role cannot view reports");
+        }
+        List<Store> stores = storeContextService.resolveRequestedStores(user, storeIds, request);
+        if (stores == null) {
+            return ResponseEntity.status(403).body("Forbidden: no access to one or more requested stores");
+        }
+        if (stores.isEmpty()) {
+            return ResponseEntity.status(400).body("No accessible stores");
+        }
+
+        // Default to the last 7 days, ending today in the store's timezone
+        LocalDate end = to != null ? to : LocalDate.now(salesReportService.resolveZone(user.getStore()));
+        LocalDate start = from != null ? from : end.minusDays(6);
+        if (end.isBefore(start)) {
+            return ResponseEntity.status(400).body("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= MAX_RANGE_DAYS) {
+            return ResponseEntity.status(400).body("Range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+        return ResponseEntity.ok(employeeSalesReportService.report(stores, start, end));
+    }
+
+    @GetMapping("/margin/products")
+    public ResponseEntity<?> getProductMargins(@RequestParam(defaultValue = "monthly") String range,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                               @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                               @RequestParam(defaultValue = "20") int limit,
+                                               HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (!hasCostAccess(user)) {
+            return ResponseEntity.status(403).body("Forbidden: role cannot view cost and margin");
+        }
+        Store store = user.getStore();
+        if (store == null) {
+            return ResponseEntity.status(400).body("No store assigned");
+        }
+        if (limit < 1 || limit > MAX_TOP_LIMIT) {
+            return ResponseEntity.status(400).body("limit must be between 1 and " + MAX_TOP_LIMIT);
+        }
+        String rangeError = customRangeError(from, to);
+        if (rangeError != null) {
+            return ResponseEntity.status(400).body(rangeError);
+        }
+
+        RequestedWindow requested = resolveRequestedWindow(store, range, from, to);
+        return ResponseEntity.ok(marginReportService.marginReport(
+                store.getId(), requested.key(), requested.window(), limit));
+    }
+
+    @GetMapping("/margin/daily")
+    public ResponseEntity<?> getDailyMargins(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                             HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (!hasCostAccess(user)) {
+            return ResponseEntity.status(403).body("Forbidden: role cannot view cost and margin");
+        }
+        Store store = user.getStore();
+        if (store == null) {
+            return ResponseEntity.status(400).body("No store assigned");
+        }
+        if (to.isBefore(from)) {
+            return ResponseEntity.status(400).body("'to' must not be before 'from'");
+        }
+
+        return ResponseEntity.ok(marginReportService.dailyMargin(store.getId(), from, to));
+    }
+
+    @GetMapping("/inventory/valuation")
+    public ResponseEntity<?> getInventoryValuation(@RequestParam(required = false) List<UUID> storeIds,
+                                                   HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (!hasCostAccess(user)) {
+            return ResponseEntity.status(403).body("Forbidden: role cannot view cost and margin");
+        }
+
+        Set<String> storeAccess = storeContextService.getStoreAccess(request, user);
+        List<UUID> accessible = permissionService.filterAccessibleStores(
+                        user, storeRepository.findByMerchantId(user.getMerchant().getId()), storeAccess)
+                .stream()
+                .map(Store::getId)
+                .toList();
+        List<UUID> selected = accessible;
+        if (storeIds != null && !storeIds.isEmpty()) {
+            if (!accessible.containsAll(storeIds)) {
+                return ResponseEntity.status(403).body("Forbidden: no access to one or more requested stores");
+            }
+            selected = storeIds;
+        }
+        if (selected.isEmpty()) {
+            return ResponseEntity.ok(List.of());
+        }
+
+        return ResponseEntity.ok(marginReportService.inventoryValuation(selected));
+    }
+
+    @GetMapping("/z-reports")
+    public ResponseEntity<?> getZReports(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                         HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (!hasReportingAccess(user)) {
+            return ResponseEntity.status(403).body("Forbidden: role cannot view reports");
         }
         Store store = user.getStore();
         if (store == null) {
             return ResponseEntity.status(400).body("No store assigned");
         }
 
+        if (date == null) {
+            return ResponseEntity.ok(zReportService.recent(store.getId()));
+        }
+        Optional<ZReportDto> stored = zReportService.find(store.getId(), date);
+        if (stored.isPresent()) {
+            return ResponseEntity.ok(stored.get());
+        }
+        if (!zReportService.isClosed(store, date)) {
+            return ResponseEntity.status(400).body("Business day " + date + " has not closed yet");
+        }
+        if (!zReportService.hasSalesHistory(store, date)) {
+            return ResponseEntity.status(404).body("No sales recorded on or before " + date);
+        }
+
+        // Closed day the nightly job has not covered (e.g. server was down): build it now
+        try {
+            return ResponseEntity.ok(zReportService.toDto(zReportService.materialize(store, date)));
+        } catch (DataIntegrityViolationException e) {
+            return zReportService.find(store.getId(), date)
+                    .<ResponseEntity<?>>map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.status(500).body("Failed to build Z-report"));
+        }
+    }
+
+    @GetMapping("/cache/stats")
+    public ResponseEntity<?> getCacheStats(HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (!permissionService.isAdmin(user)) {
+            return ResponseEntity.status(403).body("Forbidden: admin only");
+        }
+        List<UUID> storeIds = storeRepository.findByMerchantId(user.getMerchant().getId()).stream()
+                .map(Store::getId)
+                .toList();
+        return ResponseEntity.ok(reportCacheService.stats(storeIds));
+    }
+
+    @GetMapping(value = "/sales/export", produces = {MediaType.TEXT_PLAIN_VALUE, GZIP_MEDIA_TYPE})
+    public ResponseEntity<StreamingResponseBody> exportSalesCsv(@RequestParam(defaultValue = "daily") String range,
+                                                                @RequestParam(defaultValue = "false") boolean gzip,
+                                                                HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return textResponse(401, "Unauthorized");
+        }
+        if (!hasReportingAccess(user)) {
+            return textResponse(403, "Forbidden: role cannot export reports");
+        }
+        Store store = user.getStore();
+        if (store == null) {
+            return textResponse(400, "No store assigned");
+        }
+
         String normalizedRange = normalizeRange(range);
-        DateWindow window = resolveWindow(normalizedRange, store);
-        List<Order> orders = orderRepository.findByStoreIdAndPlacedAtBetweenOrderByPlacedAtDesc(
-                store.getId(), window.start(), window.end());
+        DateWindow window = salesReportService.resolveWindow(normalizedRange, store);
+        String filename = "sales-" + normalizedRange + "-" + LocalDate.now() + (gzip ? ".csv.gz" : ".csv");
 
-        String csv = buildCsv(orders);
-        String filename = "sales-" + normalizedRange + "-" + LocalDate.now() + ".csv";
+        // Rows are written as they come off the cursor; nothing is buffered beyond the writer.
+        StreamingResponseBody body = out -> {
+            OutputStream target = gzip ? new GZIPOutputStream(out, EXPORT_BUFFER_SIZE) : out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE);
+            salesExportService.writeSalesCsv(store.getId(), window.start(), window.end(), writer);
+            if (target instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+        };
 
         return ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
-                .contentType(MediaType.TEXT_PLAIN)
-                .body(csv);
+                .contentType(gzip ? MediaType.parseMediaType(GZIP_MEDIA_TYPE) : MediaType.TEXT_PLAIN)
+                .body(body);
     }
 
     private User getCurrentUser(HttpServletRequest request) {
@@ -118,89 +540,52 @@ public class ReportController {
         return permissionService.hasPermission(user, "view_reports");
     }
 
-    private String normalizeRange(String range) {
-        if (range == null) return "daily";
-        String lowered = range.toLowerCase(Locale.ROOT);
-        return switch (lowered) {
-            case "monthly", "month" -> "monthly";
-            default -> "daily";
-        };
+    private boolean hasCostAccess(User user) {
+        // Cost prices are product-management data, not something every cashier should see
+        return permissionService.hasPermission(user, "manage_products");
     }
 
-    private DateWindow resolveWindow(String range, Store store) {
-        ZoneId zoneId = resolveZone(store);
-        ZonedDateTime now = ZonedDateTime.now(zoneId);
-        ZonedDateTime start;
-        if ("monthly".equals(range)) {
-            start = now.withDayOfMonth(1).toLocalDate().atStartOfDay(zoneId);
-        } else {
-            start = now.toLocalDate().atStartOfDay(zoneId);
+    // An optional custom range must be complete, in order and no longer than MAX_RANGE_DAYS
+    private String customRangeError(LocalDate from, LocalDate to) {
+        if ((from == null) != (to == null)) {
+            return "'from' and 'to' must be given together";
+        }
+        if (from == null) {
+            return null;
         }
-        return new DateWindow(start.toLocalDateTime(), now.toLocalDateTime());
+        if (to.isBefore(from)) {
+            return "'to' must not be before 'from'";
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            return "Range cannot exceed " + MAX_RANGE_DAYS + " days";
+        }
+        return null;
     }
 
-    private ZoneId resolveZone(Store store) {
-        if (store != null && store.getTimezone() != null && !store.getTimezone().isBlank()) {
-            try {
-                return ZoneId.of(store.getTimezone());
-            } catch (Exception ignored) {
-            }
+    private RequestedWindow resolveRequestedWindow(Store store, String range, LocalDate from, LocalDate to) {
+        if (from != null && to != null) {
+            return new RequestedWindow(from + ".." + to, salesReportService.windowFor(store, from, to));
         }
-        return ZoneId.systemDefault();
-    }
-
-    private SalesReportDto buildSummary(String range, List<Order> orders) {
-        BigDecimal gross = orders.stream()
-                .map(order -> order.getSubtotal() != null ? order.getSubtotal() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal discounts = orders.stream()
-                .map(order -> order.getDiscountsTotal() != null ? order.getDiscountsTotal() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal taxes = orders.stream()
-                .map(order -> order.getTaxesTotal() != null ? order.getTaxesTotal() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal net = orders.stream()
-                .map(order -> order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return new SalesReportDto(range, gross, discounts, taxes, net, orders.size());
-    }
-
-    private String buildCsv(List<Order> orders) {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-        String header = "Order Number,Placed At,Subtotal,Discounts,Taxes,Total,Currency";
-        String rows = orders.stream()
-                .map(order -> {
-                    String orderNumber = order.getOrderNumber() != null ? order.getOrderNumber() : "";
-                    String placedAt = order.getPlacedAt() != null ? formatter.format(order.getPlacedAt()) : "";
-                    BigDecimal subtotal = order.getSubtotal() != null ? order.getSubtotal() : BigDecimal.ZERO;
-                    BigDecimal discounts = order.getDiscountsTotal() != null ? order.getDiscountsTotal() : BigDecimal.ZERO;
-                    BigDecimal taxes = order.getTaxesTotal() != null ? order.getTaxesTotal() : BigDecimal.ZERO;
-                    BigDecimal total = order.getTotalAmount() != null ? order.getTotalAmount() : BigDecimal.ZERO;
-                    String currency = order.getCurrency() != null ? order.getCurrency() : "";
-                    return String.join(",",
-                            escape(orderNumber),
-                            escape(placedAt),
-                            subtotal.toPlainString(),
-                            discounts.toPlainString(),
-                            taxes.toPlainString(),
-                            total.toPlainString(),
-                            escape(currency));
-                })
-                .collect(Collectors.joining("\n"));
+        String normalizedRange = normalizeRange(range);
+        DateWindow window = salesReportService.resolveWindow(normalizedRange, store);
+        return new RequestedWindow(salesReportService.periodKey(normalizedRange, store, window), window);
+    }
 
-        return header + "\n" + rows;
+    private String normalizeRange(String range) {
+        if (range == null) return "daily";
+        String lowered = range.toLowerCase(Locale.ROOT);
+        return switch (lowered) {
+            case "monthly", "month" -> "monthly";
+            default -> "daily";
+        };
     }
 
-    private String escape(String value) {
-        if (value == null) return "";
-        if (value.contains(",") || value.contains("\"")) {
-            return "\"" + value.replace("\"", "\"\"") + "\"";
-        }
-        return value;
+    private ResponseEntity<StreamingResponseBody> textResponse(int status, String message) {
+        return ResponseEntity.status(status)
+                .contentType(MediaType.TEXT_PLAIN)
+                .body(out -> out.write(message.getBytes(StandardCharsets.UTF_8)));
     }
 
-    private record DateWindow(LocalDateTime start, LocalDateTime end) {
+    private record RequestedWindow(String key, DateWindow window) {
     }
 }
-
@@ -0,0 +1,204 @@
+package com.slipsync.Controllers;
+
+import com.slipsync.DTO.ReportJobRequestDto;
+import com.slipsync.Entities.ReportJob;
+import com.slipsync.Entities.Store;
+import com.slipsync.Entities.User;
+import com.slipsync.Repositories.ReportJobRepository;
+import com.slipsync.Repositories.UserRepository;
+import com.slipsync.Services.PermissionService;
+import com.slipsync.Services.ReportFileStore;
+import com.slipsync.Services.ReportJobService;
+import com.slipsync.Services.StoreContextService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Background report jobs: submit, poll or subscribe for completion, then download.
+ */
+@RestController
+@RequestMapping("/api/report-jobs")
+public class ReportJobController {
+
+    private static final long MAX_RANGE_DAYS = 366;
+    private static final int MAX_LIST_LIMIT = 50;
+
+    private final ReportJobService reportJobService;
+    private final ReportJobRepository reportJobRepository;
+    private final ReportFileStore reportFileStore;
+    private final UserRepository userRepository;
+    private final StoreContextService storeContextService;
+    private final PermissionService permissionService;
+
+    public ReportJobController(ReportJobService reportJobService,
+                               ReportJobRepository reportJobRepository,
+                               ReportFileStore reportFileStore,
+                               UserRepository userRepository,
+                               StoreContextService storeContextService,
+                               PermissionService permissionService) {
+        this.reportJobService = reportJobService;
+        this.reportJobRepository = reportJobRepository;
+        this.reportFileStore = reportFileStore;
+        this.userRepository = userRepository;
+        this.storeContextService = storeContextService;
+        this.permissionService = permissionService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> submit(@RequestBody ReportJobRequestDto body, HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (!permissionService.hasPermission(user, "view_reports")) {
+            return ResponseEntity.status(403).body("Forbidden: role cannot view reports");
+        }
+        String type = body.type() != null ? body.type().toLowerCase(Locale.ROOT) : null;
+        if (type == null || !ReportJobService.TYPES.contains(type)) {
+            return ResponseEntity.status(400).body("type must be one of: " + String.join(", ", ReportJobService.TYPES));
+        }
+
+        LocalDate from = body.from();
+        LocalDate to = body.to();
+        if ((from == null) != (to == null) || (from != null && to.isBefore(from))) {
+            return ResponseEntity.status(400).body("'from' and 'to' must both be set, with 'to' not before 'from'");
+        }
+        if (from != null && ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            return ResponseEntity.status(400).body("Range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+
+        Store store = user.getStore();
+        ReportJobRequestDto params;
+        if (ReportJobService.TYPE_SALES_EXPORT.equals(type)) {
+            if (store == null) {
+                return ResponseEntity.status(400).body("No store assigned");
+            }
+            String range = "monthly".equalsIgnoreCase(body.range()) || "month".equalsIgnoreCase(body.range())
+                    ? "monthly" : "daily";
+            params = new ReportJobRequestDto(type, range, from, to, List.of(store.getId()), body.gzip());
+        } else {
+            if (from == null) {
+                return ResponseEntity.status(400).body("'from' and 'to' are required for " + type);
+            }
+            List<Store> stores = storeContextService.resolveRequestedStores(user, body.storeIds(), request);
+            if (stores == null) {
+                return ResponseEntity.status(403).body("Forbidden: no access to one or more requested stores");
+            }
+            if (stores.isEmpty()) {
+                return ResponseEntity.status(400).body("No accessible stores");
+            }
+            params = new ReportJobRequestDto(type, null, from, to,
+                    stores.stream().map(Store::getId).toList(), false);
+        }
+
+        try {
+            return ResponseEntity.status(202).body(reportJobService.submit(user, store, params));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(429).body(e.getMessage());
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<?> listJobs(@RequestParam(defaultValue = "20") int limit, HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        if (limit < 1 || limit > MAX_LIST_LIMIT) {
+            return ResponseEntity.status(400).body("limit must be between 1 and " + MAX_LIST_LIMIT);
+        }
+        return ResponseEntity.ok(reportJobService.recentJobs(user, limit));
+    }
+
+    @GetMapping("/{jobId}")
+    public ResponseEntity<?> getJob(@PathVariable UUID jobId, HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        ReportJob job = findOwnJob(jobId, user);
+        if (job == null) {
+            return ResponseEntity.status(404).body("Report job not found");
+        }
+        return ResponseEntity.ok(reportJobService.toDto(job));
+    }
+
+    // Emitters are only handled when the declared type says so, hence no message bodies on errors.
+    // Not @Transactional: the lookups must release their connection before the stream starts.
+    @GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(@PathVariable UUID jobId, HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).build();
+        }
+        ReportJob job = findOwnJob(jobId, user);
+        if (job == null) {
+            return ResponseEntity.status(404).build();
+        }
+        return ResponseEntity.ok(reportJobService.subscribe(job));
+    }
+
+    @GetMapping("/{jobId}/download")
+    public ResponseEntity<?> download(@PathVariable UUID jobId, HttpServletRequest request) {
+        User user = getCurrentUser(request);
+        if (user == null) {
+            return ResponseEntity.status(401).body("Unauthorized");
+        }
+        ReportJob job = findOwnJob(jobId, user);
+        if (job == null) {
+            return ResponseEntity.status(404).body("Report job not found");
+        }
+        if (!reportJobService.isCompleted(job)) {
+            return ResponseEntity.status(409).body("Report job is " + job.getStatus());
+        }
+        Path file = reportFileStore.resolve(job.getFilePath());
+        if (!Files.exists(file)) {
+            return ResponseEntity.status(410).body("Report file has expired");
+        }
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(job.getFileName()).build().toString())
+                .contentType(MediaType.parseMediaType(job.getContentType()))
+                .body(new FileSystemResource(file));
+    }
+
+    private User getCurrentUser(HttpServletRequest request) {
+        String clerkId = (String) request.getAttribute("clerk.userId");
+        return userRepository.findByClerkUserId(clerkId)
+                .map(user -> {
+                    storeContextService.attachStore(user, request);
+                    return user;
+                })
+                .orElse(null);
+    }
+
+    // Jobs are visible only to the user who submitted them
+    private ReportJob findOwnJob(UUID jobId, User user) {
+        return reportJobRepository.findById(jobId)
+                .filter(job -> Objects.equals(job.getRequestedBy(), user.getId()))
+                .orElse(null);
+    }
+}
@@ -0,0 +1,21 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Sales for one category. "direct" counts products assigned to the category itself;
+ * "total" also includes every descendant category. revenueShare is the percentage of
+ * the window's revenue covered by the total.
+ */
+public record CategorySalesDto(
+        UUID categoryId,
+        String name,
+        UUID parentId,
+        int depth,
+        long directUnits,
+        BigDecimal directRevenue,
+        long totalUnits,
+        BigDecimal totalRevenue,
+        BigDecimal revenueShare) {
+}
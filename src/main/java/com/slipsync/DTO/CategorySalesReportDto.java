@@ -0,0 +1,11 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record CategorySalesReportDto(
+        String range,
+        long totalUnits,
+        BigDecimal totalRevenue,
+        List<CategorySalesDto> categories) {
+}
@@ -0,0 +1,15 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Units and revenue sold directly under one category (categoryId is null for uncategorized products).
+ */
+public record CategorySalesTotalsDto(UUID categoryId, Long units, BigDecimal revenue) {
+
+    public CategorySalesTotalsDto {
+        units = units != null ? units : 0L;
+        revenue = revenue != null ? revenue : BigDecimal.ZERO;
+    }
+}
@@ -0,0 +1,18 @@
+package com.slipsync.DTO;
+
+import java.time.LocalDate;
+
+/**
+ * Approximate customer and basket statistics. Distinct customers are estimated
+ * (about 2% error); percentiles are within 1% of the exact value.
+ * Walk-in orders count towards orders and basket size but not distinct customers.
+ */
+public record CustomerInsightDto(
+        LocalDate date,
+        long orderCount,
+        long distinctCustomers,
+        Double ticketP50,
+        Double ticketP90,
+        Double itemsP50,
+        Double itemsP90) {
+}
@@ -0,0 +1,11 @@
+package com.slipsync.DTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record CustomerInsightsReportDto(
+        LocalDate from,
+        LocalDate to,
+        CustomerInsightDto total,
+        List<CustomerInsightDto> days) {
+}
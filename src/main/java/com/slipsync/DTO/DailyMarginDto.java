@@ -0,0 +1,12 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record DailyMarginDto(
+        LocalDate businessDate,
+        BigDecimal revenue,
+        BigDecimal costOfGoods,
+        BigDecimal grossMargin,
+        BigDecimal marginPercent) {
+}
@@ -0,0 +1,20 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Sales rung up by one employee. Active hours are the distinct clock hours in which
+ * they placed at least one order; itemsPerHour is itemsSold over those hours.
+ * userId is null for the row of orders placed before cashier attribution.
+ */
+public record EmployeeSalesDto(
+        UUID userId,
+        String name,
+        long orderCount,
+        BigDecimal revenue,
+        BigDecimal averageTicket,
+        long itemsSold,
+        long activeHours,
+        BigDecimal itemsPerHour) {
+}
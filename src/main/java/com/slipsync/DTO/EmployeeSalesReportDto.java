@@ -0,0 +1,10 @@
+package com.slipsync.DTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record EmployeeSalesReportDto(
+        LocalDate from,
+        LocalDate to,
+        List<EmployeeSalesDto> employees) {
+}
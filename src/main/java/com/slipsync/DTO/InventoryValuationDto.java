@@ -0,0 +1,20 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record InventoryValuationDto(
+        UUID storeId,
+        String storeName,
+        Long variantCount,
+        Long unitsOnHand,
+        BigDecimal costValue,
+        BigDecimal retailValue) {
+
+    public InventoryValuationDto {
+        variantCount = variantCount != null ? variantCount : 0L;
+        unitsOnHand = unitsOnHand != null ? unitsOnHand : 0L;
+        costValue = costValue != null ? costValue : BigDecimal.ZERO;
+        retailValue = retailValue != null ? retailValue : BigDecimal.ZERO;
+    }
+}
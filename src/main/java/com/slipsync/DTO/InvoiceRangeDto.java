@@ -0,0 +1,7 @@
+package com.slipsync.DTO;
+
+public record InvoiceRangeDto(
+        String firstInvoiceNumber,
+        String lastInvoiceNumber,
+        Long invoiceCount) {
+}
@@ -0,0 +1,19 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Gross margin for a window. Revenue is net of order discounts and excludes tax;
+ * cost uses each variant's current cost.
+ */
+public record MarginReportDto(
+        LocalDateTime from,
+        LocalDateTime to,
+        BigDecimal revenue,
+        BigDecimal costOfGoods,
+        BigDecimal grossMargin,
+        BigDecimal marginPercent,
+        List<ProductMarginDto> products) {
+}
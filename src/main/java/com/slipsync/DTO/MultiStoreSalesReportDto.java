@@ -0,0 +1,11 @@
+package com.slipsync.DTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public record MultiStoreSalesReportDto(
+        LocalDate from,
+        LocalDate to,
+        SalesReportDto total,
+        List<StoreSalesReportDto> stores) {
+}
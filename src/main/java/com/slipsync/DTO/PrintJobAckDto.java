@@ -0,0 +1,13 @@
+package com.slipsync.DTO;
+
+import java.util.UUID;
+
+/**
+ * One job result in a batched agent ack. status is "success" or "failed"; error is only
+ * read for failures.
+ */
+public record PrintJobAckDto(
+        UUID jobId,
+        String status,
+        String error) {
+}
@@ -0,0 +1,46 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.UUID;
+
+public record ProductMarginDto(
+        UUID variantId,
+        UUID productId,
+        String productName,
+        String sku,
+        Long unitsSold,
+        BigDecimal revenue,
+        BigDecimal costOfGoods,
+        BigDecimal grossMargin,
+        BigDecimal marginPercent) {
+
+    // Used by the aggregate query; margin is derived from revenue and cost. The discount
+    // share makes revenue fractional, hence the rounding to cents
+    public ProductMarginDto(UUID variantId, UUID productId, String productName, String sku,
+                            Long unitsSold, BigDecimal revenue, BigDecimal costOfGoods) {
+        this(variantId, productId, productName, sku,
+                unitsSold != null ? unitsSold : 0L,
+                cents(revenue),
+                costOfGoods != null ? costOfGoods : BigDecimal.ZERO,
+                margin(cents(revenue), costOfGoods),
+                marginPercent(cents(revenue), costOfGoods));
+    }
+
+    static BigDecimal cents(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+    }
+
+    static BigDecimal margin(BigDecimal revenue, BigDecimal cost) {
+        BigDecimal r = revenue != null ? revenue : BigDecimal.ZERO;
+        BigDecimal c = cost != null ? cost : BigDecimal.ZERO;
+        return r.subtract(c);
+    }
+
+    static BigDecimal marginPercent(BigDecimal revenue, BigDecimal cost) {
+        if (revenue == null || revenue.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return margin(revenue, cost).multiply(BigDecimal.valueOf(100)).divide(revenue, 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,30 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.UUID;
+
+public record ProductSalesDto(
+        UUID variantId,
+        UUID productId,
+        String productName,
+        String sku,
+        Long unitsSold,
+        BigDecimal revenue,
+        BigDecimal unitsPerDay) {
+
+    // Used by the aggregate query; velocity is filled in once the window length is known
+    public ProductSalesDto(UUID variantId, UUID productId, String productName, String sku,
+                           Long unitsSold, BigDecimal revenue) {
+        this(variantId, productId, productName, sku,
+                unitsSold != null ? unitsSold : 0L,
+                revenue != null ? revenue : BigDecimal.ZERO,
+                null);
+    }
+
+    public ProductSalesDto withVelocity(long days) {
+        BigDecimal perDay = BigDecimal.valueOf(unitsSold)
+                .divide(BigDecimal.valueOf(Math.max(days, 1)), 2, RoundingMode.HALF_UP);
+        return new ProductSalesDto(variantId, productId, productName, sku, unitsSold, revenue, perDay);
+    }
+}
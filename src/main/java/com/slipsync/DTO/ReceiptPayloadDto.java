@@ -0,0 +1,48 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * What a print agent needs to print a receipt, and nothing else. Stored as the print job
+ * payload; v is bumped whenever the shape changes incompatibly.
+ */
+public record ReceiptPayloadDto(
+        int v,
+        Header header,
+        List<Line> lines,
+        Totals totals,
+        String footer) {
+
+    public static final int VERSION = 1;
+
+    // placedAt is already formatted in the store's timezone
+    public record Header(
+            String merchantName,
+            String storeName,
+            String storeAddress,
+            String storePhone,
+            String orderNumber,
+            String invoiceNumber,
+            String placedAt,
+            String customerName) {
+    }
+
+    public record Line(
+            String name,
+            String sku,
+            int quantity,
+            BigDecimal unitPrice,
+            BigDecimal discount,
+            BigDecimal tax,
+            BigDecimal total) {
+    }
+
+    public record Totals(
+            BigDecimal subtotal,
+            BigDecimal discount,
+            BigDecimal tax,
+            BigDecimal total,
+            String currency) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// One receipt line with the order's header columns repeated (null line columns for an empty order)
+public record ReceiptRowDto(
+        String orderNumber,
+        String invoiceNumber,
+        LocalDateTime placedAt,
+        String currency,
+        String merchantName,
+        String storeName,
+        String storeAddress,
+        String storePhone,
+        String storeTimezone,
+        String customerName,
+        BigDecimal subtotal,
+        BigDecimal discountsTotal,
+        BigDecimal taxesTotal,
+        BigDecimal totalAmount,
+        String productName,
+        String sku,
+        Integer quantity,
+        BigDecimal unitPrice,
+        BigDecimal lineDiscount,
+        BigDecimal lineTax,
+        BigDecimal lineTotal
+) {
+}
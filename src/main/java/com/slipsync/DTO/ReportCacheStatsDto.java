@@ -0,0 +1,20 @@
+package com.slipsync.DTO;
+
+import java.util.List;
+import java.util.UUID;
+
+public record ReportCacheStatsDto(
+        long hits,
+        long misses,
+        double hitRatio,
+        List<Entry> entries) {
+
+    public record Entry(
+            UUID storeId,
+            String report,
+            String range,
+            String bucket,
+            long ageSeconds,
+            long hits) {
+    }
+}
@@ -0,0 +1,17 @@
+package com.slipsync.DTO;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ReportJobDto(
+        UUID id,
+        String type,
+        String status,
+        String fileName,
+        Long sizeBytes,
+        String error,
+        LocalDateTime createdAt,
+        LocalDateTime startedAt,
+        LocalDateTime completedAt,
+        String downloadUrl) {
+}
@@ -0,0 +1,19 @@
+package com.slipsync.DTO;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Report job submission. Which fields apply depends on the type:
+ * - "sales-export": range or from/to for the active store, optional gzip
+ * - "sales-range", "employee-sales": from/to and optional storeIds (default: all accessible)
+ */
+public record ReportJobRequestDto(
+        String type,
+        String range,
+        LocalDate from,
+        LocalDate to,
+        List<UUID> storeIds,
+        boolean gzip) {
+}
@@ -0,0 +1,11 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record SalesBucketDto(
+        LocalDateTime bucketStart,
+        long orderCount,
+        BigDecimal grossSales,
+        BigDecimal netSales) {
+}
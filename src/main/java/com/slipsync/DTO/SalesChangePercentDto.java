@@ -0,0 +1,35 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Percentage change per metric; null where the previous value is zero.
+ */
+public record SalesChangePercentDto(
+        BigDecimal grossSales,
+        BigDecimal discountsTotal,
+        BigDecimal taxesTotal,
+        BigDecimal netSales,
+        BigDecimal orderCount) {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    public static SalesChangePercentDto between(SalesTotalsDto current, SalesTotalsDto previous) {
+        return new SalesChangePercentDto(
+                percent(current.grossSales(), previous.grossSales()),
+                percent(current.discountsTotal(), previous.discountsTotal()),
+                percent(current.taxesTotal(), previous.taxesTotal()),
+                percent(current.netSales(), previous.netSales()),
+                percent(BigDecimal.valueOf(current.orderCount()), BigDecimal.valueOf(previous.orderCount())));
+    }
+
+    private static BigDecimal percent(BigDecimal current, BigDecimal previous) {
+        if (previous.signum() == 0) {
+            return null;
+        }
+        return current.subtract(previous)
+                .multiply(HUNDRED)
+                .divide(previous.abs(), 2, RoundingMode.HALF_UP);
+    }
+}
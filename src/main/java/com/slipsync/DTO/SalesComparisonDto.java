@@ -0,0 +1,19 @@
+package com.slipsync.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * Current window against a comparison window; window bounds are in the store's timezone.
+ */
+public record SalesComparisonDto(
+        String period,
+        String against,
+        LocalDateTime currentFrom,
+        LocalDateTime currentTo,
+        LocalDateTime previousFrom,
+        LocalDateTime previousTo,
+        SalesTotalsDto current,
+        SalesTotalsDto previous,
+        SalesTotalsDto change,
+        SalesChangePercentDto changePercent) {
+}
@@ -0,0 +1,30 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+
+/**
+ * Totals for a current and a previous window read by one query
+ * (each column is a conditional sum over the rows of both windows).
+ */
+public record SalesComparisonTotalsDto(
+        BigDecimal currentGrossSales,
+        BigDecimal currentDiscountsTotal,
+        BigDecimal currentTaxesTotal,
+        BigDecimal currentNetSales,
+        Long currentOrderCount,
+        BigDecimal previousGrossSales,
+        BigDecimal previousDiscountsTotal,
+        BigDecimal previousTaxesTotal,
+        BigDecimal previousNetSales,
+        Long previousOrderCount) {
+
+    public SalesTotalsDto current() {
+        return new SalesTotalsDto(currentGrossSales, currentDiscountsTotal, currentTaxesTotal,
+                currentNetSales, currentOrderCount);
+    }
+
+    public SalesTotalsDto previous() {
+        return new SalesTotalsDto(previousGrossSales, previousDiscountsTotal, previousTaxesTotal,
+                previousNetSales, previousOrderCount);
+    }
+}
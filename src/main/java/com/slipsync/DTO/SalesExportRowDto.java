@@ -0,0 +1,14 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record SalesExportRowDto(
+        String orderNumber,
+        LocalDateTime placedAt,
+        BigDecimal subtotal,
+        BigDecimal discountsTotal,
+        BigDecimal taxesTotal,
+        BigDecimal totalAmount,
+        String currency) {
+}
@@ -0,0 +1,15 @@
+package com.slipsync.DTO;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Sales per time bucket. Bucket starts are wall-clock times in the store's timezone.
+ */
+public record SalesTimeSeriesDto(
+        String bucket,
+        String timezone,
+        LocalDate from,
+        LocalDate to,
+        List<SalesBucketDto> points) {
+}
@@ -0,0 +1,49 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+
+/**
+ * Raw aggregate totals for a set of orders. Sums may come back null from the
+ * database when no rows match, so they are normalised to zero here.
+ */
+public record SalesTotalsDto(
+        BigDecimal grossSales,
+        BigDecimal discountsTotal,
+        BigDecimal taxesTotal,
+        BigDecimal netSales,
+        Long orderCount) {
+
+    public SalesTotalsDto {
+        grossSales = grossSales != null ? grossSales : BigDecimal.ZERO;
+        discountsTotal = discountsTotal != null ? discountsTotal : BigDecimal.ZERO;
+        taxesTotal = taxesTotal != null ? taxesTotal : BigDecimal.ZERO;
+        netSales = netSales != null ? netSales : BigDecimal.ZERO;
+        orderCount = orderCount != null ? orderCount : 0L;
+    }
+
+    public static SalesTotalsDto empty() {
+        return new SalesTotalsDto(null, null, null, null, null);
+    }
+
+    public SalesTotalsDto add(SalesTotalsDto other) {
+        return new SalesTotalsDto(
+                grossSales.add(other.grossSales()),
+                discountsTotal.add(other.discountsTotal()),
+                taxesTotal.add(other.taxesTotal()),
+                netSales.add(other.netSales()),
+                orderCount + other.orderCount());
+    }
+
+    public SalesTotalsDto subtract(SalesTotalsDto other) {
+        return new SalesTotalsDto(
+                grossSales.subtract(other.grossSales()),
+                discountsTotal.subtract(other.discountsTotal()),
+                taxesTotal.subtract(other.taxesTotal()),
+                netSales.subtract(other.netSales()),
+                orderCount - other.orderCount());
+    }
+
+    public SalesReportDto toReport(String range) {
+        return new SalesReportDto(range, grossSales, discountsTotal, taxesTotal, netSales, orderCount);
+    }
+}
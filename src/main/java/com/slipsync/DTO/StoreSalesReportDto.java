@@ -0,0 +1,9 @@
+package com.slipsync.DTO;
+
+import java.util.UUID;
+
+public record StoreSalesReportDto(
+        UUID storeId,
+        String storeName,
+        SalesReportDto sales) {
+}
@@ -0,0 +1,10 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+
+public record TaxBreakdownDto(
+        BigDecimal ratePercent,
+        long orderCount,
+        BigDecimal taxableAmount,
+        BigDecimal taxAmount) {
+}
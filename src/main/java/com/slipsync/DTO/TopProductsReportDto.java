@@ -0,0 +1,12 @@
+package com.slipsync.DTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record TopProductsReportDto(
+        LocalDateTime from,
+        LocalDateTime to,
+        long days,
+        List<ProductSalesDto> byUnits,
+        List<ProductSalesDto> byRevenue) {
+}
@@ -0,0 +1,29 @@
+package com.slipsync.DTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public record ZReportDto(
+        UUID id,
+        UUID storeId,
+        String storeName,
+        LocalDate businessDate,
+        String timezone,
+        BigDecimal grossSales,
+        BigDecimal discountsTotal,
+        BigDecimal taxesTotal,
+        BigDecimal netSales,
+        BigDecimal costOfGoods,
+        long orderCount,
+        long itemCount,
+        List<TaxBreakdownDto> taxBreakdown,
+        List<ProductSalesDto> topItems,
+        String firstInvoiceNumber,
+        String lastInvoiceNumber,
+        long invoiceCount,
+        String currency,
+        LocalDateTime generatedAt) {
+}
@@ -0,0 +1,86 @@
+package com.slipsync.Documents;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Converts an image (PNG, JPEG, GIF or BMP) into an ESC/POS "GS v 0" raster command:
+ * scaled down to fit the paper, flattened onto white and thresholded to black and white.
+ * The result is plain command bytes, meant to be computed once and reused for every receipt.
+ */
+public final class EscPosRaster {
+
+    private static final int MAX_HEIGHT_DOTS = 400;
+    private static final int THRESHOLD = 128;
+
+    private EscPosRaster() {
+    }
+
+    /**
+     * @throws IllegalArgumentException when the bytes are not a readable image
+     */
+    public static byte[] rasterize(byte[] imageBytes, int maxWidthDots) {
+        BufferedImage source;
+        try {
+            source = ImageIO.read(new ByteArrayInputStream(imageBytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (source == null) {
+            throw new IllegalArgumentException("Unsupported image format");
+        }
+        return rasterize(source, maxWidthDots);
+    }
+
+    public static byte[] rasterize(BufferedImage source, int maxWidthDots) {
+        double scale = Math.min(1.0, Math.min((double) maxWidthDots / source.getWidth(),
+                (double) MAX_HEIGHT_DOTS / source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+
+        int bytesPerRow = (width + 7) / 8;
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 + bytesPerRow * height);
+        out.writeBytes(new byte[]{0x1D, 'v', '0', 0,
+                (byte) (bytesPerRow & 0xFF), (byte) (bytesPerRow >> 8),
+                (byte) (height & 0xFF), (byte) (height >> 8)});
+        for (int y = 0; y < height; y++) {
+            for (int xByte = 0; xByte < bytesPerRow; xByte++) {
+                int bits = 0;
+                for (int bit = 0; bit < 8; bit++) {
+                    int x = xByte * 8 + bit;
+                    if (x < width && luminance(image.getRGB(x, y)) < THRESHOLD) {
+                        bits |= 0x80 >> bit;
+                    }
+                }
+                out.write(bits);
+            }
+        }
+        out.write('\n');
+        return out.toByteArray();
+    }
+
+    private static int luminance(int rgb) {
+        int r = (rgb >> 16) & 0xFF;
+        int g = (rgb >> 8) & 0xFF;
+        int b = rgb & 0xFF;
+        return (r * 299 + g * 587 + b * 114) / 1000;
+    }
+}
@@ -0,0 +1,128 @@
+package com.slipsync.Documents;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * ESC/POS byte stream builder for receipt printers. Text is encoded in code page 437, the
+ * power-on default of most printers; characters it lacks print as '?'.
+ * Tracks the text width in columns so callers can pad and justify; double-size text
+ * halves it.
+ */
+public class EscPosWriter {
+
+    private static final byte ESC = 0x1B;
+    private static final byte GS = 0x1D;
+    private static final Charset CP437 = Charset.forName("IBM437");
+
+    public enum Align { LEFT, CENTER, RIGHT }
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(2048);
+    private final CharsetEncoder encoder = CP437.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE)
+            .replaceWith(new byte[]{'?'});
+    private final int columns;
+    private boolean doubleSize;
+
+    /**
+     * @param columns characters per line at normal size (48 for 80mm paper, 32 for 58mm)
+     */
+    public EscPosWriter(int columns) {
+        this.columns = columns;
+        out.writeBytes(new byte[]{ESC, '@'});       // initialize
+        out.writeBytes(new byte[]{ESC, 't', 0});    // code page 437
+    }
+
+    /** Current line width in characters. */
+    public int columns() {
+        return doubleSize ? columns / 2 : columns;
+    }
+
+    /** Printable width in dots, for raster images (12-dot font A columns). */
+    public int widthDots() {
+        return columns * 12;
+    }
+
+    public EscPosWriter align(Align align) {
+        out.writeBytes(new byte[]{ESC, 'a', (byte) align.ordinal()});
+        return this;
+    }
+
+    public EscPosWriter bold(boolean on) {
+        out.writeBytes(new byte[]{ESC, 'E', (byte) (on ? 1 : 0)});
+        return this;
+    }
+
+    public EscPosWriter doubleSize(boolean on) {
+        doubleSize = on;
+        out.writeBytes(new byte[]{GS, '!', (byte) (on ? 0x11 : 0x00)});
+        return this;
+    }
+
+    /** One line of text, cut to the line width. */
+    public EscPosWriter line(String text) {
+        String value = text != null ? text : "";
+        if (value.length() > columns()) {
+            value = value.substring(0, columns());
+        }
+        writeText(value);
+        out.write('\n');
+        return this;
+    }
+
+    /** Left and right text on one line; the left side is shortened if both do not fit. */
+    public EscPosWriter columns(String left, String right) {
+        String l = left != null ? left : "";
+        String r = right != null ? right : "";
+        int width = columns();
+        if (r.length() >= width) {
+            return line(r);
+        }
+        int room = width - r.length() - 1;
+        if (l.length() > room) {
+            l = l.substring(0, Math.max(room, 0));
+        }
+        return line(l + " ".repeat(width - l.length() - r.length()) + r);
+    }
+
+    public EscPosWriter rule(char c) {
+        return line(String.valueOf(c).repeat(columns()));
+    }
+
+    public EscPosWriter feed(int lines) {
+        out.writeBytes(new byte[]{ESC, 'd', (byte) Math.max(0, Math.min(lines, 255))});
+        return this;
+    }
+
+    /** Feeds to the cutter and makes a partial cut. */
+    public EscPosWriter cut() {
+        out.writeBytes(new byte[]{GS, 'V', 66, 3});
+        return this;
+    }
+
+    /** Pre-built command bytes, e.g. a raster image from EscPosRaster. */
+    public EscPosWriter raw(byte[] bytes) {
+        out.writeBytes(bytes);
+        return this;
+    }
+
+    public byte[] toBytes() {
+        return out.toByteArray();
+    }
+
+    private void writeText(String value) {
+        try {
+            ByteBuffer encoded = encoder.reset().encode(CharBuffer.wrap(value));
+            out.write(encoded.array(), encoded.arrayOffset(), encoded.limit());
+        } catch (CharacterCodingException e) {
+            // Not reachable with REPLACE actions
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.slipsync.Documents;
+
+import com.slipsync.Documents.SimplePdfWriter.Align;
+import com.slipsync.Entities.Customer;
+import com.slipsync.Entities.Invoice;
+import com.slipsync.Entities.Order;
+import com.slipsync.Entities.OrderItem;
+import com.slipsync.Entities.Store;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Invoice page layout, following the dashboard's browser-side generator (pdfGenerator.ts):
+ * header details, customer block, item table, totals and a page footer.
+ */
+public final class InvoicePdfLayout {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm", Locale.ROOT);
+    private static final float LEFT = 20f;
+    private static final float RIGHT = 190f;
+    private static final float LAST_ROW_Y = 250f;
+    private static final float BLACK = 0f;
+    private static final float GRAY = 0.4f;
+    private static final float RULE = 0.78f;
+
+    private InvoicePdfLayout() {
+    }
+
+    /**
+     * @param serverZone zone issued_at was written in; dates are printed in the store's zone
+     */
+    public static byte[] render(Invoice invoice, List<OrderItem> items, ZoneId serverZone, ZoneId storeZone) {
+        Order order = invoice.getOrder();
+        Store store = invoice.getStore();
+        String currency = invoice.getCurrency() != null ? invoice.getCurrency() : "PKR";
+        SimplePdfWriter pdf = new SimplePdfWriter();
+        float y = 20f;
+
+        pdf.text("INVOICE", 105f, y, 24f, true, BLACK, Align.CENTER);
+        y += 15f;
+
+        y = detail(pdf, "Invoice #: ", invoice.getInvoiceNumber(), y);
+        y = detail(pdf, "Order #: ", order != null ? order.getOrderNumber() : null, y);
+        if (invoice.getIssuedAt() != null) {
+            String issued = invoice.getIssuedAt().atZone(serverZone).withZoneSameInstant(storeZone).format(DATE_FORMAT);
+            y = detail(pdf, "Date: ", issued, y);
+        }
+        y = detail(pdf, "Merchant: ", invoice.getMerchant() != null ? invoice.getMerchant().getName() : null, y);
+        if (store != null) {
+            y = detail(pdf, "Store: ", store.getName(), y);
+            y = detail(pdf, "Address: ", store.getAddress(), y);
+            y = detail(pdf, "Phone: ", store.getPhone(), y);
+        }
+        y += 5f;
+
+        Customer customer = order != null ? order.getCustomer() : null;
+        if (customer != null && customer.getName() != null) {
+            pdf.text("Customer Information", LEFT, y, 12f, true, BLACK, Align.LEFT);
+            y += 7f;
+            y = detail(pdf, "Name: ", customer.getName(), y);
+            y = detail(pdf, "Email: ", customer.getEmail(), y);
+            y = detail(pdf, "Phone: ", customer.getPhone(), y);
+            y += 5f;
+        }
+
+        pdf.line(LEFT, RIGHT, y, RULE);
+        y += 10f;
+        pdf.text("Items", LEFT, y, 12f, true, BLACK, Align.LEFT);
+        y += 8f;
+        y = tableHeader(pdf, y);
+
+        for (OrderItem item : items) {
+            if (y > LAST_ROW_Y) {
+                pdf.newPage();
+                y = tableHeader(pdf, 20f);
+            }
+            String name = item.getVariant() != null && item.getVariant().getProduct() != null
+                    ? item.getVariant().getProduct().getName() : "Item";
+            String sku = item.getVariant() != null && item.getVariant().getSku() != null ? item.getVariant().getSku() : "N/A";
+            pdf.text(truncate(name, 30), LEFT, y, 9f, false, BLACK, Align.LEFT);
+            pdf.text(truncate(sku, 20), 85f, y, 9f, false, BLACK, Align.LEFT);
+            pdf.text(String.valueOf(item.getQuantity()), 130f, y, 9f, false, BLACK, Align.LEFT);
+            pdf.text(money(item.getUnitPrice(), currency), 165f, y, 9f, false, BLACK, Align.RIGHT);
+            pdf.text(money(item.getTotalPrice(), currency), RIGHT, y, 9f, false, BLACK, Align.RIGHT);
+            y += 7f;
+        }
+
+        if (y > LAST_ROW_Y - 20f) {
+            pdf.newPage();
+            y = 20f;
+        }
+        y += 5f;
+        pdf.line(LEFT, RIGHT, y, RULE);
+        y += 10f;
+
+        BigDecimal subtotal = order != null ? order.getSubtotal() : invoice.getTotal();
+        BigDecimal discount = order != null ? order.getDiscountsTotal() : null;
+        BigDecimal tax = order != null ? order.getTaxesTotal() : null;
+        y = total(pdf, "Subtotal:", money(subtotal, currency), y, false);
+        if (discount != null && discount.signum() > 0) {
+            y = total(pdf, "Discount:", "-" + money(discount, currency), y, false);
+        }
+        if (tax != null && tax.signum() > 0) {
+            y = total(pdf, "Tax:", money(tax, currency), y, false);
+        }
+        y += 3f;
+        total(pdf, "Total:", money(invoice.getTotal(), currency), y, true);
+
+        int pageCount = pdf.pageCount();
+        for (int i = 0; i < pageCount; i++) {
+            pdf.selectPage(i);
+            pdf.text("Page " + (i + 1) + " of " + pageCount, 105f, 285f, 8f, false, GRAY, Align.CENTER);
+        }
+        return pdf.toBytes();
+    }
+
+    private static float detail(SimplePdfWriter pdf, String label, String value, float y) {
+        if (value == null || value.isBlank()) {
+            return y;
+        }
+        pdf.text(label + value, LEFT, y, 10f, false, GRAY, Align.LEFT);
+        return y + 6f;
+    }
+
+    private static float tableHeader(SimplePdfWriter pdf, float y) {
+        pdf.text("Product", LEFT, y, 9f, false, GRAY, Align.LEFT);
+        pdf.text("SKU", 85f, y, 9f, false, GRAY, Align.LEFT);
+        pdf.text("Qty", 130f, y, 9f, false, GRAY, Align.LEFT);
+        pdf.text("Price", 165f, y, 9f, false, GRAY, Align.RIGHT);
+        pdf.text("Total", RIGHT, y, 9f, false, GRAY, Align.RIGHT);
+        y += 5f;
+        pdf.line(LEFT, RIGHT, y, RULE);
+        return y + 7f;
+    }
+
+    private static float total(SimplePdfWriter pdf, String label, String amount, float y, boolean grand) {
+        float size = grand ? 12f : 10f;
+        float gray = grand ? BLACK : GRAY;
+        pdf.text(label, 130f, y, size, grand, gray, Align.LEFT);
+        pdf.text(amount, RIGHT, y, size, grand, gray, Align.RIGHT);
+        return y + 7f;
+    }
+
+    private static String money(BigDecimal amount, String currency) {
+        DecimalFormat format = new DecimalFormat("#,##0.00", DecimalFormatSymbols.getInstance(Locale.ROOT));
+        BigDecimal value = amount != null ? amount.setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO;
+        return currency + " " + format.format(value);
+    }
+
+    private static String truncate(String value, int max) {
+        return value.length() <= max ? value : value.substring(0, max - 3) + "...";
+    }
+}
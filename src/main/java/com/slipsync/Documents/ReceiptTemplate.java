@@ -0,0 +1,280 @@
+package com.slipsync.Documents;
+
+import com.slipsync.DTO.ReceiptPayloadDto;
+import com.slipsync.DTO.ReceiptPayloadDto.Header;
+import com.slipsync.DTO.ReceiptPayloadDto.Line;
+import com.slipsync.DTO.ReceiptPayloadDto.Totals;
+import com.slipsync.Documents.EscPosWriter.Align;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * A compiled receipt template. Templates are line based:
+ * - Lines starting with '@' are directives: @width n, @align left|center|right,
+ *   @bold on|off, @size 1|2, @logo, @rule [char], @items, @totals, @feed n, @cut.
+ * - Any other line is printed, with {placeholder} fields filled from the receipt. A '|'
+ *   splits the line into a left and a right-aligned column. A line whose fields are all
+ *   empty is left out, so optional details do not leave blank lines.
+ * Compiling resolves every directive and field once; rendering only walks the result.
+ */
+public final class ReceiptTemplate {
+
+    public static final int DEFAULT_COLUMNS = 48;
+
+    private static final Map<String, Function<ReceiptPayloadDto, String>> FIELDS = Map.ofEntries(
+            Map.entry("merchantName", r -> header(r).merchantName()),
+            Map.entry("storeName", r -> header(r).storeName()),
+            Map.entry("storeAddress", r -> header(r).storeAddress()),
+            Map.entry("storePhone", r -> header(r).storePhone()),
+            Map.entry("orderNumber", r -> header(r).orderNumber()),
+            Map.entry("invoiceNumber", r -> header(r).invoiceNumber()),
+            Map.entry("placedAt", r -> header(r).placedAt()),
+            Map.entry("customerName", r -> header(r).customerName()),
+            Map.entry("subtotal", r -> money(totals(r).subtotal())),
+            Map.entry("discount", r -> money(totals(r).discount())),
+            Map.entry("tax", r -> money(totals(r).tax())),
+            Map.entry("total", r -> money(totals(r).total())),
+            Map.entry("currency", r -> totals(r).currency()),
+            Map.entry("footer", ReceiptPayloadDto::footer));
+
+    private final int columns;
+    private final boolean usesLogo;
+    private final List<Op> ops;
+
+    private ReceiptTemplate(int columns, boolean usesLogo, List<Op> ops) {
+        this.columns = columns;
+        this.usesLogo = usesLogo;
+        this.ops = ops;
+    }
+
+    /**
+     * @throws IllegalArgumentException naming the line of an unknown directive or field
+     */
+    public static ReceiptTemplate compile(String source) {
+        List<Op> ops = new ArrayList<>();
+        int columns = DEFAULT_COLUMNS;
+        boolean usesLogo = false;
+        String[] lines = source.replace("\r\n", "\n").split("\n", -1);
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            int number = i + 1;
+            if (!line.startsWith("@")) {
+                if (!(line.isEmpty() && i == lines.length - 1)) {
+                    ops.add(compileText(line, number));
+                }
+                continue;
+            }
+
+            String[] parts = line.substring(1).trim().split("\\s+", 2);
+            String argument = parts.length > 1 ? parts[1].trim() : "";
+            switch (parts[0]) {
+                case "width" -> columns = intArgument(argument, 16, 96, number);
+                case "align" -> {
+                    Align align = switch (argument) {
+                        case "left" -> Align.LEFT;
+                        case "center" -> Align.CENTER;
+                        case "right" -> Align.RIGHT;
+                        default -> throw error(number, "@align takes left, center or right");
+                    };
+                    ops.add((out, receipt, logo) -> out.align(align));
+                }
+                case "bold" -> {
+                    boolean on = onOff(argument, number);
+                    ops.add((out, receipt, logo) -> out.bold(on));
+                }
+                case "size" -> {
+                    boolean twice = intArgument(argument, 1, 2, number) == 2;
+                    ops.add((out, receipt, logo) -> out.doubleSize(twice));
+                }
+                case "logo" -> {
+                    usesLogo = true;
+                    ops.add((out, receipt, logo) -> {
+                        if (logo != null) {
+                            out.raw(logo);
+                        }
+                    });
+                }
+                case "rule" -> {
+                    char c = argument.isEmpty() ? '-' : argument.charAt(0);
+                    ops.add((out, receipt, logo) -> out.rule(c));
+                }
+                case "items" -> ops.add((out, receipt, logo) -> items(out, receipt));
+                case "totals" -> ops.add((out, receipt, logo) -> totals(out, receipt));
+                case "feed" -> {
+                    int feed = intArgument(argument, 0, 20, number);
+                    ops.add((out, receipt, logo) -> out.feed(feed));
+                }
+                case "cut" -> ops.add((out, receipt, logo) -> out.cut());
+                default -> throw error(number, "unknown directive @" + parts[0]);
+            }
+        }
+        return new ReceiptTemplate(columns, usesLogo, List.copyOf(ops));
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    /** Printable width in dots (12-dot font A columns), the width logos are scaled to. */
+    public int widthDots() {
+        return columns * 12;
+    }
+
+    public boolean usesLogo() {
+        return usesLogo;
+    }
+
+    /**
+     * @param logoRaster output of EscPosRaster, or null to print without a logo
+     */
+    public byte[] render(ReceiptPayloadDto receipt, byte[] logoRaster) {
+        EscPosWriter out = new EscPosWriter(columns);
+        for (Op op : ops) {
+            op.apply(out, receipt, logoRaster);
+        }
+        return out.toBytes();
+    }
+
+    private static Op compileText(String line, int number) {
+        String[] sides = line.split("\\|", -1);
+        if (sides.length > 2) {
+            throw error(number, "a line can have at most one '|'");
+        }
+        List<Segment> left = segments(sides[0], number);
+        List<Segment> right = sides.length > 1 ? segments(sides[1], number) : null;
+        boolean hasFields = left.stream().anyMatch(s -> s.field() != null)
+                || (right != null && right.stream().anyMatch(s -> s.field() != null));
+
+        return (out, receipt, logo) -> {
+            boolean[] anyValue = {false};
+            String leftText = fill(left, receipt, anyValue);
+            String rightText = right != null ? fill(right, receipt, anyValue) : null;
+            if (hasFields && !anyValue[0]) {
+                return;
+            }
+            if (rightText != null) {
+                out.columns(leftText, rightText);
+            } else {
+                out.line(leftText);
+            }
+        };
+    }
+
+    private static List<Segment> segments(String text, int number) {
+        List<Segment> segments = new ArrayList<>();
+        int index = 0;
+        while (index < text.length()) {
+            int open = text.indexOf('{', index);
+            if (open < 0) {
+                segments.add(new Segment(text.substring(index), null));
+                break;
+            }
+            int close = text.indexOf('}', open);
+            if (close < 0) {
+                throw error(number, "unclosed '{'");
+            }
+            if (open > index) {
+                segments.add(new Segment(text.substring(index, open), null));
+            }
+            String name = text.substring(open + 1, close).trim();
+            Function<ReceiptPayloadDto, String> field = FIELDS.get(name);
+            if (field == null) {
+                throw error(number, "unknown field {" + name + "}");
+            }
+            segments.add(new Segment(null, field));
+            index = close + 1;
+        }
+        return segments;
+    }
+
+    private static String fill(List<Segment> segments, ReceiptPayloadDto receipt, boolean[] anyValue) {
+        StringBuilder text = new StringBuilder();
+        for (Segment segment : segments) {
+            if (segment.field() == null) {
+                text.append(segment.literal());
+                continue;
+            }
+            String value = segment.field().apply(receipt);
+            if (value != null && !value.isBlank()) {
+                anyValue[0] = true;
+                text.append(value);
+            }
+        }
+        return text.toString();
+    }
+
+    private static void items(EscPosWriter out, ReceiptPayloadDto receipt) {
+        for (Line line : receipt.lines()) {
+            out.line(line.name());
+            out.columns("  " + line.quantity() + " x " + money(line.unitPrice()), money(line.total()));
+            if (line.discount() != null && line.discount().signum() > 0) {
+                out.columns("  Discount", "-" + money(line.discount()));
+            }
+        }
+    }
+
+    private static void totals(EscPosWriter out, ReceiptPayloadDto receipt) {
+        Totals totals = totals(receipt);
+        out.columns("Subtotal", money(totals.subtotal()));
+        if (totals.discount() != null && totals.discount().signum() > 0) {
+            out.columns("Discount", "-" + money(totals.discount()));
+        }
+        if (totals.tax() != null && totals.tax().signum() > 0) {
+            out.columns("Tax", money(totals.tax()));
+        }
+        String currency = totals.currency() != null ? totals.currency() + " " : "";
+        out.bold(true).columns("TOTAL", currency + money(totals.total())).bold(false);
+    }
+
+    private static Header header(ReceiptPayloadDto receipt) {
+        return receipt.header();
+    }
+
+    private static Totals totals(ReceiptPayloadDto receipt) {
+        return receipt.totals();
+    }
+
+    private static String money(BigDecimal amount) {
+        DecimalFormat format = new DecimalFormat("#,##0.00", DecimalFormatSymbols.getInstance(Locale.ROOT));
+        return format.format(amount != null ? amount.setScale(2, RoundingMode.HALF_UP) : BigDecimal.ZERO);
+    }
+
+    private static int intArgument(String argument, int min, int max, int number) {
+        try {
+            int value = Integer.parseInt(argument);
+            if (value >= min && value <= max) {
+                return value;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw error(number, "expected a number from " + min + " to " + max);
+    }
+
+    private static boolean onOff(String argument, int number) {
+        return switch (argument) {
+            case "on" -> true;
+            case "off" -> false;
+            default -> throw error(number, "expected on or off");
+        };
+    }
+
+    private static IllegalArgumentException error(int number, String message) {
+        return new IllegalArgumentException("Template line " + number + ": " + message);
+    }
+
+    private interface Op {
+        void apply(EscPosWriter out, ReceiptPayloadDto receipt, byte[] logo);
+    }
+
+    private record Segment(String literal, Function<ReceiptPayloadDto, String> field) {
+    }
+}
@@ -0,0 +1,166 @@
+package com.slipsync.Documents;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Minimal PDF 1.4 writer for text documents: A4 pages, the built-in Helvetica fonts,
+ * gray-level text and horizontal rules. Nothing needs to be embedded, so documents stay
+ * a few kilobytes. Output is deterministic (no timestamps or random ids), so identical
+ * content always produces identical bytes.
+ * Coordinates are in millimetres from the top-left corner, like the browser generator.
+ */
+public class SimplePdfWriter {
+
+    public static final float PAGE_WIDTH_MM = 210f;
+    public static final float PAGE_HEIGHT_MM = 297f;
+
+    private static final float PT_PER_MM = 72f / 25.4f;
+
+    // Helvetica advance widths (1/1000 em) for ASCII 32..126, from the standard AFM metrics
+    private static final short[] HELVETICA_WIDTHS = {
+            278, 278, 355, 556, 556, 889, 667, 191, 333, 333, 389, 584, 278, 333, 278, 278,
+            556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 278, 278, 584, 584, 584, 556,
+            1015, 667, 667, 722, 722, 667, 611, 778, 722, 278, 500, 667, 556, 833, 722, 778,
+            667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 278, 278, 278, 469, 556,
+            333, 556, 556, 500, 556, 556, 278, 556, 556, 222, 222, 500, 222, 833, 556, 556,
+            556, 556, 333, 500, 278, 556, 500, 722, 500, 500, 500, 334, 260, 334, 584
+    };
+    private static final short DEFAULT_WIDTH = 556;
+
+    public enum Align { LEFT, CENTER, RIGHT }
+
+    private final List<StringBuilder> pages = new ArrayList<>();
+    private StringBuilder current;
+
+    public SimplePdfWriter() {
+        newPage();
+    }
+
+    public void newPage() {
+        current = new StringBuilder();
+        pages.add(current);
+    }
+
+    public int pageCount() {
+        return pages.size();
+    }
+
+    /** Selects a page for further drawing (0-based), e.g. to add footers at the end. */
+    public void selectPage(int index) {
+        current = pages.get(index);
+    }
+
+    /**
+     * @param gray 0 = black, 1 = white
+     */
+    public void text(String value, float xMm, float yMm, float size, boolean bold, float gray, Align align) {
+        if (value == null || value.isEmpty()) {
+            return;
+        }
+        float width = textWidth(value, size);
+        float x = xMm * PT_PER_MM;
+        if (align == Align.RIGHT) {
+            x -= width;
+        } else if (align == Align.CENTER) {
+            x -= width / 2;
+        }
+        float y = (PAGE_HEIGHT_MM - yMm) * PT_PER_MM;
+        current.append("BT ")
+                .append(number(gray)).append(" g /").append(bold ? "F2 " : "F1 ").append(number(size)).append(" Tf ")
+                .append(number(x)).append(' ').append(number(y)).append(" Td (")
+                .append(escape(value)).append(") Tj ET\n");
+    }
+
+    public void line(float x1Mm, float x2Mm, float yMm, float gray) {
+        float y = (PAGE_HEIGHT_MM - yMm) * PT_PER_MM;
+        current.append(number(gray)).append(" G 0.5 w ")
+                .append(number(x1Mm * PT_PER_MM)).append(' ').append(number(y)).append(" m ")
+                .append(number(x2Mm * PT_PER_MM)).append(' ').append(number(y)).append(" l S\n");
+    }
+
+    /** Width in points; bold text is measured with the regular metrics (slightly narrow). */
+    public static float textWidth(String value, float size) {
+        int units = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            units += c >= 32 && c <= 126 ? HELVETICA_WIDTHS[c - 32] : DEFAULT_WIDTH;
+        }
+        return units * size / 1000f;
+    }
+
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Integer> offsets = new ArrayList<>();
+        int pageCount = pages.size();
+        // Objects: 1 catalog, 2 page tree, 3-4 fonts, then a page and its content stream per page
+        int firstPage = 5;
+
+        // The binary comment marks the file as 8-bit for transfer tools
+        write(out, "%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n");
+        offsets.add(out.size());
+        write(out, "1 0 obj\n<< /Type /Catalog /Pages 2 0 R >>\nendobj\n");
+
+        StringBuilder kids = new StringBuilder();
+        for (int i = 0; i < pageCount; i++) {
+            kids.append(firstPage + i * 2).append(" 0 R ");
+        }
+        offsets.add(out.size());
+        write(out, "2 0 obj\n<< /Type /Pages /Kids [" + kids.toString().trim() + "] /Count " + pageCount + " >>\nendobj\n");
+        offsets.add(out.size());
+        write(out, "3 0 obj\n<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>\nendobj\n");
+        offsets.add(out.size());
+        write(out, "4 0 obj\n<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica-Bold /Encoding /WinAnsiEncoding >>\nendobj\n");
+
+        String mediaBox = "[0 0 " + number(PAGE_WIDTH_MM * PT_PER_MM) + " " + number(PAGE_HEIGHT_MM * PT_PER_MM) + "]";
+        for (int i = 0; i < pageCount; i++) {
+            int pageId = firstPage + i * 2;
+            byte[] content = pages.get(i).toString().getBytes(StandardCharsets.ISO_8859_1);
+            offsets.add(out.size());
+            write(out, pageId + " 0 obj\n<< /Type /Page /Parent 2 0 R /MediaBox " + mediaBox
+                    + " /Resources << /Font << /F1 3 0 R /F2 4 0 R >> >> /Contents " + (pageId + 1) + " 0 R >>\nendobj\n");
+            offsets.add(out.size());
+            write(out, (pageId + 1) + " 0 obj\n<< /Length " + content.length + " >>\nstream\n");
+            out.writeBytes(content);
+            write(out, "\nendstream\nendobj\n");
+        }
+
+        int xref = out.size();
+        StringBuilder table = new StringBuilder();
+        table.append("xref\n0 ").append(offsets.size() + 1).append("\n0000000000 65535 f \n");
+        for (int offset : offsets) {
+            table.append(String.format(Locale.ROOT, "%010d 00000 n \n", offset));
+        }
+        table.append("trailer\n<< /Size ").append(offsets.size() + 1).append(" /Root 1 0 R >>\n")
+                .append("startxref\n").append(xref).append("\n%%EOF\n");
+        write(out, table.toString());
+        return out.toByteArray();
+    }
+
+    // Latin-1 text maps onto WinAnsi for everything printable; other characters become '?'
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '(' || c == ')' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 32 || (c > 126 && c < 160) || c > 255) {
+                escaped.append('?');
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static String number(float value) {
+        return String.format(Locale.ROOT, "%.2f", value);
+    }
+
+    private static void write(ByteArrayOutputStream out, String value) {
+        out.writeBytes(value.getBytes(StandardCharsets.ISO_8859_1));
+    }
+}
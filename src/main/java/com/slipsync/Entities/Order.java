@@ -1,5 +1,6 @@
 package com.slipsync.Entities;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
 import org.hibernate.annotations.CreationTimestamp;
@@ -29,6 +30,12 @@ public class Order {
     @JoinColumn(name = "customer_id")
     private Customer customer;
 
+    // User who rang the order up; null for orders placed before cashier attribution
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "cashier_id")
+    private User cashier;
+
     @Column(name = "order_number", unique = true, nullable = false)
     private String orderNumber;
 
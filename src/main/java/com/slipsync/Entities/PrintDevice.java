@@ -19,8 +19,16 @@ public class PrintDevice {
     @JoinColumn(name = "merchant_id", nullable = false)
     private Merchant merchant;
 
+    // Store whose queues the device serves; null for devices only addressed directly
+    @ManyToOne
+    @JoinColumn(name = "store_id")
+    private Store store;
+
     private String name;
 
+    @Column(nullable = false)
+    private String role = "receipt"; // receipt, kitchen, label
+
     @Column(name = "device_identifier", unique = true, nullable = false)
     private String deviceIdentifier; // Unique ID generated by the local agent
 
@@ -29,6 +29,10 @@ public class PrintJob {
     @JoinColumn(name = "print_device_id")
     private String printDeviceId;
 
+    // Store queue jobs: the printer role they need; the router picks (and may change) the device
+    @Column(name = "target_role")
+    private String targetRole;
+
     @Column(name = "job_type")
     private String jobType; // receipt, label
 
@@ -37,16 +41,29 @@ public class PrintJob {
     @Column(columnDefinition = "jsonb")
     private String payload; 
 
+    // The receipt rendered to ESC/POS printer commands (base64 in JSON); agents send it as-is
+    @Column(name = "escpos", columnDefinition = "bytea")
+    private byte[] escpos;
+
     @Column(nullable = false)
-    private String status = "queued"; // queued, processing, success, failed
+    private String status = "queued"; // queued, processing, retrying, success, dead, cancelled
 
     private Integer attempts = 0;
     private String error;
 
+    // While 'processing': when the claiming agent's lease runs out and the job is requeued
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    // While 'retrying': when the job goes back to 'queued' after a failed attempt
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
 
+    // Printed, or (for 'dead') given up on
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
 }
\ No newline at end of file
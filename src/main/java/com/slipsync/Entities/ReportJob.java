@@ -0,0 +1,68 @@
+package com.slipsync.Entities;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A report computed in the background. The result is written to the local report
+ * file store and downloaded once the job is completed.
+ */
+@Entity
+@Table(name = "report_jobs")
+@Data
+public class ReportJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "merchant_id", nullable = false)
+    private Merchant merchant;
+
+    @Column(name = "store_id")
+    private UUID storeId;
+
+    @Column(name = "requested_by", nullable = false)
+    private UUID requestedBy;
+
+    @Column(name = "report_type", nullable = false)
+    private String reportType;
+
+    // Normalized request (window and store ids) as JSON
+    @Column(columnDefinition = "text")
+    private String params;
+
+    @Column(nullable = false)
+    private String status = "queued"; // queued, running, completed, failed
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @JsonIgnore
+    @Column(name = "file_path")
+    private String filePath;
+
+    @Column(name = "size_bytes")
+    private Long sizeBytes;
+
+    private String error;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,92 @@
+package com.slipsync.Entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * End-of-day (Z) report for one store and business day.
+ * Written once after the store's local midnight and never updated.
+ */
+@Entity
+@Immutable
+@Table(name = "store_daily_reports", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"store_id", "business_date"})
+})
+@Data
+public class StoreDailyReport {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @ManyToOne
+    @JoinColumn(name = "merchant_id", nullable = false, updatable = false)
+    private Merchant merchant;
+
+    @ManyToOne
+    @JoinColumn(name = "store_id", nullable = false, updatable = false)
+    private Store store;
+
+    @Column(name = "business_date", nullable = false, updatable = false)
+    private LocalDate businessDate;
+
+    @Column(name = "timezone", nullable = false, updatable = false)
+    private String timezone;
+
+    @Column(name = "gross_sales", nullable = false, updatable = false)
+    private BigDecimal grossSales = BigDecimal.ZERO;
+
+    @Column(name = "discounts_total", nullable = false, updatable = false)
+    private BigDecimal discountsTotal = BigDecimal.ZERO;
+
+    @Column(name = "taxes_total", nullable = false, updatable = false)
+    private BigDecimal taxesTotal = BigDecimal.ZERO;
+
+    @Column(name = "net_sales", nullable = false, updatable = false)
+    private BigDecimal netSales = BigDecimal.ZERO;
+
+    // Items sold at their variant's cost when the report was built; null for reports
+    // written before cost tracking
+    @Column(name = "cost_of_goods", updatable = false)
+    private BigDecimal costOfGoods;
+
+    @Column(name = "order_count", nullable = false, updatable = false)
+    private Long orderCount = 0L;
+
+    @Column(name = "item_count", nullable = false, updatable = false)
+    private Long itemCount = 0L;
+
+    // Orders grouped by effective tax rate (JSON array of TaxBreakdownDto)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "tax_breakdown", columnDefinition = "jsonb", updatable = false)
+    private String taxBreakdown;
+
+    // Best sellers by units (JSON array of ProductSalesDto)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "top_items", columnDefinition = "jsonb", updatable = false)
+    private String topItems;
+
+    @Column(name = "first_invoice_number", updatable = false)
+    private String firstInvoiceNumber;
+
+    @Column(name = "last_invoice_number", updatable = false)
+    private String lastInvoiceNumber;
+
+    @Column(name = "invoice_count", nullable = false, updatable = false)
+    private Long invoiceCount = 0L;
+
+    @Column(name = "currency", updatable = false)
+    private String currency = "PKR";
+
+    @CreationTimestamp
+    @Column(name = "generated_at", updatable = false)
+    private LocalDateTime generatedAt;
+}
@@ -0,0 +1,47 @@
+package com.slipsync.Entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.UpdateTimestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Mergeable sketches of one store's orders for one hour (store-local time).
+ * - customerHll: HyperLogLog of customer ids (distinct customers)
+ * - orderTotalSketch / itemCountSketch: quantile sketches of ticket size and items per order
+ */
+@Entity
+@Table(name = "store_hourly_sketches", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"store_id", "bucket_start"})
+})
+@Data
+public class StoreHourlySketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "store_id", nullable = false)
+    private Store store;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+
+    @Column(name = "customer_hll", columnDefinition = "bytea")
+    private byte[] customerHll;
+
+    @Column(name = "order_total_sketch", columnDefinition = "bytea")
+    private byte[] orderTotalSketch;
+
+    @Column(name = "item_count_sketch", columnDefinition = "bytea")
+    private byte[] itemCountSketch;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,36 @@
+package com.slipsync.Entities;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.UpdateTimestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A store's receipt template (see Documents.ReceiptTemplate for the syntax) and optional
+ * logo image. Stores without a row print with the bundled default template.
+ */
+@Entity
+@Table(name = "store_receipt_templates")
+@Data
+public class StoreReceiptTemplate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "store_id", nullable = false, unique = true)
+    private Store store;
+
+    @Column(name = "body", nullable = false, columnDefinition = "text")
+    private String body;
+
+    // Source image as uploaded (PNG/JPEG); rasterized for the printer when the template is compiled
+    @Column(name = "logo", columnDefinition = "bytea")
+    private byte[] logo;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,7 @@
+package com.slipsync.Events;
+
+/**
+ * Published when a merchant's category tree changes (category created, moved or removed).
+ */
+public record CategoryChangedEvent(String merchantId) {
+}
@@ -0,0 +1,28 @@
+package com.slipsync.Events;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Published when an order's totals change for a store (placed, refunded, cancelled).
+ * Listeners use it to drop cached or derived report data for that store.
+ * Placed events also carry the basket details the streaming sketches need;
+ * customerId is null for walk-in orders.
+ */
+public record OrderChangedEvent(UUID storeId,
+                                UUID orderId,
+                                String reason,
+                                UUID customerId,
+                                BigDecimal totalAmount,
+                                int itemCount,
+                                String storeTimezone,
+                                Instant occurredAt) {
+
+    public static final String PLACED = "placed";
+    public static final String REFUNDED = "refunded";
+
+    public OrderChangedEvent(UUID storeId, UUID orderId, String reason) {
+        this(storeId, orderId, reason, null, null, 0, null, Instant.now());
+    }
+}
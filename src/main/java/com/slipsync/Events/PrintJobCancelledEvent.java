@@ -0,0 +1,9 @@
+package com.slipsync.Events;
+
+import java.util.UUID;
+
+/**
+ * Published when a queued print job is cancelled before its device printed it.
+ */
+public record PrintJobCancelledEvent(UUID jobId, String deviceSecret) {
+}
@@ -0,0 +1,10 @@
+package com.slipsync.Events;
+
+import java.util.UUID;
+
+/**
+ * Published when a print job is queued for a device. deviceSecret is the value the job
+ * is addressed by (PrintJob.printDeviceId), which is also what the agent polls with.
+ */
+public record PrintJobQueuedEvent(UUID jobId, String deviceSecret) {
+}
@@ -2,10 +2,16 @@ package com.slipsync.Repositories;
 
 import com.slipsync.Entities.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.UUID;
 
 public interface CategoryRepository extends JpaRepository<Category, UUID> {
     List<Category> findByMerchantId(String merchantId);
-}
\ No newline at end of file
+
+    // [id, name, parentId] for building the in-memory category tree
+    @Query("SELECT c.id, c.name, c.parent.id FROM Category c WHERE c.merchant.id = :merchantId")
+    List<Object[]> findTreeRowsByMerchantId(@Param("merchantId") String merchantId);
+}
@@ -1,9 +1,11 @@
 package com.slipsync.Repositories;
 
+import com.slipsync.DTO.InventoryValuationDto;
 import com.slipsync.Entities.Inventory;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -17,4 +19,22 @@ public interface InventoryRepository extends JpaRepository<Inventory, UUID> {
            "JOIN FETCH variant.product product " +
            "WHERE inv.store.id = :storeId")
     List<Inventory> findByStoreIdWithVariantAndProduct(@Param("storeId") UUID storeId);
-}
\ No newline at end of file
+
+    @Query("""
+        select new com.slipsync.DTO.InventoryValuationDto(
+            s.id,
+            s.name,
+            count(inv),
+            sum(inv.quantity),
+            sum(inv.quantity * coalesce(variant.cost, 0)),
+            sum(inv.quantity * variant.price)
+        )
+        from Inventory inv
+        join inv.store s
+        join inv.variant variant
+        where s.id in :storeIds
+        group by s.id, s.name
+        order by s.name
+    """)
+    List<InventoryValuationDto> valueByStore(@Param("storeIds") Collection<UUID> storeIds);
+}
@@ -1,10 +1,146 @@
 package com.slipsync.Repositories;
 
+import com.slipsync.DTO.InvoiceRangeDto;
+import com.slipsync.DTO.InvoiceSummaryDto;
 import com.slipsync.Entities.Invoice;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
-    List<Invoice> findTop10ByStoreIdOrderByIssuedAtDesc(UUID storeId);
-}
\ No newline at end of file
+    Optional<Invoice> findByOrderId(UUID orderId);
+
+    // Sets only the document link, without rewriting the rest of the invoice row
+    @Modifying
+    @Transactional
+    @Query("update Invoice i set i.pdfUrl = :pdfUrl where i.id = :invoiceId")
+    int updatePdfUrl(@Param("invoiceId") UUID invoiceId, @Param("pdfUrl") String pdfUrl);
+
+    /** Select and store scope shared by the invoice listing queries; the cursor predicate follows it. */
+    String PAGE_SELECT = """
+        select new com.slipsync.DTO.InvoiceSummaryDto(
+            i.id,
+            i.invoiceNumber,
+            o.orderNumber,
+            coalesce(i.total, 0),
+            i.issuedAt,
+            coalesce(i.currency, s.currency, 'PKR')
+        )
+        from Invoice i
+        join i.store s
+        left join i.order o
+        where s.id = :storeId
+    """;
+
+    /** Optional filters and the listing order shared by the invoice listing queries. */
+    String PAGE_FILTERS = """
+          and (:start is null or i.issuedAt >= :start)
+          and (:end is null or i.issuedAt <= :end)
+          and (:numberPrefix is null or i.invoiceNumber like :numberPrefix escape '!')
+          and (:minTotal is null or i.total >= :minTotal)
+          and (:maxTotal is null or i.total <= :maxTotal)
+        order by i.issuedAt desc, i.id desc
+    """;
+
+    /**
+     * One page of a store's invoices, newest first, with the order number joined in.
+     * Keyset pagination: pass the (issuedAt, id) of the last row of the previous page
+     * as the cursor, or nulls for the first page. Every filter is optional.
+     * Served by idx_invoices_store_issued_at_id; the first page and later pages are separate
+     * queries so the cursor is a plain row-value bound the index scan can start from.
+     */
+    default List<InvoiceSummaryDto> findPage(UUID storeId,
+                                             LocalDateTime cursorIssuedAt,
+                                             UUID cursorId,
+                                             LocalDateTime start,
+                                             LocalDateTime end,
+                                             String numberPrefix,
+                                             BigDecimal minTotal,
+                                             BigDecimal maxTotal,
+                                             Pageable pageable) {
+        return cursorIssuedAt == null
+                ? findFirstPage(storeId, start, end, numberPrefix, minTotal, maxTotal, pageable)
+                : findPageAfter(storeId, cursorIssuedAt, cursorId, start, end, numberPrefix, minTotal, maxTotal, pageable);
+    }
+
+    @Query(PAGE_SELECT + PAGE_FILTERS)
+    List<InvoiceSummaryDto> findFirstPage(@Param("storeId") UUID storeId,
+                                          @Param("start") LocalDateTime start,
+                                          @Param("end") LocalDateTime end,
+                                          @Param("numberPrefix") String numberPrefix,
+                                          @Param("minTotal") BigDecimal minTotal,
+                                          @Param("maxTotal") BigDecimal maxTotal,
+                                          Pageable pageable);
+
+    @Query(PAGE_SELECT + "  and (i.issuedAt, i.id) < (:cursorIssuedAt, :cursorId)\n" + PAGE_FILTERS)
+    List<InvoiceSummaryDto> findPageAfter(@Param("storeId") UUID storeId,
+                                          @Param("cursorIssuedAt") LocalDateTime cursorIssuedAt,
+                                          @Param("cursorId") UUID cursorId,
+                                          @Param("start") LocalDateTime start,
+                                          @Param("end") LocalDateTime end,
+                                          @Param("numberPrefix") String numberPrefix,
+                                          @Param("minTotal") BigDecimal minTotal,
+                                          @Param("maxTotal") BigDecimal maxTotal,
+                                          Pageable pageable);
+
+    /** Invoices with everything the PDF layout reads, for the archive queries; the store and window follow. */
+    String ARCHIVE_SELECT = """
+        select i
+        from Invoice i
+        join fetch i.store s
+        left join fetch i.merchant
+        left join fetch i.order o
+        left join fetch o.customer
+        where s.id = :storeId
+          and i.issuedAt >= :start
+          and i.issuedAt <= :end
+    """;
+
+    /**
+     * A batch of a store's invoices issued in [start, end], oldest first, with everything the
+     * PDF layout reads fetched in the same query. Keyset-paged like findPage, but ascending:
+     * pass the (issuedAt, id) of the last invoice of the previous batch, or nulls.
+     */
+    default List<Invoice> findArchiveBatch(UUID storeId,
+                                           LocalDateTime start,
+                                           LocalDateTime end,
+                                           LocalDateTime afterIssuedAt,
+                                           UUID afterId,
+                                           Pageable pageable) {
+        return afterIssuedAt == null
+                ? findFirstArchiveBatch(storeId, start, end, pageable)
+                : findArchiveBatchAfter(storeId, start, end, afterIssuedAt, afterId, pageable);
+    }
+
+    @Query(ARCHIVE_SELECT + "order by i.issuedAt, i.id")
+    List<Invoice> findFirstArchiveBatch(@Param("storeId") UUID storeId,
+                                        @Param("start") LocalDateTime start,
+                                        @Param("end") LocalDateTime end,
+                                        Pageable pageable);
+
+    @Query(ARCHIVE_SELECT + "  and (i.issuedAt, i.id) > (:afterIssuedAt, :afterId)\norder by i.issuedAt, i.id")
+    List<Invoice> findArchiveBatchAfter(@Param("storeId") UUID storeId,
+                                        @Param("start") LocalDateTime start,
+                                        @Param("end") LocalDateTime end,
+                                        @Param("afterIssuedAt") LocalDateTime afterIssuedAt,
+                                        @Param("afterId") UUID afterId,
+                                        Pageable pageable);
+
+    @Query("""
+        select new com.slipsync.DTO.InvoiceRangeDto(min(i.invoiceNumber), max(i.invoiceNumber), count(i))
+        from Invoice i
+        where i.store.id = :storeId
+          and i.issuedAt between :start and :end
+    """)
+    InvoiceRangeDto findInvoiceRange(@Param("storeId") UUID storeId,
+                                     @Param("start") LocalDateTime start,
+                                     @Param("end") LocalDateTime end);
+}
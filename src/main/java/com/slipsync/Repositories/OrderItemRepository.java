@@ -1,9 +1,15 @@
 package com.slipsync.Repositories;
 
+import com.slipsync.DTO.CategorySalesTotalsDto;
+import com.slipsync.DTO.ProductMarginDto;
+import com.slipsync.DTO.ProductSalesDto;
 import com.slipsync.Entities.OrderItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,4 +30,131 @@ public interface OrderItemRepository extends JpaRepository<OrderItem, UUID> {
            "JOIN FETCH variant.product product " +
            "WHERE oi.order.id = :orderId")
     List<OrderItem> findByOrderIdWithVariantAndProduct(@Param("orderId") UUID orderId);
-}
\ No newline at end of file
+
+    @Query("""
+        select new com.slipsync.DTO.ProductSalesDto(
+            variant.id,
+            product.id,
+            product.name,
+            variant.sku,
+            sum(oi.quantity),
+            sum(oi.totalPrice)
+        )
+        from OrderItem oi
+        join oi.order o
+        join oi.variant variant
+        join variant.product product
+        where o.store.id = :storeId
+          and o.placedAt between :start and :end
+        group by variant.id, product.id, product.name, variant.sku
+        order by sum(oi.quantity) desc, sum(oi.totalPrice) desc
+    """)
+    List<ProductSalesDto> findTopVariantsByUnits(@Param("storeId") UUID storeId,
+                                                 @Param("start") LocalDateTime start,
+                                                 @Param("end") LocalDateTime end,
+                                                 Pageable pageable);
+
+    @Query("""
+        select new com.slipsync.DTO.ProductSalesDto(
+            variant.id,
+            product.id,
+            product.name,
+            variant.sku,
+            sum(oi.quantity),
+            sum(oi.totalPrice)
+        )
+        from OrderItem oi
+        join oi.order o
+        join oi.variant variant
+        join variant.product product
+        where o.store.id = :storeId
+          and o.placedAt between :start and :end
+        group by variant.id, product.id, product.name, variant.sku
+        order by sum(oi.totalPrice) desc, sum(oi.quantity) desc
+    """)
+    List<ProductSalesDto> findTopVariantsByRevenue(@Param("storeId") UUID storeId,
+                                                   @Param("start") LocalDateTime start,
+                                                   @Param("end") LocalDateTime end,
+                                                   Pageable pageable);
+
+    @Query("""
+        select coalesce(sum(oi.quantity), 0)
+        from OrderItem oi
+        where oi.order.store.id = :storeId
+          and oi.order.placedAt between :start and :end
+    """)
+    long sumQuantityForStore(@Param("storeId") UUID storeId,
+                             @Param("start") LocalDateTime start,
+                             @Param("end") LocalDateTime end);
+
+    /**
+     * Margin per variant. Revenue is net of the order discount, shared across the order's
+     * lines by line total, so it uses the same definition as the report's headline
+     * (gross sales minus discounts) and full rows add up to it.
+     */
+    @Query("""
+        select new com.slipsync.DTO.ProductMarginDto(
+            variant.id,
+            product.id,
+            product.name,
+            variant.sku,
+            sum(oi.quantity),
+            sum(oi.totalPrice - case when o.subtotal > 0
+                                     then coalesce(o.discountsTotal, 0) * oi.totalPrice / o.subtotal
+                                     else 0 end),
+            sum(oi.quantity * coalesce(variant.cost, 0))
+        )
+        from OrderItem oi
+        join oi.order o
+        join oi.variant variant
+        join variant.product product
+        where o.store.id = :storeId
+          and o.placedAt between :start and :end
+        group by variant.id, product.id, product.name, variant.sku
+        order by sum(oi.totalPrice - case when o.subtotal > 0
+                                          then coalesce(o.discountsTotal, 0) * oi.totalPrice / o.subtotal
+                                          else 0 end)
+                 - sum(oi.quantity * coalesce(variant.cost, 0)) desc
+    """)
+    List<ProductMarginDto> findMarginByVariant(@Param("storeId") UUID storeId,
+                                               @Param("start") LocalDateTime start,
+                                               @Param("end") LocalDateTime end,
+                                               Pageable pageable);
+
+    /**
+     * Cost of goods sold in the window, at each variant's current cost.
+     */
+    @Query("""
+        select sum(oi.quantity * coalesce(variant.cost, 0))
+        from OrderItem oi
+        join oi.order o
+        join oi.variant variant
+        where o.store.id = :storeId
+          and o.placedAt between :start and :end
+    """)
+    BigDecimal sumCostOfGoods(@Param("storeId") UUID storeId,
+                              @Param("start") LocalDateTime start,
+                              @Param("end") LocalDateTime end);
+
+    /**
+     * Units and revenue per directly assigned category; parents are rolled up in memory.
+     */
+    @Query("""
+        select new com.slipsync.DTO.CategorySalesTotalsDto(
+            category.id,
+            sum(oi.quantity),
+            sum(oi.totalPrice)
+        )
+        from OrderItem oi
+        join oi.order o
+        join oi.variant variant
+        join variant.product product
+        left join product.category category
+        where o.store.id = :storeId
+          and o.placedAt between :start and :end
+        group by category.id
+    """)
+    List<CategorySalesTotalsDto> sumSalesByCategory(@Param("storeId") UUID storeId,
+                                                    @Param("start") LocalDateTime start,
+                                                    @Param("end") LocalDateTime end);
+}
@@ -1,12 +1,217 @@
 package com.slipsync.Repositories;
 
+import com.slipsync.DTO.ReceiptRowDto;
+import com.slipsync.DTO.SalesComparisonTotalsDto;
+import com.slipsync.DTO.SalesExportRowDto;
+import com.slipsync.DTO.SalesTotalsDto;
 import com.slipsync.Entities.Order;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, UUID> {
     List<Order> findByStoreIdOrderByPlacedAtDesc(UUID storeId);
     List<Order> findByStoreIdAndPlacedAtBetweenOrderByPlacedAtDesc(UUID storeId, LocalDateTime start, LocalDateTime end);
-}
\ No newline at end of file
+
+    @Query("""
+        select new com.slipsync.DTO.SalesTotalsDto(
+            sum(o.subtotal),
+            sum(o.discountsTotal),
+            sum(o.taxesTotal),
+            sum(o.totalAmount),
+            count(o)
+        )
+        from Order o
+        where o.store.id = :storeId
+          and o.placedAt between :start and :end
+    """)
+    SalesTotalsDto summarizeSales(@Param("storeId") UUID storeId,
+                                  @Param("start") LocalDateTime start,
+                                  @Param("end") LocalDateTime end);
+
+    /**
+     * Totals for two windows in one pass: the index range scans for both windows are
+     * combined and each row is summed into the window it falls in.
+     */
+    @Query("""
+        select new com.slipsync.DTO.SalesComparisonTotalsDto(
+            sum(case when o.placedAt between :currentStart and :currentEnd then o.subtotal end),
+            sum(case when o.placedAt between :currentStart and :currentEnd then o.discountsTotal end),
+            sum(case when o.placedAt between :currentStart and :currentEnd then o.taxesTotal end),
+            sum(case when o.placedAt between :currentStart and :currentEnd then o.totalAmount end),
+            sum(case when o.placedAt between :currentStart and :currentEnd then 1 else 0 end),
+            sum(case when o.placedAt between :previousStart and :previousEnd then o.subtotal end),
+            sum(case when o.placedAt between :previousStart and :previousEnd then o.discountsTotal end),
+            sum(case when o.placedAt between :previousStart and :previousEnd then o.taxesTotal end),
+            sum(case when o.placedAt between :previousStart and :previousEnd then o.totalAmount end),
+            sum(case when o.placedAt between :previousStart and :previousEnd then 1 else 0 end)
+        )
+        from Order o
+        where o.store.id = :storeId
+          and (o.placedAt between :currentStart and :currentEnd
+               or o.placedAt between :previousStart and :previousEnd)
+    """)
+    SalesComparisonTotalsDto compareSales(@Param("storeId") UUID storeId,
+                                          @Param("currentStart") LocalDateTime currentStart,
+                                          @Param("currentEnd") LocalDateTime currentEnd,
+                                          @Param("previousStart") LocalDateTime previousStart,
+                                          @Param("previousEnd") LocalDateTime previousEnd);
+
+    /**
+     * Everything a printed receipt shows, in one round trip: one row per line item with the
+     * order, store, customer and invoice columns repeated. Scoped to the merchant, so another
+     * merchant's order id yields no rows.
+     */
+    @Query("""
+        select new com.slipsync.DTO.ReceiptRowDto(
+            o.orderNumber,
+            inv.invoiceNumber,
+            o.placedAt,
+            coalesce(o.currency, s.currency, 'PKR'),
+            m.name,
+            s.name,
+            s.address,
+            s.phone,
+            s.timezone,
+            c.name,
+            o.subtotal,
+            o.discountsTotal,
+            o.taxesTotal,
+            o.totalAmount,
+            p.name,
+            v.sku,
+            oi.quantity,
+            oi.unitPrice,
+            oi.discountsTotal,
+            oi.taxesTotal,
+            oi.totalPrice
+        )
+        from Order o
+        join o.store s
+        join o.merchant m
+        left join o.customer c
+        left join Invoice inv on inv.order = o
+        left join OrderItem oi on oi.order = o
+        left join oi.variant v
+        left join v.product p
+        where o.id = :orderId
+          and m.id = :merchantId
+        order by p.name, v.sku
+    """)
+    List<ReceiptRowDto> findReceiptRows(@Param("orderId") UUID orderId, @Param("merchantId") String merchantId);
+
+    /**
+     * Forward-only cursor over the export columns of a store's orders.
+     * Rows are fetched from the driver in chunks of the fetch size and never enter the
+     * persistence context, so the caller must consume it inside a read-only transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+        select new com.slipsync.DTO.SalesExportRowDto(
+            o.orderNumber,
+            o.placedAt,
+            o.subtotal,
+            o.discountsTotal,
+            o.taxesTotal,
+            o.totalAmount,
+            o.currency
+        )
+        from Order o
+        where o.store.id = :storeId
+          and o.placedAt between :start and :end
+        order by o.placedAt desc
+    """)
+    Stream<SalesExportRowDto> streamSalesExportRows(@Param("storeId") UUID storeId,
+                                                   @Param("start") LocalDateTime start,
+                                                   @Param("end") LocalDateTime end);
+
+    @Query("select min(o.placedAt) from Order o where o.store.id = :storeId")
+    LocalDateTime findFirstPlacedAt(@Param("storeId") UUID storeId);
+
+    /**
+     * Order count and sales per date_trunc bucket, truncated in the store's timezone.
+     * placed_at is read as server wall time; bucket_start is the bucket's first instant
+     * (timestamptz), so the two hours sharing a wall-clock time when clocks go back stay apart.
+     * Each row is [bucket_start, order_count, gross_sales, net_sales].
+     */
+    @Query(value = """
+        select date_trunc(cast(:bucket as text),
+                          cast(o.placed_at as timestamp) at time zone :serverZone,
+                          :storeZone) as bucket_start,
+               count(*) as order_count,
+               sum(o.subtotal) as gross_sales,
+               sum(o.total_amount) as net_sales
+        from orders o
+        where o.store_id = :storeId
+          and o.placed_at between :start and :end
+        group by 1
+        order by 1
+    """, nativeQuery = true)
+    List<Object[]> sumSalesByBucket(@Param("storeId") UUID storeId,
+                                    @Param("start") LocalDateTime start,
+                                    @Param("end") LocalDateTime end,
+                                    @Param("bucket") String bucket,
+                                    @Param("serverZone") String serverZone,
+                                    @Param("storeZone") String storeZone);
+
+    /**
+     * Orders grouped by their effective tax rate (taxes / (subtotal - discounts)).
+     * Each row is [rate_percent, order_count, taxable_amount, tax_amount].
+     */
+    @Query(value = """
+        select coalesce(round(o.taxes_total * 100 / nullif(o.subtotal - coalesce(o.discounts_total, 0), 0), 2), 0) as rate_percent,
+               count(*) as order_count,
+               sum(o.subtotal - coalesce(o.discounts_total, 0)) as taxable_amount,
+               sum(coalesce(o.taxes_total, 0)) as tax_amount
+        from orders o
+        where o.store_id = :storeId
+          and o.placed_at between :start and :end
+        group by 1
+        order by 1
+    """, nativeQuery = true)
+    List<Object[]> sumTaxesByRate(@Param("storeId") UUID storeId,
+                                  @Param("start") LocalDateTime start,
+                                  @Param("end") LocalDateTime end);
+
+    /**
+     * Per-cashier totals for the store and window. Items are summed per order before the
+     * join so order totals are not multiplied by their line count.
+     * Each row is [cashier_id, order_count, revenue, items_sold, active_hours];
+     * cashier_id is null for orders placed before attribution.
+     */
+    @Query(value = """
+        with scoped as (
+            select o.id, o.cashier_id, o.total_amount, o.placed_at
+            from orders o
+            where o.store_id = :storeId
+              and o.placed_at between :start and :end
+        ),
+        items as (
+            select oi.order_id, sum(oi.quantity) as quantity
+            from order_items oi
+            join scoped s on s.id = oi.order_id
+            group by oi.order_id
+        )
+        select s.cashier_id,
+               count(*) as order_count,
+               coalesce(sum(s.total_amount), 0) as revenue,
+               coalesce(sum(i.quantity), 0) as items_sold,
+               count(distinct date_trunc('hour', s.placed_at)) as active_hours
+        from scoped s
+        left join items i on i.order_id = s.id
+        group by s.cashier_id
+    """, nativeQuery = true)
+    List<Object[]> sumSalesByCashier(@Param("storeId") UUID storeId,
+                                     @Param("start") LocalDateTime start,
+                                     @Param("end") LocalDateTime end);
+}
@@ -2,7 +2,12 @@ package com.slipsync.Repositories;
 
 import com.slipsync.Entities.PrintDevice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -11,4 +16,21 @@ public interface PrintDeviceRepository extends JpaRepository<PrintDevice, UUID>
     Optional<PrintDevice> findByDeviceIdentifier(String deviceIdentifier);
     Optional<PrintDevice> findByApiSecret(String apiSecret);
     List<PrintDevice> findByMerchantId(String merchantId);
-}
\ No newline at end of file
+
+    /**
+     * Sets last_seen for many devices in one statement; the arrays are paired by position.
+     * Never moves last_seen backwards.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE print_devices d
+        SET last_seen = v.last_seen
+        FROM unnest(cast(:deviceIdentifiers as varchar[]), cast(:lastSeen as timestamp[]))
+             AS v(device_identifier, last_seen)
+        WHERE d.device_identifier = v.device_identifier
+          AND (d.last_seen IS NULL OR d.last_seen < v.last_seen)
+    """, nativeQuery = true)
+    int updateLastSeen(@Param("deviceIdentifiers") String[] deviceIdentifiers,
+                       @Param("lastSeen") LocalDateTime[] lastSeen);
+}
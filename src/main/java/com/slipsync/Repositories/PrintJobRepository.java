@@ -1,8 +1,17 @@
 package com.slipsync.Repositories;
 
 import com.slipsync.Entities.PrintJob;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface PrintJobRepository extends JpaRepository<PrintJob, UUID> {
@@ -10,5 +19,263 @@ public interface PrintJobRepository extends JpaRepository<PrintJob, UUID> {
     // For MVP, we'll just fetch all queued jobs for the store/merchant
     List<PrintJob> findByPrintDeviceIdAndStatus(String deviceIdentifier, String status);
 
+    Optional<PrintJob> findByIdAndMerchantIdAndPrintDeviceId(UUID id, String merchantId, String printDeviceId);
+
+    /**
+     * Atomically claims up to :limit of the device's queued jobs, oldest first: they move to
+     * 'processing' with a lease until :leaseUntil and are returned. Rows another claimer has
+     * locked are skipped rather than waited for, so concurrent polls never get the same job.
+     * With :includeLeased the device's own unexpired leases are handed out again (used when
+     * the device reconnects and its previous connection is known to be gone).
+     * The plain status IN (...) lets the planner use the partial per-device index of open jobs.
+     */
+    @Transactional
+    @Query(value = """
+        UPDATE print_jobs
+        SET status = 'processing',
+            lease_expires_at = :leaseUntil
+        WHERE id IN (
+            SELECT id
+            FROM print_jobs
+            WHERE print_device_id = :deviceSecret
+              AND status IN ('queued', 'processing')
+              AND (status = 'queued' OR (:includeLeased AND status = 'processing'))
+            ORDER BY created_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING *
+    """, nativeQuery = true)
+    List<PrintJob> claimJobs(@Param("deviceSecret") String deviceSecret,
+                             @Param("leaseUntil") LocalDateTime leaseUntil,
+                             @Param("limit") int limit,
+                             @Param("includeLeased") boolean includeLeased);
+
+    /**
+     * Hands claimed jobs back to the queue without counting an attempt, for a claim no
+     * delivery ended up carrying. Jobs acked or re-leased since are left as they are.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update PrintJob j
+        set j.status = 'queued', j.leaseExpiresAt = null
+        where j.id in :jobIds
+          and j.printDeviceId = :deviceSecret
+          and j.status = 'processing'
+          and j.leaseExpiresAt = :leaseUntil
+    """)
+    int unclaimJobs(@Param("deviceSecret") String deviceSecret,
+                    @Param("jobIds") Collection<UUID> jobIds,
+                    @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Counts a failed attempt: the job moves to 'retrying', due again after an exponential
+     * backoff (base * 2^previous attempts, capped, with the upper half jittered), or to
+     * 'dead' once :maxAttempts attempts have failed. Every expression reads the row's
+     * values from before the update.
+     */
+    String FAIL_ATTEMPT = """
+        attempts = COALESCE(attempts, 0) + 1,
+        lease_expires_at = NULL,
+        status = CASE WHEN COALESCE(attempts, 0) + 1 >= :maxAttempts THEN 'dead' ELSE 'retrying' END,
+        next_attempt_at = CASE WHEN COALESCE(attempts, 0) + 1 >= :maxAttempts THEN NULL
+            ELSE :now + make_interval(secs => LEAST(:maxBackoffSeconds,
+                    :baseBackoffSeconds * power(2, COALESCE(attempts, 0))) * (0.5 + random() / 2))
+            END,
+        completed_at = CASE WHEN COALESCE(attempts, 0) + 1 >= :maxAttempts THEN :now ELSE completed_at END
+    """;
+
+    /**
+     * Records the agent's failure report for a job it holds; no row if the job is no longer
+     * leased or is addressed to another device.
+     */
+    @Transactional
+    @Query(value = "UPDATE print_jobs SET " + FAIL_ATTEMPT + ", error = :error"
+            + " WHERE id = :jobId AND status = 'processing'"
+            + " AND merchant_id = :merchantId AND print_device_id = :deviceSecret RETURNING *", nativeQuery = true)
+    List<PrintJob> failJob(@Param("merchantId") String merchantId,
+                           @Param("deviceSecret") String deviceSecret,
+                           @Param("jobId") UUID jobId,
+                           @Param("error") String error,
+                           @Param("now") LocalDateTime now,
+                           @Param("maxAttempts") int maxAttempts,
+                           @Param("baseBackoffSeconds") double baseBackoffSeconds,
+                           @Param("maxBackoffSeconds") double maxBackoffSeconds);
+
+    /**
+     * failJob for many jobs in one statement: :jobIds and :errors are paired by position.
+     * Only jobs still leased to the reporting device are changed, so an agent cannot fail
+     * another device's jobs, nor one that was moved to another device after its lease ran out.
+     */
+    @Transactional
+    @Query(value = "UPDATE print_jobs SET " + FAIL_ATTEMPT + ", error = v.job_error"
+            + """
+        FROM unnest(cast(:jobIds as uuid[]), cast(:errors as text[])) AS v(job_id, job_error)
+        WHERE print_jobs.id = v.job_id
+          AND print_jobs.status = 'processing'
+          AND print_jobs.merchant_id = :merchantId
+          AND print_jobs.print_device_id = :deviceSecret
+        RETURNING print_jobs.*
+    """, nativeQuery = true)
+    List<PrintJob> failJobs(@Param("merchantId") String merchantId,
+                            @Param("deviceSecret") String deviceSecret,
+                            @Param("jobIds") String[] jobIds,
+                            @Param("errors") String[] errors,
+                            @Param("now") LocalDateTime now,
+                            @Param("maxAttempts") int maxAttempts,
+                            @Param("baseBackoffSeconds") double baseBackoffSeconds,
+                            @Param("maxBackoffSeconds") double maxBackoffSeconds);
+
+    /**
+     * Marks jobs addressed to the acking device printed in one statement. Jobs already
+     * finished (printed, cancelled or dead) or now addressed to another device are left as they are.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+        update PrintJob j
+        set j.status = 'success', j.completedAt = :now, j.leaseExpiresAt = null,
+            j.nextAttemptAt = null, j.error = null
+        where j.id in :jobIds
+          and j.merchant.id = :merchantId
+          and j.printDeviceId = :deviceSecret
+          and j.status in ('queued', 'processing', 'retrying')
+    """)
+    int completeJobs(@Param("merchantId") String merchantId,
+                     @Param("deviceSecret") String deviceSecret,
+                     @Param("jobIds") Collection<UUID> jobIds,
+                     @Param("now") LocalDateTime now);
+
+    /** Counts a failed attempt for up to :limit jobs whose lease ran out without an ack. */
+    @Transactional
+    @Query(value = "UPDATE print_jobs SET " + FAIL_ATTEMPT + ", error = 'Lease expired without an ack'"
+            + """
+        WHERE id IN (
+            SELECT id
+            FROM print_jobs
+            WHERE status = 'processing'
+              AND lease_expires_at < :now
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING *
+    """, nativeQuery = true)
+    List<PrintJob> failExpiredLeases(@Param("now") LocalDateTime now,
+                                     @Param("limit") int limit,
+                                     @Param("maxAttempts") int maxAttempts,
+                                     @Param("baseBackoffSeconds") double baseBackoffSeconds,
+                                     @Param("maxBackoffSeconds") double maxBackoffSeconds);
+
+    /** Returns up to :limit retrying jobs whose backoff has passed to the queue, earliest first. */
+    @Transactional
+    @Query(value = """
+        UPDATE print_jobs
+        SET status = 'queued',
+            next_attempt_at = NULL
+        WHERE id IN (
+            SELECT id
+            FROM print_jobs
+            WHERE status = 'retrying'
+              AND next_attempt_at <= :now
+            ORDER BY next_attempt_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+        RETURNING *
+    """, nativeQuery = true)
+    List<PrintJob> releaseDueRetries(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    List<PrintJob> findByMerchantIdAndStatusOrderByCompletedAtDesc(String merchantId, String status, Pageable pageable);
+
+    /** Drops the payload and printer bytes of up to :limit printed or cancelled jobs created before :cutoff. */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        UPDATE print_jobs
+        SET payload = NULL,
+            escpos = NULL
+        WHERE id IN (
+            SELECT id
+            FROM print_jobs
+            WHERE status IN ('success', 'cancelled')
+              AND payload IS NOT NULL
+              AND created_at < :cutoff
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+    """, nativeQuery = true)
+    int compactPayloads(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    /** Deletes up to :limit printed or cancelled jobs created before :cutoff. */
+    @Modifying
+    @Transactional
+    @Query(value = """
+        DELETE FROM print_jobs
+        WHERE id IN (
+            SELECT id
+            FROM print_jobs
+            WHERE status IN ('success', 'cancelled')
+              AND created_at < :cutoff
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+        )
+    """, nativeQuery = true)
+    int deleteFinished(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    /** Open (queued or processing) jobs per device, for the given device secrets; rows are [secret, count]. */
+    @Query(value = """
+        SELECT print_device_id, COUNT(*)
+        FROM print_jobs
+        WHERE print_device_id IN (:deviceSecrets)
+          AND status IN ('queued', 'processing')
+        GROUP BY print_device_id
+    """, nativeQuery = true)
+    List<Object[]> countOpenJobs(@Param("deviceSecrets") Collection<String> deviceSecrets);
+
+    /** Hands the job to a device as 'queued', if it is still in :status. */
+    @Modifying
+    @Transactional
+    @Query("""
+        update PrintJob j
+        set j.printDeviceId = :deviceSecret, j.status = 'queued', j.nextAttemptAt = null
+        where j.id = :jobId and j.status = :status
+    """)
+    int assign(@Param("jobId") UUID jobId, @Param("deviceSecret") String deviceSecret, @Param("status") String status);
+
+    /** Store queue jobs of one role in the given stores still waiting for a device; the cursor follows. */
+    String UNASSIGNED_SELECT = """
+        select j from PrintJob j
+        where j.printDeviceId is null
+          and j.status = 'queued'
+          and j.targetRole = :role
+          and j.store.id in :storeIds
+    """;
+
+    /**
+     * Store queue jobs for the role in the given stores still waiting for a device, oldest
+     * first, in keyset pages after (:afterCreatedAt, :afterId), or from the start with nulls.
+     * Later pages seek idx_print_jobs_unassigned with a row-value bound.
+     */
+    default List<PrintJob> findUnassigned(Collection<UUID> storeIds,
+                                          String role,
+                                          LocalDateTime afterCreatedAt,
+                                          UUID afterId,
+                                          Pageable pageable) {
+        return afterCreatedAt == null
+                ? findFirstUnassigned(storeIds, role, pageable)
+                : findUnassignedAfter(storeIds, role, afterCreatedAt, afterId, pageable);
+    }
+
+    @Query(UNASSIGNED_SELECT + "order by j.createdAt, j.id")
+    List<PrintJob> findFirstUnassigned(@Param("storeIds") Collection<UUID> storeIds,
+                                       @Param("role") String role,
+                                       Pageable pageable);
 
-}
\ No newline at end of file
+    @Query(UNASSIGNED_SELECT + "  and (j.createdAt, j.id) > (:afterCreatedAt, :afterId)\norder by j.createdAt, j.id")
+    List<PrintJob> findUnassignedAfter(@Param("storeIds") Collection<UUID> storeIds,
+                                       @Param("role") String role,
+                                       @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                       @Param("afterId") UUID afterId,
+                                       Pageable pageable);
+}
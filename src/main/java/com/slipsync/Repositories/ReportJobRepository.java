@@ -0,0 +1,19 @@
+package com.slipsync.Repositories;
+
+import com.slipsync.Entities.ReportJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface ReportJobRepository extends JpaRepository<ReportJob, UUID> {
+
+    List<ReportJob> findByRequestedByOrderByCreatedAtDesc(UUID requestedBy, Pageable pageable);
+
+    List<ReportJob> findByStatusInAndCreatedAtBefore(Collection<String> statuses, LocalDateTime createdAt);
+
+    List<ReportJob> findByCompletedAtBefore(LocalDateTime completedAt, Pageable pageable);
+}
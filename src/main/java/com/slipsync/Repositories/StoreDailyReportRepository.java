@@ -0,0 +1,26 @@
+package com.slipsync.Repositories;
+
+import com.slipsync.Entities.StoreDailyReport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface StoreDailyReportRepository extends JpaRepository<StoreDailyReport, UUID> {
+    Optional<StoreDailyReport> findByStoreIdAndBusinessDate(UUID storeId, LocalDate businessDate);
+
+    List<StoreDailyReport> findTop30ByStoreIdOrderByBusinessDateDesc(UUID storeId);
+
+    @Query("SELECT r.store.id FROM StoreDailyReport r WHERE r.store.id IN :storeIds AND r.businessDate = :businessDate")
+    List<UUID> findStoreIdsWithReport(@Param("storeIds") Collection<UUID> storeIds,
+                                      @Param("businessDate") LocalDate businessDate);
+
+    List<StoreDailyReport> findByStoreIdAndBusinessDateBetweenOrderByBusinessDateAsc(UUID storeId,
+                                                                                      LocalDate from,
+                                                                                      LocalDate to);
+}
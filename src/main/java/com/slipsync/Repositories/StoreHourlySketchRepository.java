@@ -0,0 +1,32 @@
+package com.slipsync.Repositories;
+
+import com.slipsync.Entities.StoreHourlySketch;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface StoreHourlySketchRepository extends JpaRepository<StoreHourlySketch, UUID> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StoreHourlySketch s WHERE s.store.id = :storeId AND s.bucketStart = :bucketStart")
+    Optional<StoreHourlySketch> findForUpdate(@Param("storeId") UUID storeId,
+                                              @Param("bucketStart") LocalDateTime bucketStart);
+
+    @Query("""
+        SELECT s FROM StoreHourlySketch s
+        WHERE s.store.id IN :storeIds
+          AND s.bucketStart >= :start
+          AND s.bucketStart < :end
+    """)
+    List<StoreHourlySketch> findInRange(@Param("storeIds") Collection<UUID> storeIds,
+                                        @Param("start") LocalDateTime start,
+                                        @Param("end") LocalDateTime end);
+}
@@ -0,0 +1,11 @@
+package com.slipsync.Repositories;
+
+import com.slipsync.Entities.StoreReceiptTemplate;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface StoreReceiptTemplateRepository extends JpaRepository<StoreReceiptTemplate, UUID> {
+    Optional<StoreReceiptTemplate> findByStoreId(UUID storeId);
+}
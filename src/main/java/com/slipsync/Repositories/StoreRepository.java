@@ -1,7 +1,9 @@
 package com.slipsync.Repositories;
 
 import com.slipsync.Entities.Store;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,4 +13,7 @@ public interface StoreRepository extends JpaRepository<Store, UUID> {
     List<Store> findByMerchantId(String merchantId);
 
     Optional<Store> findFirstByMerchantIdOrderByCreatedAtAsc(String merchantId);
-}
\ No newline at end of file
+
+    @Query("SELECT s FROM Store s JOIN FETCH s.merchant ORDER BY s.id")
+    List<Store> findAllWithMerchant(Pageable pageable);
+}
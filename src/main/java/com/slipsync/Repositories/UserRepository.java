@@ -4,6 +4,7 @@ import com.slipsync.Entities.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -19,4 +20,8 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.role WHERE u.merchant.id = :merchantId")
     List<User> findByMerchantIdWithRole(@Param("merchantId") String merchantId);
+
+    // [id, fullName, email] without loading merchant and role
+    @Query("SELECT u.id, u.fullName, u.email FROM User u WHERE u.id IN :ids")
+    List<Object[]> findNamesByIdIn(@Param("ids") Collection<UUID> ids);
 }
\ No newline at end of file
@@ -71,6 +71,7 @@ public class ClerkAuthFilter implements Filter {
             if (device.isPresent()) {
                 request.setAttribute("authType", "DEVICE");
                 request.setAttribute("merchant.id", device.get().getMerchant().getId());
+                request.setAttribute("print.device", device.get());
                 chain.doFilter(request, response);
                 return;
             } else {
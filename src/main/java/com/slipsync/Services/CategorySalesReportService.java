@@ -0,0 +1,114 @@
+package com.slipsync.Services;
+
+import com.slipsync.DTO.CategorySalesDto;
+import com.slipsync.DTO.CategorySalesReportDto;
+import com.slipsync.DTO.CategorySalesTotalsDto;
+import com.slipsync.Entities.Store;
+import com.slipsync.Events.CategoryChangedEvent;
+import com.slipsync.Repositories.OrderItemRepository;
+import com.slipsync.Services.CategoryTreeService.CategoryTree;
+import com.slipsync.Services.SalesReportService.DateWindow;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sales by category. The database groups order items by their product's own category;
+ * totals are then rolled up to every ancestor using the cached category tree.
+ */
+@Service
+public class CategorySalesReportService {
+
+    private static final String REPORT = "category-sales";
+    private static final String UNCATEGORIZED = "Uncategorized";
+    private static final String UNKNOWN_CATEGORY = "Unknown category";
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+    private final OrderItemRepository orderItemRepository;
+    private final CategoryTreeService categoryTreeService;
+    private final ReportCacheService reportCache;
+
+    public CategorySalesReportService(OrderItemRepository orderItemRepository,
+                                      CategoryTreeService categoryTreeService,
+                                      ReportCacheService reportCache) {
+        this.orderItemRepository = orderItemRepository;
+        this.categoryTreeService = categoryTreeService;
+        this.reportCache = reportCache;
+    }
+
+    /**
+     * Cached rows are grouped by each product's category at query time, so a moved product
+     * or category makes them stale. Keys carry stores, not merchants, so every merchant's rows go.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        reportCache.invalidateReport(REPORT);
+    }
+
+    public CategorySalesReportDto categorySales(Store store, String rangeKey, DateWindow window) {
+        List<CategorySalesTotalsDto> direct = reportCache.get(
+                new ReportCacheService.Key(store.getId(), REPORT, rangeKey, "category"),
+                () -> orderItemRepository.sumSalesByCategory(store.getId(), window.start(), window.end()));
+        CategoryTree tree = categoryTreeService.get(store.getMerchant().getId());
+
+        Map<UUID, CategorySalesTotalsDto> directById = new HashMap<>();
+        Map<UUID, CategorySalesTotalsDto> rolledUp = new HashMap<>();
+        CategorySalesTotalsDto uncategorized = null;
+        long totalUnits = 0;
+        BigDecimal totalRevenue = BigDecimal.ZERO;
+        for (CategorySalesTotalsDto row : direct) {
+            totalUnits += row.units();
+            totalRevenue = totalRevenue.add(row.revenue());
+            if (row.categoryId() == null) {
+                uncategorized = row;
+                continue;
+            }
+            directById.put(row.categoryId(), row);
+            for (UUID ancestor : tree.ancestorsOf(row.categoryId())) {
+                rolledUp.merge(ancestor, row, (a, b) ->
+                        new CategorySalesTotalsDto(a.categoryId(), a.units() + b.units(), a.revenue().add(b.revenue())));
+            }
+        }
+
+        List<CategorySalesDto> categories = new ArrayList<>(rolledUp.size() + 1);
+        for (Map.Entry<UUID, CategorySalesTotalsDto> entry : rolledUp.entrySet()) {
+            UUID id = entry.getKey();
+            CategorySalesTotalsDto total = entry.getValue();
+            CategorySalesTotalsDto own = directById.get(id);
+            categories.add(new CategorySalesDto(
+                    id,
+                    tree.names().getOrDefault(id, UNKNOWN_CATEGORY),
+                    tree.parents().get(id),
+                    tree.depthOf(id),
+                    own != null ? own.units() : 0,
+                    own != null ? own.revenue() : BigDecimal.ZERO,
+                    total.units(),
+                    total.revenue(),
+                    share(total.revenue(), totalRevenue)));
+        }
+        if (uncategorized != null) {
+            categories.add(new CategorySalesDto(null, UNCATEGORIZED, null, 0,
+                    uncategorized.units(), uncategorized.revenue(),
+                    uncategorized.units(), uncategorized.revenue(),
+                    share(uncategorized.revenue(), totalRevenue)));
+        }
+        categories.sort(Comparator.comparing(CategorySalesDto::totalRevenue).reversed());
+        return new CategorySalesReportDto(rangeKey, totalUnits, totalRevenue, categories);
+    }
+
+    private BigDecimal share(BigDecimal part, BigDecimal whole) {
+        if (whole.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return part.multiply(HUNDRED).divide(whole, 2, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,111 @@
+package com.slipsync.Services;
+
+import com.slipsync.Events.CategoryChangedEvent;
+import com.slipsync.Repositories.CategoryRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-merchant category hierarchy held in memory as a precomputed ancestor table,
+ * so rolling a category up to its parents is a map lookup instead of a recursive query.
+ * A merchant's tree is rebuilt from one flat query after a category change commits,
+ * or once it is older than the TTL.
+ */
+@Service
+public class CategoryTreeService {
+
+    private final Map<String, CategoryTree> trees = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final CategoryRepository categoryRepository;
+    private final Duration ttl;
+
+    public CategoryTreeService(CategoryRepository categoryRepository,
+                               @Value("${reports.category-tree.ttl-seconds:600}") long ttlSeconds) {
+        this.categoryRepository = categoryRepository;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    public CategoryTree get(String merchantId) {
+        Instant now = Instant.now();
+        CategoryTree cached = trees.get(merchantId);
+        if (cached != null && cached.loadedAt().plus(ttl).isAfter(now)) {
+            return cached;
+        }
+        // Loaded outside the map so the query never runs under a bin lock; a tree read
+        // before an invalidation that lands meanwhile is returned but not cached
+        long seen = invalidations.get();
+        CategoryTree loaded = load(merchantId, now);
+        if (invalidations.get() != seen) {
+            return loaded;
+        }
+        return trees.merge(merchantId, loaded, (existing, candidate) ->
+                existing.loadedAt().isAfter(candidate.loadedAt()) ? existing : candidate);
+    }
+
+    public void invalidate(String merchantId) {
+        invalidations.incrementAndGet();
+        trees.remove(merchantId);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        invalidate(event.merchantId());
+    }
+
+    private CategoryTree load(String merchantId, Instant now) {
+        Map<UUID, String> names = new HashMap<>();
+        Map<UUID, UUID> parents = new HashMap<>();
+        for (Object[] row : categoryRepository.findTreeRowsByMerchantId(merchantId)) {
+            UUID id = (UUID) row[0];
+            names.put(id, (String) row[1]);
+            if (row[2] != null) {
+                parents.put(id, (UUID) row[2]);
+            }
+        }
+
+        Map<UUID, List<UUID>> ancestors = new HashMap<>(names.size());
+        for (UUID id : names.keySet()) {
+            List<UUID> chain = new ArrayList<>();
+            Set<UUID> seen = new HashSet<>();
+            // Walk to the root; a parent cycle or a parent outside this merchant ends the chain
+            for (UUID current = id; current != null && names.containsKey(current) && seen.add(current);
+                 current = parents.get(current)) {
+                chain.add(current);
+            }
+            ancestors.put(id, List.copyOf(chain));
+        }
+        return new CategoryTree(Map.copyOf(names), Map.copyOf(parents), Map.copyOf(ancestors), now);
+    }
+
+    /**
+     * @param ancestors for each category: itself followed by its parent, grandparent, ... up to the root
+     */
+    public record CategoryTree(Map<UUID, String> names,
+                               Map<UUID, UUID> parents,
+                               Map<UUID, List<UUID>> ancestors,
+                               Instant loadedAt) {
+
+        // A category missing from the tree (e.g. from another merchant) rolls up to itself only
+        public List<UUID> ancestorsOf(UUID categoryId) {
+            return ancestors.getOrDefault(categoryId, List.of(categoryId));
+        }
+
+        public int depthOf(UUID categoryId) {
+            return Math.max(ancestorsOf(categoryId).size() - 1, 0);
+        }
+    }
+}
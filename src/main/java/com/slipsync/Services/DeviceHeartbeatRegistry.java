@@ -0,0 +1,147 @@
+package com.slipsync.Services;
+
+import com.slipsync.Configuration.SchedulingConfig;
+import com.slipsync.Entities.PrintDevice;
+import com.slipsync.Repositories.PrintDeviceRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agent heartbeats, held in memory.
+ * - A heartbeat only updates this registry; print_devices.last_seen is written in one
+ *   set-based statement per flush, so write load follows the flush interval rather than
+ *   the number of agents.
+ * - Device status is answered from the registry. A merchant's devices are read from the
+ *   table once per process, so devices seen before a restart are not reported offline.
+ */
+@Service
+public class DeviceHeartbeatRegistry {
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private final PrintDeviceRepository deviceRepository;
+    private final long liveSeconds;
+    private final Map<String, Beat> beats = new ConcurrentHashMap<>();
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+    private final Set<String> loadedMerchants = ConcurrentHashMap.newKeySet();
+
+    public DeviceHeartbeatRegistry(PrintDeviceRepository deviceRepository,
+                                   @Value("${printing.heartbeat.live-seconds:45}") long liveSeconds) {
+        this.deviceRepository = deviceRepository;
+        this.liveSeconds = liveSeconds;
+    }
+
+    public LocalDateTime beat(PrintDevice device) {
+        LocalDateTime now = LocalDateTime.now();
+        beats.put(device.getDeviceIdentifier(), beatOf(device, now));
+        pending.merge(device.getDeviceIdentifier(), now, (a, b) -> a.isAfter(b) ? a : b);
+        return now;
+    }
+
+    /** The merchant's devices with a heartbeat inside the live window, by name. */
+    public List<Beat> liveDevices(String merchantId) {
+        if (loadedMerchants.add(merchantId)) {
+            for (PrintDevice device : deviceRepository.findByMerchantId(merchantId)) {
+                if (device.getLastSeen() != null) {
+                    beats.merge(device.getDeviceIdentifier(), beatOf(device, device.getLastSeen()),
+                            (current, stored) -> current.lastSeen().isAfter(stored.lastSeen()) ? current : stored);
+                }
+            }
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(liveSeconds);
+        List<Beat> live = new ArrayList<>();
+        for (Beat beat : beats.values()) {
+            if (merchantId.equals(beat.merchantId()) && beat.lastSeen().isAfter(cutoff)) {
+                live.add(beat);
+            }
+        }
+        live.sort(Comparator.comparing(Beat::name, Comparator.nullsLast(Comparator.naturalOrder())));
+        return live;
+    }
+
+    /** The store's live devices serving the role. */
+    public List<Beat> liveDevices(String merchantId, UUID storeId, String role) {
+        List<Beat> live = new ArrayList<>();
+        for (Beat beat : liveDevices(merchantId)) {
+            if (storeId.equals(beat.storeId()) && role.equals(beat.role())) {
+                live.add(beat);
+            }
+        }
+        return live;
+    }
+
+    @Scheduled(scheduler = SchedulingConfig.PRINT_SCHEDULER, fixedDelayString = "${printing.heartbeat.flush-seconds:30}", timeUnit = TimeUnit.SECONDS)
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<String> identifiers = new ArrayList<>();
+        List<LocalDateTime> times = new ArrayList<>();
+        for (String identifier : pending.keySet()) {
+            LocalDateTime lastSeen = pending.remove(identifier);
+            if (lastSeen != null) {
+                identifiers.add(identifier);
+                times.add(lastSeen);
+            }
+        }
+
+        for (int from = 0; from < identifiers.size(); from += FLUSH_BATCH_SIZE) {
+            int to = Math.min(from + FLUSH_BATCH_SIZE, identifiers.size());
+            List<String> batchIds = identifiers.subList(from, to);
+            List<LocalDateTime> batchTimes = times.subList(from, to);
+            try {
+                deviceRepository.updateLastSeen(batchIds.toArray(String[]::new), batchTimes.toArray(LocalDateTime[]::new));
+            } catch (RuntimeException e) {
+                // Keep them for the next flush, unless a newer heartbeat has arrived meanwhile
+                for (int i = 0; i < batchIds.size(); i++) {
+                    pending.merge(batchIds.get(i), batchTimes.get(i), (a, b) -> a.isAfter(b) ? a : b);
+                }
+                System.out.println("⚠️  [Heartbeats] Flush of " + batchIds.size() + " device(s) failed: " + e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /** Stores with at least one device inside the live window, by the role those devices serve. */
+    public Map<String, Set<UUID>> liveStoresByRole() {
+        LocalDateTime cutoff = LocalDateTime.now().minusSeconds(liveSeconds);
+        Map<String, Set<UUID>> stores = new HashMap<>();
+        for (Beat beat : beats.values()) {
+            if (beat.storeId() != null && beat.role() != null && beat.lastSeen().isAfter(cutoff)) {
+                stores.computeIfAbsent(beat.role(), role -> new HashSet<>()).add(beat.storeId());
+            }
+        }
+        return stores;
+    }
+
+    private static Beat beatOf(PrintDevice device, LocalDateTime lastSeen) {
+        return new Beat(device.getDeviceIdentifier(), device.getApiSecret(), device.getName(),
+                device.getMerchant().getId(), device.getStore() != null ? device.getStore().getId() : null,
+                device.getRole(), lastSeen);
+    }
+
+    /**
+     * @param apiSecret what print jobs are addressed by, reported to the dashboard as the device id
+     */
+    public record Beat(String deviceIdentifier, String apiSecret, String name, String merchantId,
+                       UUID storeId, String role, LocalDateTime lastSeen) {
+    }
+}
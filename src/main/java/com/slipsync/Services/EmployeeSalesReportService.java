@@ -0,0 +1,111 @@
+package com.slipsync.Services;
+
+import com.slipsync.DTO.EmployeeSalesDto;
+import com.slipsync.DTO.EmployeeSalesReportDto;
+import com.slipsync.Entities.Store;
+import com.slipsync.Repositories.OrderRepository;
+import com.slipsync.Repositories.UserRepository;
+import com.slipsync.Services.SalesReportService.DateWindow;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Per-employee sales performance. Each store is aggregated by cashier in the database
+ * (one grouped query per store, cached); only the per-cashier rows are merged here.
+ */
+@Service
+public class EmployeeSalesReportService {
+
+    private static final String UNATTRIBUTED = "Unattributed";
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final SalesReportService salesReportService;
+    private final ReportCacheService reportCache;
+
+    public EmployeeSalesReportService(OrderRepository orderRepository,
+                                      UserRepository userRepository,
+                                      SalesReportService salesReportService,
+                                      ReportCacheService reportCache) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.salesReportService = salesReportService;
+        this.reportCache = reportCache;
+    }
+
+    public EmployeeSalesReportDto report(Collection<Store> stores, LocalDate from, LocalDate to) {
+        Map<UUID, CashierTotals> byCashier = new HashMap<>();
+        for (Store store : stores) {
+            DateWindow window = salesReportService.windowFor(store, from, to);
+            List<CashierTotals> rows = reportCache.get(
+                    new ReportCacheService.Key(store.getId(), "employee-sales", from + ".." + to, "cashier"),
+                    () -> orderRepository.sumSalesByCashier(store.getId(), window.start(), window.end())
+                            .stream()
+                            .map(CashierTotals::fromRow)
+                            .toList());
+            // HashMap allows the null key, which collects unattributed orders
+            for (CashierTotals row : rows) {
+                byCashier.merge(row.cashierId(), row, CashierTotals::add);
+            }
+        }
+
+        Map<UUID, String> names = new HashMap<>();
+        List<UUID> cashierIds = byCashier.keySet().stream().filter(Objects::nonNull).toList();
+        if (!cashierIds.isEmpty()) {
+            for (Object[] row : userRepository.findNamesByIdIn(cashierIds)) {
+                String fullName = (String) row[1];
+                names.put((UUID) row[0], fullName != null && !fullName.isBlank() ? fullName : (String) row[2]);
+            }
+        }
+
+        List<EmployeeSalesDto> employees = new ArrayList<>(byCashier.size());
+        for (CashierTotals totals : byCashier.values()) {
+            String name = totals.cashierId() == null ? UNATTRIBUTED : names.get(totals.cashierId());
+            employees.add(totals.toDto(name));
+        }
+        employees.sort(Comparator.comparing(EmployeeSalesDto::revenue).reversed());
+        return new EmployeeSalesReportDto(from, to, employees);
+    }
+
+    private record CashierTotals(UUID cashierId, long orderCount, BigDecimal revenue,
+                                 long itemsSold, long activeHours) {
+
+        static CashierTotals fromRow(Object[] row) {
+            return new CashierTotals(
+                    (UUID) row[0],
+                    ((Number) row[1]).longValue(),
+                    row[2] != null ? new BigDecimal(row[2].toString()) : BigDecimal.ZERO,
+                    ((Number) row[3]).longValue(),
+                    ((Number) row[4]).longValue());
+        }
+
+        // Active hours from different stores are added; an employee working two stores
+        // in the same hour is rare enough not to matter here
+        CashierTotals add(CashierTotals other) {
+            return new CashierTotals(cashierId, orderCount + other.orderCount, revenue.add(other.revenue),
+                    itemsSold + other.itemsSold, activeHours + other.activeHours);
+        }
+
+        EmployeeSalesDto toDto(String name) {
+            BigDecimal averageTicket = orderCount > 0
+                    ? revenue.divide(BigDecimal.valueOf(orderCount), 2, RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO;
+            BigDecimal itemsPerHour = activeHours > 0
+                    ? BigDecimal.valueOf(itemsSold).divide(BigDecimal.valueOf(activeHours), 2, RoundingMode.HALF_UP)
+                    : BigDecimal.ZERO;
+            return new EmployeeSalesDto(cashierId, name, orderCount, revenue, averageTicket,
+                    itemsSold, activeHours, itemsPerHour);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.slipsync.Services;
+
+import com.slipsync.Entities.Invoice;
+import com.slipsync.Entities.Store;
+import com.slipsync.Repositories.InvoiceRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams a ZIP of a store's invoice PDFs for a date range, plus a CSV manifest.
+ * - Invoices are read in small keyset batches, so memory use does not grow with the range
+ *   and no connection is held while writing to the client.
+ * - Each PDF comes from the content-addressed document store; only invoices without a
+ *   stored rendering are rendered (and kept) on the way through.
+ * - Manifest rows are spooled to a temp file and added as the last entry.
+ */
+@Service
+public class InvoiceArchiveService {
+
+    public static final String MANIFEST_NAME = "manifest.csv";
+
+    private static final int BATCH_SIZE = 50;
+    private static final String MANIFEST_HEADER = "Invoice Number,Order Number,Issued At,Total,Currency,File,SHA-256";
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    private static final Pattern UNSAFE_NAME = Pattern.compile("[^A-Za-z0-9._-]");
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoiceDocumentService invoiceDocumentService;
+    private final InvoiceDocumentStore invoiceDocumentStore;
+
+    public InvoiceArchiveService(InvoiceRepository invoiceRepository,
+                                 InvoiceDocumentService invoiceDocumentService,
+                                 InvoiceDocumentStore invoiceDocumentStore) {
+        this.invoiceRepository = invoiceRepository;
+        this.invoiceDocumentService = invoiceDocumentService;
+        this.invoiceDocumentStore = invoiceDocumentStore;
+    }
+
+    /**
+     * Writes the archive for invoices issued in [start, end] (server time) to the stream.
+     * The stream is finished but not closed.
+     */
+    public void writeArchive(Store store, LocalDateTime start, LocalDateTime end, OutputStream out) throws IOException {
+        ZoneId storeZone = SalesReportService.zoneOf(store.getTimezone());
+        Path manifest = Files.createTempFile("invoice-manifest", ".csv");
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+            try (BufferedWriter manifestWriter = Files.newBufferedWriter(manifest, StandardCharsets.UTF_8)) {
+                manifestWriter.write(MANIFEST_HEADER);
+                Set<String> usedNames = new HashSet<>();
+                LocalDateTime afterIssuedAt = null;
+                UUID afterId = null;
+                List<Invoice> batch;
+                do {
+                    batch = invoiceRepository.findArchiveBatch(store.getId(), start, end, afterIssuedAt, afterId,
+                            PageRequest.of(0, BATCH_SIZE));
+                    for (Invoice invoice : batch) {
+                        String hash = pdfHash(invoice);
+                        Path file = hash != null ? invoiceDocumentStore.find(invoice.getId(), hash) : null;
+                        String entryName = null;
+                        if (file != null) {
+                            entryName = uniqueName(invoice, usedNames);
+                            ZipEntry entry = new ZipEntry(entryName);
+                            if (invoice.getIssuedAt() != null) {
+                                entry.setTimeLocal(invoice.getIssuedAt());
+                            }
+                            zip.putNextEntry(entry);
+                            Files.copy(file, zip);
+                            zip.closeEntry();
+                        }
+                        manifestWriter.write('\n');
+                        manifestWriter.write(manifestLine(invoice, storeZone, entryName, file != null ? hash : null));
+                    }
+                    if (!batch.isEmpty()) {
+                        Invoice last = batch.get(batch.size() - 1);
+                        afterIssuedAt = last.getIssuedAt();
+                        afterId = last.getId();
+                    }
+                } while (batch.size() == BATCH_SIZE);
+            }
+
+            zip.putNextEntry(new ZipEntry(MANIFEST_NAME));
+            Files.copy(manifest, zip);
+            zip.closeEntry();
+            zip.finish();
+        } finally {
+            Files.deleteIfExists(manifest);
+        }
+    }
+
+    // A failed render leaves the invoice out of the ZIP but still listed, with no file
+    private String pdfHash(Invoice invoice) {
+        try {
+            return invoiceDocumentService.ensurePdf(invoice);
+        } catch (RuntimeException e) {
+            System.out.println("⚠️  [InvoiceArchive] Could not render invoice " + invoice.getId() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private String uniqueName(Invoice invoice, Set<String> usedNames) {
+        String base = invoice.getInvoiceNumber() != null && !invoice.getInvoiceNumber().isBlank()
+                ? UNSAFE_NAME.matcher(invoice.getInvoiceNumber()).replaceAll("_")
+                : invoice.getId().toString();
+        String name = base + ".pdf";
+        for (int i = 2; !usedNames.add(name); i++) {
+            name = base + "-" + i + ".pdf";
+        }
+        return name;
+    }
+
+    private String manifestLine(Invoice invoice, ZoneId storeZone, String entryName, String hash) {
+        String orderNumber = invoice.getOrder() != null ? invoice.getOrder().getOrderNumber() : null;
+        String issuedAt = invoice.getIssuedAt() != null
+                ? invoice.getIssuedAt().atZone(ZoneId.systemDefault()).withZoneSameInstant(storeZone).format(FORMATTER)
+                : "";
+        BigDecimal total = invoice.getTotal() != null ? invoice.getTotal() : BigDecimal.ZERO;
+        return String.join(",",
+                escape(invoice.getInvoiceNumber()),
+                escape(orderNumber),
+                escape(issuedAt),
+                total.toPlainString(),
+                escape(invoice.getCurrency()),
+                escape(entryName),
+                hash != null ? hash : "");
+    }
+
+    private String escape(String value) {
+        if (value == null) return "";
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
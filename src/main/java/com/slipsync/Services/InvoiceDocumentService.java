@@ -0,0 +1,102 @@
+package com.slipsync.Services;
+
+import com.slipsync.Documents.InvoicePdfLayout;
+import com.slipsync.Entities.Invoice;
+import com.slipsync.Entities.OrderItem;
+import com.slipsync.Events.OrderChangedEvent;
+import com.slipsync.Repositories.InvoiceRepository;
+import com.slipsync.Repositories.OrderItemRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.ZoneId;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Renders invoice PDFs on the server, once per distinct content.
+ * - Documents are rendered in the background after an order commits, or on first request.
+ * - The bytes go into the content-addressed document store and the invoice's pdfUrl
+ *   points at the hash-named file, so later requests are served straight from disk.
+ * - Rendering is deterministic: re-rendering unchanged data yields the same hash and file.
+ */
+@Service
+public class InvoiceDocumentService {
+
+    private static final String PDF_PATH = "/pdf/";
+
+    private final InvoiceRepository invoiceRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final InvoiceDocumentStore documentStore;
+    private final TaskExecutor renderExecutor;
+
+    public InvoiceDocumentService(InvoiceRepository invoiceRepository,
+                                  OrderItemRepository orderItemRepository,
+                                  InvoiceDocumentStore documentStore,
+                                  @Qualifier("invoiceRenderExecutor") TaskExecutor renderExecutor) {
+        this.invoiceRepository = invoiceRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.documentStore = documentStore;
+        this.renderExecutor = renderExecutor;
+    }
+
+    /**
+     * Returns the content hash of the invoice's stored PDF, rendering and storing it first
+     * if pdfUrl is unset or its file is gone.
+     */
+    public String ensurePdf(Invoice invoice) {
+        String stored = hashFromUrl(invoice.getPdfUrl());
+        if (stored != null && documentStore.find(invoice.getId(), stored) != null) {
+            return stored;
+        }
+
+        List<OrderItem> items = invoice.getOrder() != null
+                ? orderItemRepository.findByOrderIdWithVariantAndProduct(invoice.getOrder().getId())
+                : List.of();
+        ZoneId storeZone = SalesReportService.zoneOf(invoice.getStore() != null ? invoice.getStore().getTimezone() : null);
+        byte[] pdf = InvoicePdfLayout.render(invoice, items, ZoneId.systemDefault(), storeZone);
+        String hash = documentStore.put(invoice.getId(), pdf);
+
+        String url = pdfUrl(invoice.getId(), hash);
+        if (!url.equals(invoice.getPdfUrl())) {
+            invoiceRepository.updatePdfUrl(invoice.getId(), url);
+            invoice.setPdfUrl(url);
+        }
+        return hash;
+    }
+
+    public static String pdfUrl(UUID invoiceId, String hash) {
+        return "/api/invoices/" + invoiceId + PDF_PATH + hash;
+    }
+
+    // Pre-render so e-bills and the first reprint do not wait for it
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (!OrderChangedEvent.PLACED.equals(event.reason())) {
+            return;
+        }
+        try {
+            renderExecutor.execute(() -> {
+                try {
+                    invoiceRepository.findByOrderId(event.orderId()).ifPresent(this::ensurePdf);
+                } catch (Exception e) {
+                    System.out.println("⚠️  [InvoiceDocuments] Pre-render failed for order " + event.orderId() + ": " + e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Busy: the document is rendered on first request instead
+        }
+    }
+
+    private String hashFromUrl(String url) {
+        if (url == null) {
+            return null;
+        }
+        int index = url.lastIndexOf(PDF_PATH);
+        return index >= 0 ? url.substring(index + PDF_PATH.length()) : null;
+    }
+}
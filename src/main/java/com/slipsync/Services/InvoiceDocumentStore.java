@@ -0,0 +1,74 @@
+package com.slipsync.Services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed local store for rendered invoice documents:
+ * {root}/{invoiceId}/{sha256 of the bytes}.pdf. A stored file never changes; a re-render
+ * with different content gets a new hash (and so a new URL) instead of overwriting.
+ */
+@Service
+public class InvoiceDocumentStore {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private final Path root;
+
+    public InvoiceDocumentStore(@Value("${invoices.documents.dir:${java.io.tmpdir}/slipsync-invoices}") String dir) {
+        this.root = Paths.get(dir).toAbsolutePath().normalize();
+    }
+
+    public static String hash(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Writes the document unless the same content is already stored; returns its hash.
+     */
+    public String put(UUID invoiceId, byte[] content) {
+        String hash = hash(content);
+        Path target = path(invoiceId, hash);
+        if (Files.exists(target)) {
+            return hash;
+        }
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), hash, ".part");
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return hash;
+    }
+
+    /** The stored file, or null when the hash is malformed or the file is missing. */
+    public Path find(UUID invoiceId, String hash) {
+        if (hash == null || !HASH.matcher(hash).matches()) {
+            return null;
+        }
+        Path path = path(invoiceId, hash);
+        return Files.exists(path) ? path : null;
+    }
+
+    private Path path(UUID invoiceId, String hash) {
+        return root.resolve(invoiceId.toString()).resolve(hash + ".pdf");
+    }
+}
@@ -0,0 +1,90 @@
+package com.slipsync.Services;
+
+import com.slipsync.DTO.DailyMarginDto;
+import com.slipsync.DTO.InventoryValuationDto;
+import com.slipsync.DTO.MarginReportDto;
+import com.slipsync.DTO.ProductMarginDto;
+import com.slipsync.DTO.SalesTotalsDto;
+import com.slipsync.Entities.StoreDailyReport;
+import com.slipsync.Repositories.InventoryRepository;
+import com.slipsync.Repositories.OrderItemRepository;
+import com.slipsync.Repositories.OrderRepository;
+import com.slipsync.Repositories.StoreDailyReportRepository;
+import com.slipsync.Services.SalesReportService.DateWindow;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Margin and inventory valuation reports. All sums are computed by aggregate queries;
+ * closed days are read back from the end-of-day rollups instead of order items.
+ */
+@Service
+public class MarginReportService {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final InventoryRepository inventoryRepository;
+    private final StoreDailyReportRepository dailyReportRepository;
+    private final ReportCacheService reportCache;
+
+    public MarginReportService(OrderRepository orderRepository,
+                               OrderItemRepository orderItemRepository,
+                               InventoryRepository inventoryRepository,
+                               StoreDailyReportRepository dailyReportRepository,
+                               ReportCacheService reportCache) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.inventoryRepository = inventoryRepository;
+        this.dailyReportRepository = dailyReportRepository;
+        this.reportCache = reportCache;
+    }
+
+    public MarginReportDto marginReport(UUID storeId, String rangeKey, DateWindow window, int limit) {
+        return reportCache.get(new ReportCacheService.Key(storeId, "margin:" + limit, rangeKey, "variant"), () -> {
+            SalesTotalsDto totals = orderRepository.summarizeSales(storeId, window.start(), window.end());
+            BigDecimal cost = orderItemRepository.sumCostOfGoods(storeId, window.start(), window.end());
+            BigDecimal revenue = totals.grossSales().subtract(totals.discountsTotal());
+            BigDecimal costOfGoods = cost != null ? cost : BigDecimal.ZERO;
+            List<ProductMarginDto> products = orderItemRepository.findMarginByVariant(
+                    storeId, window.start(), window.end(), PageRequest.of(0, limit));
+            return new MarginReportDto(window.start(), window.end(), revenue, costOfGoods,
+                    revenue.subtract(costOfGoods), percent(revenue, costOfGoods), products);
+        });
+    }
+
+    /**
+     * Per-day margin for closed business days, read from the Z-report rollups.
+     * Days without a rollup (or built before cost tracking) are omitted.
+     */
+    public List<DailyMarginDto> dailyMargin(UUID storeId, LocalDate from, LocalDate to) {
+        return dailyReportRepository.findByStoreIdAndBusinessDateBetweenOrderByBusinessDateAsc(storeId, from, to)
+                .stream()
+                .filter(report -> report.getCostOfGoods() != null)
+                .map(this::toDailyMargin)
+                .toList();
+    }
+
+    public List<InventoryValuationDto> inventoryValuation(Collection<UUID> storeIds) {
+        return inventoryRepository.valueByStore(storeIds);
+    }
+
+    private DailyMarginDto toDailyMargin(StoreDailyReport report) {
+        BigDecimal revenue = report.getGrossSales().subtract(report.getDiscountsTotal());
+        BigDecimal cost = report.getCostOfGoods();
+        return new DailyMarginDto(report.getBusinessDate(), revenue, cost, revenue.subtract(cost), percent(revenue, cost));
+    }
+
+    private BigDecimal percent(BigDecimal revenue, BigDecimal cost) {
+        if (revenue.signum() == 0) {
+            return BigDecimal.ZERO;
+        }
+        return revenue.subtract(cost).multiply(BigDecimal.valueOf(100)).divide(revenue, 2, RoundingMode.HALF_UP);
+    }
+}
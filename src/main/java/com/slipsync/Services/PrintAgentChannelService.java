@@ -0,0 +1,183 @@
+package com.slipsync.Services;
+
+import com.slipsync.Configuration.SchedulingConfig;
+import com.slipsync.Entities.PrintDevice;
+import com.slipsync.Entities.PrintJob;
+import com.slipsync.Events.PrintJobCancelledEvent;
+import com.slipsync.Events.PrintJobQueuedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Push channel to print agents: one long-lived SSE stream per connected agent.
+ * - Events: "config" on connect and when the device is re-registered, "job" for each
+ *   queued job (event id = job id) and "cancel" when a queued job is withdrawn.
+ * - Jobs are claimed (leased) before they are pushed and each goes to one stream only.
+ * - On (re)connect the device's queued jobs and its unacked leases are replayed first, so
+ *   a reconnect resumes right after the last acked job; agents drop repeats by event id.
+ * - Streams are async and open-in-view is off, so an idle agent holds no servlet thread
+ *   and no connection, only a socket and an entry in this map. Writes still block the
+ *   sending thread until the agent's socket accepts them.
+ * - A comment line is sent on every stream each heartbeat interval to keep proxies from
+ *   closing them and to find dead ones. These sends run on their own scheduler, so a
+ *   stalled agent cannot hold up the lease sweep or routing.
+ */
+@Service
+public class PrintAgentChannelService {
+
+    private final PrintJobLeaseService leaseService;
+    private final long timeoutMillis;
+    private final long heartbeatSeconds;
+    private final Map<String, Set<SseEmitter>> channels = new ConcurrentHashMap<>();
+
+    public PrintAgentChannelService(PrintJobLeaseService leaseService,
+                                    @Value("${printing.channel.timeout-minutes:30}") long timeoutMinutes,
+                                    @Value("${printing.channel.heartbeat-seconds:20}") long heartbeatSeconds) {
+        this.leaseService = leaseService;
+        this.timeoutMillis = timeoutMinutes * 60_000;
+        this.heartbeatSeconds = heartbeatSeconds;
+    }
+
+    /**
+     * Opens the device's stream. When it times out the agent simply reconnects.
+     */
+    public SseEmitter connect(PrintDevice device) {
+        String deviceSecret = device.getApiSecret();
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+
+        // Registered before the replay claim, so a job committed in between is still pushed
+        channels.compute(deviceSecret, (key, open) -> {
+            Set<SseEmitter> set = open != null ? open : ConcurrentHashMap.newKeySet();
+            set.add(emitter);
+            return set;
+        });
+        emitter.onCompletion(() -> release(deviceSecret, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> release(deviceSecret, emitter));
+
+        send(deviceSecret, emitter, SseEmitter.event().name("config").data(config(device)));
+        // The first batch also re-issues this device's unacked leases; later ones only take queued jobs
+        int batchSize = leaseService.maxClaim();
+        List<PrintJob> jobs = leaseService.reclaim(deviceSecret, batchSize);
+        while (!jobs.isEmpty()) {
+            for (PrintJob job : jobs) {
+                send(deviceSecret, emitter, jobEvent(job));
+            }
+            jobs = jobs.size() == batchSize ? leaseService.claim(deviceSecret, batchSize) : List.of();
+        }
+        return emitter;
+    }
+
+    public boolean isConnected(String deviceSecret) {
+        return deviceSecret != null && channels.containsKey(deviceSecret);
+    }
+
+    public void pushConfig(PrintDevice device) {
+        broadcast(device.getApiSecret(), () -> SseEmitter.event().name("config").data(config(device)));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPrintJobQueued(PrintJobQueuedEvent event) {
+        if (!isConnected(event.deviceSecret())) {
+            return;
+        }
+        List<PrintJob> jobs = leaseService.claim(event.deviceSecret(), leaseService.maxClaim());
+        if (!jobs.isEmpty()) {
+            deliver(event.deviceSecret(), jobs);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPrintJobCancelled(PrintJobCancelledEvent event) {
+        if (!isConnected(event.deviceSecret())) {
+            return;
+        }
+        broadcast(event.deviceSecret(),
+                () -> SseEmitter.event().name("cancel").id(event.jobId().toString()).data(Map.of("jobId", event.jobId())));
+    }
+
+    @Scheduled(scheduler = SchedulingConfig.STREAM_HEARTBEAT_SCHEDULER, fixedDelayString = "${printing.channel.heartbeat-seconds:20}", timeUnit = TimeUnit.SECONDS)
+    public void heartbeat() {
+        channels.forEach((deviceSecret, emitters) -> {
+            for (SseEmitter emitter : emitters) {
+                send(deviceSecret, emitter, SseEmitter.event().comment("hb"));
+            }
+        });
+    }
+
+    private SseEmitter.SseEventBuilder jobEvent(PrintJob job) {
+        return SseEmitter.event().name("job").id(job.getId().toString()).data(job);
+    }
+
+    private Map<String, Object> config(PrintDevice device) {
+        Map<String, Object> config = new LinkedHashMap<>();
+        config.put("deviceIdentifier", device.getDeviceIdentifier());
+        config.put("name", device.getName());
+        config.put("role", device.getRole());
+        config.put("heartbeatSeconds", heartbeatSeconds);
+        return config;
+    }
+
+    // Event builders are single-use, hence one per stream
+    // Claimed jobs go to one stream; if every stream fails the leases expire and they are requeued
+    private void deliver(String deviceSecret, List<PrintJob> jobs) {
+        Set<SseEmitter> emitters = channels.get(deviceSecret);
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : List.copyOf(emitters)) {
+            boolean delivered = true;
+            for (PrintJob job : jobs) {
+                delivered = send(deviceSecret, emitter, jobEvent(job));
+                if (!delivered) {
+                    break;
+                }
+            }
+            if (delivered) {
+                return;
+            }
+        }
+    }
+
+    private void broadcast(String deviceSecret, Supplier<SseEmitter.SseEventBuilder> event) {
+        Set<SseEmitter> emitters = deviceSecret != null ? channels.get(deviceSecret) : null;
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : List.copyOf(emitters)) {
+            send(deviceSecret, emitter, event.get());
+        }
+    }
+
+    // A failed write means the agent is gone; it resumes from the queue when it reconnects
+    private boolean send(String deviceSecret, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (Exception e) {
+            release(deviceSecret, emitter);
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void release(String deviceSecret, SseEmitter emitter) {
+        channels.computeIfPresent(deviceSecret, (key, open) -> {
+            open.remove(emitter);
+            return open.isEmpty() ? null : open;
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package com.slipsync.Services;
+
+import com.slipsync.Repositories.PrintJobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Retention for print_jobs.
+ * - Printed and cancelled jobs keep their row (for history) but lose their payload and
+ *   printer bytes after printing.jobs.payload-retention-days.
+ * - With printing.jobs.delete-after-days above 0 their rows are deleted after that.
+ * - Dead jobs are left alone so they can still be replayed.
+ * Both passes work in small batches, each its own transaction, so neither holds locks on
+ * many rows nor competes with delivery for long.
+ */
+@Service
+public class PrintJobArchiveService {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final PrintJobRepository jobRepository;
+    private final long payloadRetentionDays;
+    private final long deleteAfterDays;
+
+    public PrintJobArchiveService(PrintJobRepository jobRepository,
+                                  @Value("${printing.jobs.payload-retention-days:30}") long payloadRetentionDays,
+                                  @Value("${printing.jobs.delete-after-days:0}") long deleteAfterDays) {
+        this.jobRepository = jobRepository;
+        this.payloadRetentionDays = payloadRetentionDays;
+        this.deleteAfterDays = deleteAfterDays;
+    }
+
+    @Scheduled(fixedDelayString = "${printing.jobs.archive-ms:3600000}",
+            initialDelayString = "${printing.jobs.archive-ms:3600000}")
+    public void archive() {
+        LocalDateTime now = LocalDateTime.now();
+
+        int compacted = 0;
+        int batch;
+        do {
+            batch = jobRepository.compactPayloads(now.minusDays(payloadRetentionDays), BATCH_SIZE);
+            compacted += batch;
+        } while (batch == BATCH_SIZE);
+
+        int deleted = 0;
+        if (deleteAfterDays > 0) {
+            do {
+                batch = jobRepository.deleteFinished(now.minusDays(deleteAfterDays), BATCH_SIZE);
+                deleted += batch;
+            } while (batch == BATCH_SIZE);
+        }
+
+        if (compacted > 0 || deleted > 0) {
+            System.out.println("🧹 [PrintJobs] Compacted " + compacted + " and deleted " + deleted + " finished job(s)");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.slipsync.Services;
+
+import com.slipsync.Entities.PrintJob;
+import com.slipsync.Repositories.PrintJobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Claim-and-lease delivery of print jobs.
+ * - Every delivery path (poll, long-poll, push) hands out jobs through claim(), which moves
+ *   them to 'processing' in one statement, so no two deliveries carry the same job.
+ * - A claimed job must be acked before its lease expires; otherwise PrintJobRetryService
+ *   counts the attempt and queues it again after a backoff.
+ */
+@Service
+public class PrintJobLeaseService {
+
+    private final PrintJobRepository jobRepository;
+    private final long leaseSeconds;
+    private final int maxClaim;
+
+    public PrintJobLeaseService(PrintJobRepository jobRepository,
+                                @Value("${printing.jobs.lease-seconds:60}") long leaseSeconds,
+                                @Value("${printing.jobs.max-claim:20}") int maxClaim) {
+        this.jobRepository = jobRepository;
+        this.leaseSeconds = leaseSeconds;
+        this.maxClaim = maxClaim;
+    }
+
+    public int maxClaim() {
+        return maxClaim;
+    }
+
+    /** Claims up to limit (capped at printing.jobs.max-claim) queued jobs for the device. */
+    public List<PrintJob> claim(String deviceSecret, int limit) {
+        return claim(deviceSecret, limit, false);
+    }
+
+    /**
+     * Like claim, but also re-issues the device's own unexpired leases. Only for a fresh
+     * connection that replaces the device's previous one.
+     */
+    public List<PrintJob> reclaim(String deviceSecret, int limit) {
+        return claim(deviceSecret, limit, true);
+    }
+
+    /**
+     * Returns jobs from a claim that no delivery carried to the queue, without counting an
+     * attempt. Jobs acked or re-leased in the meantime are left alone.
+     */
+    public void unclaim(String deviceSecret, List<PrintJob> jobs) {
+        if (jobs.isEmpty()) {
+            return;
+        }
+        List<UUID> ids = jobs.stream().map(PrintJob::getId).toList();
+        // Every job of one claim carries the same lease, as read back from the database
+        jobRepository.unclaimJobs(deviceSecret, ids, jobs.get(0).getLeaseExpiresAt());
+    }
+
+    private List<PrintJob> claim(String deviceSecret, int limit, boolean includeLeased) {
+        if (deviceSecret == null || limit < 1) {
+            return List.of();
+        }
+        LocalDateTime leaseUntil = LocalDateTime.now().plusSeconds(leaseSeconds);
+        return jobRepository.claimJobs(deviceSecret, leaseUntil, Math.min(limit, maxClaim), includeLeased);
+    }
+}
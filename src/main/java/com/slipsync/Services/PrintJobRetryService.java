@@ -0,0 +1,160 @@
+package com.slipsync.Services;
+
+import com.slipsync.Configuration.SchedulingConfig;
+import com.slipsync.Entities.PrintJob;
+import com.slipsync.Events.PrintJobQueuedEvent;
+import com.slipsync.Repositories.PrintJobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retry policy for print jobs.
+ * - A failure reported by the agent, or a lease that runs out without an ack, counts an
+ *   attempt: the job waits in 'retrying' for an exponential, jittered backoff, then goes
+ *   back to 'queued'. After printing.jobs.max-attempts failures it is dead-lettered ('dead').
+ * - The sweeper only touches due rows, found through partial indexes on lease_expires_at
+ *   and next_attempt_at, so its cost does not grow with the job history.
+ * - Store queue jobs fail over: see PrintJobRouter.
+ * - Dead jobs stay until someone replays them, which starts the attempt count over.
+ */
+@Service
+public class PrintJobRetryService {
+
+    public static final String DEAD = "dead";
+
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    private final PrintJobRepository jobRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PrintJobRouter router;
+    private final int maxAttempts;
+    private final double baseBackoffSeconds;
+    private final double maxBackoffSeconds;
+
+    public PrintJobRetryService(PrintJobRepository jobRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                PrintJobRouter router,
+                                @Value("${printing.jobs.max-attempts:5}") int maxAttempts,
+                                @Value("${printing.jobs.retry-base-seconds:15}") double baseBackoffSeconds,
+                                @Value("${printing.jobs.retry-max-seconds:900}") double maxBackoffSeconds) {
+        this.jobRepository = jobRepository;
+        this.eventPublisher = eventPublisher;
+        this.router = router;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoffSeconds = baseBackoffSeconds;
+        this.maxBackoffSeconds = maxBackoffSeconds;
+    }
+
+    /**
+     * Records a failed attempt reported by the agent holding the job. A job that is no longer
+     * leased (already acked, or requeued after its lease ran out) is returned unchanged; one
+     * addressed to another device is not returned at all.
+     */
+    public Optional<PrintJob> fail(String merchantId, String deviceSecret, UUID jobId, String error) {
+        List<PrintJob> failed = jobRepository.failJob(merchantId, deviceSecret, jobId, error, LocalDateTime.now(),
+                maxAttempts, baseBackoffSeconds, maxBackoffSeconds);
+        if (!failed.isEmpty()) {
+            logIfDead(failed);
+            return Optional.of(failed.get(0));
+        }
+        return jobRepository.findByIdAndMerchantIdAndPrintDeviceId(jobId, merchantId, deviceSecret);
+    }
+
+    /**
+     * fail() for a batch of jobs reported by one device, in one statement. Jobs not leased
+     * to that device are left unchanged.
+     * @param errors error message by job id
+     */
+    public List<PrintJob> failAll(String merchantId, String deviceSecret, Map<UUID, String> errors) {
+        if (errors.isEmpty()) {
+            return List.of();
+        }
+        String[] jobIds = new String[errors.size()];
+        String[] messages = new String[errors.size()];
+        int i = 0;
+        for (Map.Entry<UUID, String> entry : errors.entrySet()) {
+            jobIds[i] = entry.getKey().toString();
+            messages[i] = entry.getValue();
+            i++;
+        }
+        List<PrintJob> failed = jobRepository.failJobs(merchantId, deviceSecret, jobIds, messages, LocalDateTime.now(),
+                maxAttempts, baseBackoffSeconds, maxBackoffSeconds);
+        logIfDead(failed);
+        return failed;
+    }
+
+    public List<PrintJob> deadJobs(String merchantId, int limit) {
+        return jobRepository.findByMerchantIdAndStatusOrderByCompletedAtDesc(merchantId, DEAD,
+                PageRequest.of(0, Math.max(1, Math.min(limit, 200))));
+    }
+
+    /**
+     * Puts a dead job back in the queue with a fresh attempt count. Store queue jobs are
+     * routed afresh, or wait unassigned when no device of their role is live.
+     */
+    public PrintJob replay(PrintJob job) {
+        if (job.getTargetRole() != null && job.getStore() != null) {
+            job.setPrintDeviceId(router.pickDevice(job.getMerchant().getId(), job.getStore().getId(),
+                    job.getTargetRole(), null).orElse(null));
+        }
+        job.setStatus("queued");
+        job.setAttempts(0);
+        job.setError(null);
+        job.setNextAttemptAt(null);
+        job.setCompletedAt(null);
+        PrintJob saved = jobRepository.save(job);
+        eventPublisher.publishEvent(new PrintJobQueuedEvent(saved.getId(), saved.getPrintDeviceId()));
+        return saved;
+    }
+
+    @Scheduled(scheduler = SchedulingConfig.PRINT_SCHEDULER, fixedDelayString = "${printing.jobs.sweep-seconds:5}", timeUnit = TimeUnit.SECONDS)
+    public void sweep() {
+        List<PrintJob> expired;
+        do {
+            expired = jobRepository.failExpiredLeases(LocalDateTime.now(), SWEEP_BATCH_SIZE,
+                    maxAttempts, baseBackoffSeconds, maxBackoffSeconds);
+            int failedOver = 0;
+            for (PrintJob job : expired) {
+                // Store queue jobs move to another live device right away instead of backing off
+                if ("retrying".equals(job.getStatus()) && router.reroute(job, "retrying", job.getPrintDeviceId())) {
+                    failedOver++;
+                }
+            }
+            if (!expired.isEmpty()) {
+                System.out.println("⚠️  [PrintJobs] " + expired.size() + " lease(s) expired without an ack, "
+                        + failedOver + " failed over to another device");
+                logIfDead(expired);
+            }
+        } while (expired.size() == SWEEP_BATCH_SIZE);
+
+        List<PrintJob> due;
+        do {
+            due = jobRepository.releaseDueRetries(LocalDateTime.now(), SWEEP_BATCH_SIZE);
+            for (PrintJob job : due) {
+                // Store queue jobs go to whichever device of their role is least loaded now
+                if (!router.reroute(job, "queued", null)) {
+                    eventPublisher.publishEvent(new PrintJobQueuedEvent(job.getId(), job.getPrintDeviceId()));
+                }
+            }
+        } while (due.size() == SWEEP_BATCH_SIZE);
+    }
+
+    private void logIfDead(List<PrintJob> jobs) {
+        for (PrintJob job : jobs) {
+            if (DEAD.equals(job.getStatus())) {
+                System.out.println("⚠️  [PrintJobs] Job " + job.getId() + " dead-lettered after "
+                        + job.getAttempts() + " attempt(s): " + job.getError());
+            }
+        }
+    }
+}
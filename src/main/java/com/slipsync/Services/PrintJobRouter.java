@@ -0,0 +1,146 @@
+package com.slipsync.Services;
+
+import com.slipsync.Configuration.SchedulingConfig;
+import com.slipsync.Entities.PrintJob;
+import com.slipsync.Events.PrintJobQueuedEvent;
+import com.slipsync.Repositories.PrintJobRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Routes store queue jobs, which name a printer role instead of a device.
+ * - A job goes to the live device (per DeviceHeartbeatRegistry) of that role in its store
+ *   with the fewest open jobs; ties go to the device heard from most recently.
+ * - Jobs queued while no such device is live wait unassigned; a periodic pass routes them
+ *   once a device of their role in their store is heard from.
+ * - When a lease expires, the retry policy asks for another device before falling back to
+ *   a backoff on the same one; retries that come due are routed again too.
+ */
+@Service
+public class PrintJobRouter {
+
+    public static final Set<String> ROLES = Set.of("receipt", "kitchen", "label");
+
+    private static final int DISPATCH_BATCH_SIZE = 100;
+
+    private final DeviceHeartbeatRegistry heartbeatRegistry;
+    private final PrintJobRepository jobRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PrintJobRouter(DeviceHeartbeatRegistry heartbeatRegistry,
+                          PrintJobRepository jobRepository,
+                          ApplicationEventPublisher eventPublisher) {
+        this.heartbeatRegistry = heartbeatRegistry;
+        this.jobRepository = jobRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /** The secret of the least-loaded live device for the role in the store, other than excludeSecret. */
+    public Optional<String> pickDevice(String merchantId, UUID storeId, String role, String excludeSecret) {
+        return new Candidates(merchantId, storeId, role).pick(excludeSecret);
+    }
+
+    /**
+     * Moves a store queue job that is still in fromStatus to the least-loaded live device other
+     * than excludeSecret, and wakes that device. False when there is no such device.
+     */
+    public boolean reroute(PrintJob job, String fromStatus, String excludeSecret) {
+        if (job.getTargetRole() == null || job.getStore() == null || job.getMerchant() == null) {
+            return false;
+        }
+        Optional<String> device = pickDevice(job.getMerchant().getId(), job.getStore().getId(),
+                job.getTargetRole(), excludeSecret);
+        return device.isPresent() && assign(job, device.get(), fromStatus);
+    }
+
+    @Scheduled(scheduler = SchedulingConfig.PRINT_SCHEDULER, fixedDelayString = "${printing.jobs.route-seconds:5}", timeUnit = TimeUnit.SECONDS)
+    public void dispatchUnassigned() {
+        // Only jobs whose store has a live device of their role can be routed, so each role
+        // is queried for just those stores
+        Map<String, Set<UUID>> liveStores = heartbeatRegistry.liveStoresByRole();
+        if (liveStores.isEmpty()) {
+            return;
+        }
+        // One set of candidates (and load counts) per store and role for the whole run
+        Map<String, Candidates> candidates = new HashMap<>();
+        int assigned = 0;
+        for (Map.Entry<String, Set<UUID>> entry : liveStores.entrySet()) {
+            String role = entry.getKey();
+            LocalDateTime afterCreatedAt = null;
+            UUID afterId = null;
+            List<PrintJob> waiting;
+            do {
+                waiting = jobRepository.findUnassigned(entry.getValue(), role, afterCreatedAt, afterId,
+                        PageRequest.of(0, DISPATCH_BATCH_SIZE));
+                for (PrintJob job : waiting) {
+                    Candidates forJob = candidates.computeIfAbsent(job.getStore().getId() + "/" + role,
+                            key -> new Candidates(job.getMerchant().getId(), job.getStore().getId(), role));
+                    Optional<String> device = forJob.pick(null);
+                    if (device.isPresent() && assign(job, device.get(), "queued")) {
+                        assigned++;
+                    }
+                }
+                if (!waiting.isEmpty()) {
+                    PrintJob last = waiting.get(waiting.size() - 1);
+                    afterCreatedAt = last.getCreatedAt();
+                    afterId = last.getId();
+                }
+            } while (waiting.size() == DISPATCH_BATCH_SIZE);
+        }
+
+        if (assigned > 0) {
+            System.out.println("🖨️  [PrintJobs] Routed " + assigned + " waiting store queue job(s)");
+        }
+    }
+
+    private boolean assign(PrintJob job, String deviceSecret, String fromStatus) {
+        if (jobRepository.assign(job.getId(), deviceSecret, fromStatus) == 0) {
+            return false;
+        }
+        job.setPrintDeviceId(deviceSecret);
+        job.setStatus("queued");
+        job.setNextAttemptAt(null);
+        eventPublisher.publishEvent(new PrintJobQueuedEvent(job.getId(), deviceSecret));
+        return true;
+    }
+
+    // Live devices for one store and role with their open job counts; picks count themselves
+    private class Candidates {
+        private final List<DeviceHeartbeatRegistry.Beat> devices;
+        private final Map<String, Long> load = new HashMap<>();
+
+        Candidates(String merchantId, UUID storeId, String role) {
+            devices = heartbeatRegistry.liveDevices(merchantId, storeId, role);
+            if (!devices.isEmpty()) {
+                List<String> secrets = devices.stream().map(DeviceHeartbeatRegistry.Beat::apiSecret).toList();
+                for (Object[] row : jobRepository.countOpenJobs(secrets)) {
+                    load.put((String) row[0], ((Number) row[1]).longValue());
+                }
+            }
+        }
+
+        Optional<String> pick(String excludeSecret) {
+            Optional<String> picked = devices.stream()
+                    .filter(device -> !Objects.equals(device.apiSecret(), excludeSecret))
+                    .min(Comparator.<DeviceHeartbeatRegistry.Beat>comparingLong(
+                                    device -> load.getOrDefault(device.apiSecret(), 0L))
+                            .thenComparing(DeviceHeartbeatRegistry.Beat::lastSeen, Comparator.reverseOrder()))
+                    .map(DeviceHeartbeatRegistry.Beat::apiSecret);
+            picked.ifPresent(secret -> load.merge(secret, 1L, Long::sum));
+            return picked;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.slipsync.Services;
+
+import com.slipsync.Entities.PrintJob;
+import com.slipsync.Events.PrintJobQueuedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Long-poll delivery of print jobs to agents.
+ * - A poll that finds nothing is parked as a DeferredResult, so it holds no servlet thread
+ *   while it waits. The claim's connection goes back to the pool before the poll parks;
+ *   this relies on spring.jpa.open-in-view being off and on callers not being transactional.
+ * - Parked polls for a device are answered as soon as a job for it commits, or with an
+ *   empty list when the wait runs out. Jobs are claimed (leased) for exactly one poll.
+ * - Waiters live in this instance's memory; with several instances a poll parked elsewhere
+ *   simply picks the job up on its next round.
+ */
+@Service
+public class PrintJobWaitService {
+
+    private final PrintJobLeaseService leaseService;
+    private final long maxWaitSeconds;
+    private final Map<String, Set<DeferredResult<List<PrintJob>>>> waiters = new ConcurrentHashMap<>();
+
+    public PrintJobWaitService(PrintJobLeaseService leaseService,
+                               @Value("${printing.long-poll.max-wait-seconds:30}") long maxWaitSeconds) {
+        this.leaseService = leaseService;
+        this.maxWaitSeconds = maxWaitSeconds;
+    }
+
+    /**
+     * Claims up to limit queued jobs for the device, answering immediately when there are
+     * any, otherwise after the next job is queued or waitSeconds (capped by the configured
+     * maximum) pass.
+     */
+    public DeferredResult<List<PrintJob>> awaitJobs(String deviceSecret, long waitSeconds, int limit) {
+        long seconds = Math.min(Math.max(waitSeconds, 1), maxWaitSeconds);
+        DeferredResult<List<PrintJob>> result = new DeferredResult<>(seconds * 1000, List.of());
+
+        // Registered before the claim, so a job committed in between still wakes this poll
+        waiters.compute(deviceSecret, (key, parked) -> {
+            Set<DeferredResult<List<PrintJob>>> set = parked != null ? parked : ConcurrentHashMap.newKeySet();
+            set.add(result);
+            return set;
+        });
+        result.onCompletion(() -> release(deviceSecret, result));
+
+        List<PrintJob> jobs = leaseService.claim(deviceSecret, limit);
+        if (!jobs.isEmpty()) {
+            if (!result.setResult(jobs)) {
+                // Already answered by a wake-up that raced this claim
+                leaseService.unclaim(deviceSecret, jobs);
+            }
+            release(deviceSecret, result);
+        }
+        return result;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPrintJobQueued(PrintJobQueuedEvent event) {
+        if (event.deviceSecret() == null) {
+            return;
+        }
+        Set<DeferredResult<List<PrintJob>>> parked = waiters.remove(event.deviceSecret());
+        if (parked == null) {
+            return;
+        }
+        List<DeferredResult<List<PrintJob>>> open = parked.stream()
+                .filter(result -> !result.isSetOrExpired())
+                .toList();
+        if (open.isEmpty()) {
+            // Every poll already timed out; the device picks the job up on its next poll
+            return;
+        }
+        // One claim serves the device: the first poll still open takes the jobs, the others
+        // come back empty and re-poll. If all of them expired in the meantime the claim is
+        // handed back rather than left to run out its lease and cost the job an attempt.
+        List<PrintJob> jobs = leaseService.claim(event.deviceSecret(), leaseService.maxClaim());
+        boolean delivered = jobs.isEmpty();
+        for (DeferredResult<List<PrintJob>> result : open) {
+            if (result.setResult(delivered ? List.of() : jobs)) {
+                delivered = true;
+            }
+        }
+        if (!delivered) {
+            leaseService.unclaim(event.deviceSecret(), jobs);
+        }
+    }
+
+    private void release(String deviceSecret, DeferredResult<List<PrintJob>> result) {
+        waiters.computeIfPresent(deviceSecret, (key, parked) -> {
+            parked.remove(result);
+            return parked.isEmpty() ? null : parked;
+        });
+    }
+}
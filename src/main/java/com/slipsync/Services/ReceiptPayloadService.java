@@ -0,0 +1,86 @@
+package com.slipsync.Services;
+
+import com.slipsync.DTO.ReceiptPayloadDto;
+import com.slipsync.DTO.ReceiptRowDto;
+import com.slipsync.Repositories.OrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Builds the receipt payload stored on print jobs from a single projection query, instead
+ * of serializing the Order entity graph (which carried merchant/store internals but no
+ * line items).
+ */
+@Service
+public class ReceiptPayloadService {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final OrderRepository orderRepository;
+    private final String footer;
+
+    public ReceiptPayloadService(OrderRepository orderRepository,
+                                 @Value("${printing.receipt.footer:Thank you for your purchase!}") String footer) {
+        this.orderRepository = orderRepository;
+        this.footer = footer;
+    }
+
+    /** Empty when the order does not exist or belongs to another merchant. */
+    public Optional<ReceiptPayloadDto> build(UUID orderId, String merchantId) {
+        List<ReceiptRowDto> rows = orderRepository.findReceiptRows(orderId, merchantId);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+
+        ReceiptRowDto first = rows.get(0);
+        ZoneId storeZone = SalesReportService.zoneOf(first.storeTimezone());
+        String placedAt = first.placedAt() != null
+                ? first.placedAt().atZone(ZoneId.systemDefault()).withZoneSameInstant(storeZone).format(FORMATTER)
+                : null;
+        ReceiptPayloadDto.Header header = new ReceiptPayloadDto.Header(
+                first.merchantName(),
+                first.storeName(),
+                first.storeAddress(),
+                first.storePhone(),
+                first.orderNumber(),
+                first.invoiceNumber(),
+                placedAt,
+                first.customerName());
+
+        List<ReceiptPayloadDto.Line> lines = new ArrayList<>(rows.size());
+        for (ReceiptRowDto row : rows) {
+            if (row.quantity() == null) {
+                continue; // order without items
+            }
+            lines.add(new ReceiptPayloadDto.Line(
+                    row.productName() != null ? row.productName() : "Item",
+                    row.sku(),
+                    row.quantity(),
+                    orZero(row.unitPrice()),
+                    orZero(row.lineDiscount()),
+                    orZero(row.lineTax()),
+                    orZero(row.lineTotal())));
+        }
+
+        ReceiptPayloadDto.Totals totals = new ReceiptPayloadDto.Totals(
+                orZero(first.subtotal()),
+                orZero(first.discountsTotal()),
+                orZero(first.taxesTotal()),
+                orZero(first.totalAmount()),
+                first.currency());
+
+        return Optional.of(new ReceiptPayloadDto(ReceiptPayloadDto.VERSION, header, lines, totals, footer));
+    }
+
+    private BigDecimal orZero(BigDecimal value) {
+        return value != null ? value : BigDecimal.ZERO;
+    }
+}
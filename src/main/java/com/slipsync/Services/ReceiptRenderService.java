@@ -0,0 +1,135 @@
+package com.slipsync.Services;
+
+import com.slipsync.DTO.ReceiptPayloadDto;
+import com.slipsync.Documents.EscPosRaster;
+import com.slipsync.Documents.ReceiptTemplate;
+import com.slipsync.Entities.Store;
+import com.slipsync.Entities.StoreReceiptTemplate;
+import com.slipsync.Repositories.StoreReceiptTemplateRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders receipts to ESC/POS bytes with the store's template.
+ * - Each store's template is compiled, and its logo rasterized, once; the result is cached
+ *   until the template is saved again or the TTL passes (which also covers edits made
+ *   through another instance).
+ * - Stores without a template of their own use receipts/default-template.txt.
+ */
+@Service
+public class ReceiptRenderService {
+
+    public static final String DEFAULT_TEMPLATE_RESOURCE = "receipts/default-template.txt";
+
+    private final StoreReceiptTemplateRepository templateRepository;
+    private final String defaultSource;
+    private final CompiledTemplate defaultTemplate;
+    private final Duration ttl;
+    private final Map<UUID, CompiledTemplate> templates = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public ReceiptRenderService(StoreReceiptTemplateRepository templateRepository,
+                                @Value("${printing.receipt.template-ttl-seconds:600}") long ttlSeconds) {
+        this.templateRepository = templateRepository;
+        this.defaultSource = loadDefaultSource();
+        this.defaultTemplate = new CompiledTemplate(ReceiptTemplate.compile(defaultSource), null, Instant.MAX);
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    public static String loadDefaultSource() {
+        try {
+            return new ClassPathResource(DEFAULT_TEMPLATE_RESOURCE).getContentAsString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param storeId null renders with the default template
+     */
+    public byte[] render(UUID storeId, ReceiptPayloadDto receipt) {
+        CompiledTemplate compiled = storeId != null ? get(storeId) : defaultTemplate;
+        return compiled.template().render(receipt, compiled.logoRaster());
+    }
+
+    /** The store's template source, or the default one. */
+    public String templateSource(UUID storeId) {
+        return templateRepository.findByStoreId(storeId)
+                .map(StoreReceiptTemplate::getBody)
+                .orElse(defaultSource);
+    }
+
+    /**
+     * Validates and saves the store's template. logo null keeps the current logo, an empty
+     * array removes it.
+     * @throws IllegalArgumentException when the template does not compile or the logo is not an image
+     */
+    public StoreReceiptTemplate save(Store store, String body, byte[] logo) {
+        ReceiptTemplate template = ReceiptTemplate.compile(body);
+        StoreReceiptTemplate entity = templateRepository.findByStoreId(store.getId()).orElseGet(() -> {
+            StoreReceiptTemplate created = new StoreReceiptTemplate();
+            created.setStore(store);
+            return created;
+        });
+        if (logo != null) {
+            entity.setLogo(logo.length > 0 ? logo : null);
+        }
+        if (entity.getLogo() != null) {
+            EscPosRaster.rasterize(entity.getLogo(), template.widthDots());
+        }
+        entity.setBody(body);
+        StoreReceiptTemplate saved = templateRepository.save(entity);
+        invalidations.incrementAndGet();
+        templates.remove(store.getId());
+        return saved;
+    }
+
+    private CompiledTemplate get(UUID storeId) {
+        Instant now = Instant.now();
+        CompiledTemplate cached = templates.get(storeId);
+        if (cached != null && cached.loadedAt().plus(ttl).isAfter(now)) {
+            return cached;
+        }
+        // The query and logo rasterizing run outside the map so no other store waits on them;
+        // a template read before a save that lands meanwhile is used once but not cached
+        long seen = invalidations.get();
+        CompiledTemplate loaded = load(storeId, now);
+        if (invalidations.get() != seen) {
+            return loaded;
+        }
+        return templates.merge(storeId, loaded, (existing, candidate) ->
+                existing.loadedAt().isAfter(candidate.loadedAt()) ? existing : candidate);
+    }
+
+    private CompiledTemplate load(UUID storeId, Instant now) {
+        StoreReceiptTemplate stored = templateRepository.findByStoreId(storeId).orElse(null);
+        if (stored == null) {
+            return new CompiledTemplate(defaultTemplate.template(), null, now);
+        }
+        try {
+            ReceiptTemplate template = ReceiptTemplate.compile(stored.getBody());
+            byte[] logo = stored.getLogo() != null && template.usesLogo()
+                    ? EscPosRaster.rasterize(stored.getLogo(), template.widthDots())
+                    : null;
+            return new CompiledTemplate(template, logo, now);
+        } catch (RuntimeException e) {
+            // Saved templates are validated, so this means a bad row edited outside the app
+            System.out.println("⚠️  [Receipts] Template for store " + storeId + " unusable, using default: " + e.getMessage());
+            return new CompiledTemplate(defaultTemplate.template(), null, now);
+        }
+    }
+
+    private record CompiledTemplate(ReceiptTemplate template, byte[] logoRaster, Instant loadedAt) {
+    }
+}
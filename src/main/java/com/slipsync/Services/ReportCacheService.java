@@ -0,0 +1,149 @@
+package com.slipsync.Services;
+
+import com.slipsync.DTO.ReportCacheStatsDto;
+import com.slipsync.Events.OrderChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * In-memory cache for computed report results, keyed by store, report, range and bucket.
+ * - Concurrent requests for the same key share one computation (the first caller runs
+ *   it, the others wait on the same future).
+ * - Entries for a store are dropped after an order for that store commits, and expire
+ *   after a short TTL so "up to now" windows do not drift.
+ */
+@Service
+public class ReportCacheService {
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private final Duration ttl;
+    private final int maxEntries;
+
+    public ReportCacheService(@Value("${reports.cache.ttl-seconds:60}") long ttlSeconds,
+                              @Value("${reports.cache.max-entries:1000}") int maxEntries) {
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Returns the cached value for the key, computing it with the loader on a miss.
+     * A failed computation is not cached; its exception is rethrown to every waiter.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Key key, Supplier<T> loader) {
+        Instant now = Instant.now();
+        Entry fresh = new Entry(now);
+        Entry entry = entries.compute(key, (k, existing) ->
+                existing != null && !existing.isExpired(now, ttl) ? existing : fresh);
+
+        if (entry != fresh) {
+            hits.increment();
+            entry.hits.increment();
+            return (T) join(entry.value);
+        }
+
+        misses.increment();
+        evictIfFull(now);
+        try {
+            T value = loader.get();
+            entry.value.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            entries.remove(key, entry);
+            entry.value.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    public void invalidateStore(UUID storeId) {
+        entries.keySet().removeIf(key -> key.storeId().equals(storeId));
+    }
+
+    public void invalidateReport(String report) {
+        entries.keySet().removeIf(key -> key.report().equals(report));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.storeId() != null) {
+            invalidateStore(event.storeId());
+        }
+    }
+
+    /**
+     * Hit ratio and per-key age for the given stores.
+     */
+    public ReportCacheStatsDto stats(Collection<UUID> storeIds) {
+        Instant now = Instant.now();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        List<ReportCacheStatsDto.Entry> view = entries.entrySet().stream()
+                .filter(e -> storeIds.contains(e.getKey().storeId()))
+                .map(e -> new ReportCacheStatsDto.Entry(
+                        e.getKey().storeId(),
+                        e.getKey().report(),
+                        e.getKey().range(),
+                        e.getKey().bucket(),
+                        Duration.between(e.getValue().createdAt, now).toSeconds(),
+                        e.getValue().hits.sum()))
+                .sorted(Comparator.comparingLong(ReportCacheStatsDto.Entry::ageSeconds))
+                .toList();
+        return new ReportCacheStatsDto(hitCount, missCount, total == 0 ? 0.0 : (double) hitCount / total, view);
+    }
+
+    private void evictIfFull(Instant now) {
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.isExpired(now, ttl));
+        while (entries.size() > maxEntries) {
+            entries.entrySet().stream()
+                    .min(Comparator.comparing(e -> e.getValue().createdAt))
+                    .ifPresent(oldest -> entries.remove(oldest.getKey(), oldest.getValue()));
+        }
+    }
+
+    private static Object join(CompletableFuture<Object> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    public record Key(UUID storeId, String report, String range, String bucket) {
+    }
+
+    private static final class Entry {
+        private final Instant createdAt;
+        private final CompletableFuture<Object> value = new CompletableFuture<>();
+        private final LongAdder hits = new LongAdder();
+
+        private Entry(Instant createdAt) {
+            this.createdAt = createdAt;
+        }
+
+        private boolean isExpired(Instant now, Duration ttl) {
+            return createdAt.plus(ttl).isBefore(now);
+        }
+    }
+}
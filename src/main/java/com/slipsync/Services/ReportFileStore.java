@@ -0,0 +1,75 @@
+package com.slipsync.Services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.UUID;
+
+/**
+ * Local directory holding finished report job results, one file per job.
+ * Files are written under a temporary name and moved into place when complete,
+ * so a download never sees a partial result.
+ */
+@Service
+public class ReportFileStore {
+
+    private final Path root;
+
+    public ReportFileStore(@Value("${reports.jobs.dir:${java.io.tmpdir}/slipsync-reports}") String dir) {
+        this.root = Paths.get(dir).toAbsolutePath().normalize();
+    }
+
+    public Path newTempFile(UUID jobId) {
+        try {
+            Files.createDirectories(root);
+            return Files.createTempFile(root, jobId.toString(), ".part");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Path publish(Path tempFile, UUID jobId, String extension) {
+        try {
+            Path target = root.resolve(jobId + extension);
+            return Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Resolves a stored path, refusing anything outside the store's directory.
+     */
+    public Path resolve(String storedPath) {
+        Path path = Paths.get(storedPath).toAbsolutePath().normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Path outside report file store");
+        }
+        return path;
+    }
+
+    public void delete(String storedPath) {
+        if (storedPath == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(resolve(storedPath));
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("⚠️  [ReportFileStore] Could not delete " + storedPath + ": " + e.getMessage());
+        }
+    }
+
+    public void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+}
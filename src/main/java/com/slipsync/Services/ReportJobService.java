@@ -0,0 +1,444 @@
+package com.slipsync.Services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.slipsync.DTO.ReportJobDto;
+import com.slipsync.DTO.ReportJobRequestDto;
+import com.slipsync.Entities.ReportJob;
+import com.slipsync.Entities.Store;
+import com.slipsync.Entities.User;
+import com.slipsync.Repositories.ReportJobRepository;
+import com.slipsync.Repositories.StoreRepository;
+import com.slipsync.Services.SalesReportService.DateWindow;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Background report jobs: submitted jobs are queued per merchant and dispatched
+ * round-robin across merchants, with a global cap (the job worker pool size) and a
+ * per-merchant cap on running jobs, so one merchant's exports cannot hold every slot.
+ * - Job workers do not query the database themselves: single-store work runs on the
+ *   bounded report executor and multi-store reports fan out on it, so background jobs
+ *   share the same connection budget as interactive reports.
+ * - Results are written to the local report file store; finished jobs and their files
+ *   are removed after the retention period.
+ */
+@Service
+public class ReportJobService {
+
+    public static final String TYPE_SALES_EXPORT = "sales-export";
+    public static final String TYPE_SALES_RANGE = "sales-range";
+    public static final String TYPE_EMPLOYEE_SALES = "employee-sales";
+    public static final Set<String> TYPES = Set.of(TYPE_SALES_EXPORT, TYPE_SALES_RANGE, TYPE_EMPLOYEE_SALES);
+
+    private static final String QUEUED = "queued";
+    private static final String RUNNING = "running";
+    private static final String COMPLETED = "completed";
+    private static final String FAILED = "failed";
+    private static final int BUFFER_SIZE = 8192;
+    private static final int CLEANUP_BATCH = 100;
+    private static final long SUBSCRIBE_TIMEOUT_MS = Duration.ofMinutes(10).toMillis();
+
+    // Dispatch state, guarded by this
+    private final Map<String, Deque<UUID>> queuedByMerchant = new HashMap<>();
+    private final Deque<String> merchantRotation = new ArrayDeque<>();
+    private final Map<String, Integer> runningByMerchant = new HashMap<>();
+    // Submissions that passed the queue check but are not enqueued yet (job row being saved)
+    private final Map<String, Integer> reservedByMerchant = new HashMap<>();
+    private int runningTotal;
+    private int queuedTotal;
+
+    private final Map<UUID, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    private final LocalDateTime bootTime = LocalDateTime.now();
+    private volatile boolean orphansFailed;
+
+    private final ReportJobRepository jobRepository;
+    private final StoreRepository storeRepository;
+    private final ReportFileStore fileStore;
+    private final SalesReportService salesReportService;
+    private final SalesExportService salesExportService;
+    private final EmployeeSalesReportService employeeSalesReportService;
+    private final ObjectMapper objectMapper;
+    private final TaskExecutor reportExecutor;
+    private final TaskExecutor jobExecutor;
+    private final int maxRunning;
+    private final int maxRunningPerMerchant;
+    private final int maxQueuedPerMerchant;
+    private final Duration retention;
+
+    public ReportJobService(ReportJobRepository jobRepository,
+                            StoreRepository storeRepository,
+                            ReportFileStore fileStore,
+                            SalesReportService salesReportService,
+                            SalesExportService salesExportService,
+                            EmployeeSalesReportService employeeSalesReportService,
+                            ObjectMapper objectMapper,
+                            @Qualifier("reportExecutor") TaskExecutor reportExecutor,
+                            @Qualifier("reportJobExecutor") TaskExecutor jobExecutor,
+                            @Value("${reports.jobs.workers:2}") int maxRunning,
+                            @Value("${reports.jobs.max-running-per-merchant:1}") int maxRunningPerMerchant,
+                            @Value("${reports.jobs.max-queued-per-merchant:20}") int maxQueuedPerMerchant,
+                            @Value("${reports.jobs.retention-hours:24}") long retentionHours) {
+        this.jobRepository = jobRepository;
+        this.storeRepository = storeRepository;
+        this.fileStore = fileStore;
+        this.salesReportService = salesReportService;
+        this.salesExportService = salesExportService;
+        this.employeeSalesReportService = employeeSalesReportService;
+        this.objectMapper = objectMapper;
+        this.reportExecutor = reportExecutor;
+        this.jobExecutor = jobExecutor;
+        this.maxRunning = maxRunning;
+        this.maxRunningPerMerchant = maxRunningPerMerchant;
+        this.maxQueuedPerMerchant = maxQueuedPerMerchant;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    /**
+     * Saves and queues a job. The request must already be validated and its store ids
+     * limited to stores the user can access.
+     * @throws RejectedExecutionException when the merchant already has too many jobs queued
+     */
+    public ReportJobDto submit(User user, Store activeStore, ReportJobRequestDto params) {
+        String merchantId = user.getMerchant().getId();
+        reserve(merchantId);
+
+        ReportJob job = new ReportJob();
+        job.setMerchant(user.getMerchant());
+        job.setStoreId(activeStore != null ? activeStore.getId() : null);
+        job.setRequestedBy(user.getId());
+        job.setReportType(params.type());
+        job.setStatus(QUEUED);
+        try {
+            job.setParams(objectMapper.writeValueAsString(params));
+            job = jobRepository.save(job);
+        } catch (IOException e) {
+            unreserve(merchantId);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            unreserve(merchantId);
+            throw e;
+        }
+
+        enqueue(merchantId, job.getId());
+        return toDto(job);
+    }
+
+    public List<ReportJobDto> recentJobs(User user, int limit) {
+        return jobRepository.findByRequestedByOrderByCreatedAtDesc(user.getId(), PageRequest.of(0, limit))
+                .stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    /**
+     * Emits one "status" event when the job finishes (immediately if it already has),
+     * then completes the stream. Must be called outside a transaction: with open-in-view
+     * off, each lookup here borrows a connection only for the query, never for the
+     * lifetime of the stream.
+     */
+    public SseEmitter subscribe(ReportJob job) {
+        SseEmitter emitter = new SseEmitter(SUBSCRIBE_TIMEOUT_MS);
+        List<SseEmitter> emitters = subscribers.computeIfAbsent(job.getId(), id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(emitter::complete);
+
+        // Re-read after registering so a job that finished in between is not missed. The
+        // finishing thread may already have taken the list, so answer this emitter directly;
+        // whoever removes it from the list first sends the event.
+        jobRepository.findById(job.getId())
+                .filter(this::isFinished)
+                .ifPresent(finished -> {
+                    if (emitters.remove(emitter)) {
+                        sendStatus(emitter, toDto(finished));
+                    }
+                });
+        return emitter;
+    }
+
+    public ReportJobDto toDto(ReportJob job) {
+        return new ReportJobDto(
+                job.getId(),
+                job.getReportType(),
+                job.getStatus(),
+                job.getFileName(),
+                job.getSizeBytes(),
+                job.getError(),
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getCompletedAt(),
+                COMPLETED.equals(job.getStatus()) ? "/api/report-jobs/" + job.getId() + "/download" : null);
+    }
+
+    public boolean isCompleted(ReportJob job) {
+        return COMPLETED.equals(job.getStatus());
+    }
+
+    /**
+     * Fails jobs that were queued or running when the previous process stopped, so their
+     * pollers get an answer as soon as the server is back rather than at the next cleanup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void failOrphanedJobs() {
+        try {
+            int failed = 0;
+            for (ReportJob orphan : jobRepository.findByStatusInAndCreatedAtBefore(List.of(QUEUED, RUNNING), bootTime)) {
+                orphan.setStatus(FAILED);
+                orphan.setError("Interrupted by a server restart, please resubmit");
+                orphan.setCompletedAt(LocalDateTime.now());
+                jobRepository.save(orphan);
+                failed++;
+            }
+            orphansFailed = true;
+            if (failed > 0) {
+                System.out.println("🧹 [ReportJobs] Failed " + failed + " job(s) interrupted by the restart");
+            }
+        } catch (Exception e) {
+            // Retried by the next cleanup pass
+            System.out.println("⚠️  [ReportJobs] Could not fail interrupted jobs: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Removes finished jobs past retention, with their files.
+     */
+    @Scheduled(fixedDelayString = "${reports.jobs.cleanup-ms:3600000}",
+            initialDelayString = "${reports.jobs.cleanup-ms:3600000}")
+    public void cleanup() {
+        if (!orphansFailed) {
+            failOrphanedJobs();
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int removed = 0;
+        List<ReportJob> expired;
+        do {
+            expired = jobRepository.findByCompletedAtBefore(cutoff, PageRequest.of(0, CLEANUP_BATCH));
+            for (ReportJob job : expired) {
+                fileStore.delete(job.getFilePath());
+            }
+            jobRepository.deleteAllInBatch(expired);
+            removed += expired.size();
+        } while (expired.size() == CLEANUP_BATCH);
+
+        if (removed > 0) {
+            System.out.println("🧹 [ReportJobs] Removed " + removed + " expired report job(s)");
+        }
+    }
+
+    // Checks the merchant's queue cap and holds a place until the saved job is enqueued
+    private synchronized void reserve(String merchantId) {
+        Deque<UUID> queue = queuedByMerchant.get(merchantId);
+        int queued = (queue != null ? queue.size() : 0) + reservedByMerchant.getOrDefault(merchantId, 0);
+        if (queued >= maxQueuedPerMerchant) {
+            throw new RejectedExecutionException("Too many report jobs queued, please wait for some to finish");
+        }
+        reservedByMerchant.merge(merchantId, 1, Integer::sum);
+    }
+
+    private synchronized void unreserve(String merchantId) {
+        reservedByMerchant.computeIfPresent(merchantId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private synchronized void enqueue(String merchantId, UUID jobId) {
+        unreserve(merchantId);
+        queuedByMerchant.computeIfAbsent(merchantId, id -> new ArrayDeque<>()).addLast(jobId);
+        if (!merchantRotation.contains(merchantId)) {
+            merchantRotation.addLast(merchantId);
+        }
+        queuedTotal++;
+        dispatch();
+    }
+
+    // Starts queued jobs while slots are free, taking one job per merchant in turn
+    private synchronized void dispatch() {
+        int merchantsChecked = 0;
+        while (runningTotal < maxRunning && queuedTotal > 0 && merchantsChecked < merchantRotation.size()) {
+            String merchantId = merchantRotation.pollFirst();
+            Deque<UUID> queue = queuedByMerchant.get(merchantId);
+            if (runningByMerchant.getOrDefault(merchantId, 0) >= maxRunningPerMerchant) {
+                merchantRotation.addLast(merchantId);
+                merchantsChecked++;
+                continue;
+            }
+
+            UUID jobId = queue.pollFirst();
+            queuedTotal--;
+            if (queue.isEmpty()) {
+                queuedByMerchant.remove(merchantId);
+            } else {
+                merchantRotation.addLast(merchantId);
+            }
+            merchantsChecked = 0;
+            runningTotal++;
+            runningByMerchant.merge(merchantId, 1, Integer::sum);
+            jobExecutor.execute(() -> run(jobId, merchantId));
+        }
+    }
+
+    private synchronized void release(String merchantId) {
+        runningTotal--;
+        runningByMerchant.computeIfPresent(merchantId, (id, count) -> count > 1 ? count - 1 : null);
+        dispatch();
+    }
+
+    private void run(UUID jobId, String merchantId) {
+        Path tempFile = null;
+        ReportJob job = null;
+        try {
+            job = jobRepository.findById(jobId).orElse(null);
+            if (job == null) {
+                return;
+            }
+            job.setStatus(RUNNING);
+            job.setStartedAt(LocalDateTime.now());
+            job = jobRepository.save(job);
+
+            ReportJobRequestDto params = objectMapper.readValue(job.getParams(), ReportJobRequestDto.class);
+            tempFile = fileStore.newTempFile(jobId);
+            Output output = write(job, params, tempFile);
+            Path stored = fileStore.publish(tempFile, jobId, output.extension());
+            tempFile = null;
+
+            job.setStatus(COMPLETED);
+            job.setFileName(output.fileName() + output.extension());
+            job.setContentType(output.contentType());
+            job.setFilePath(stored.toString());
+            job.setSizeBytes(Files.size(stored));
+            job.setCompletedAt(LocalDateTime.now());
+            job = jobRepository.save(job);
+        } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            System.out.println("⚠️  [ReportJobs] Job " + jobId + " failed: " + cause.getMessage());
+            if (job != null) {
+                job.setStatus(FAILED);
+                job.setError(cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName());
+                job.setCompletedAt(LocalDateTime.now());
+                try {
+                    job = jobRepository.save(job);
+                } catch (Exception saveError) {
+                    System.out.println("⚠️  [ReportJobs] Could not record failure for " + jobId + ": " + saveError.getMessage());
+                }
+            }
+            if (tempFile != null) {
+                fileStore.deleteQuietly(tempFile);
+            }
+        } finally {
+            release(merchantId);
+            if (job != null) {
+                notifySubscribers(job);
+            }
+        }
+    }
+
+    private Output write(ReportJob job, ReportJobRequestDto params, Path file) throws IOException {
+        switch (job.getReportType()) {
+            case TYPE_SALES_EXPORT -> {
+                Store store = storeRepository.findById(job.getStoreId())
+                        .orElseThrow(() -> new IllegalStateException("Store no longer exists"));
+                DateWindow window = params.from() != null && params.to() != null
+                        ? salesReportService.windowFor(store, params.from(), params.to())
+                        : salesReportService.resolveWindow(params.range(), store);
+                String label = params.from() != null ? params.from() + "_" + params.to() : params.range();
+                // The cursor holds a connection for the whole export, so it runs on the report executor
+                CompletableFuture.runAsync(() -> writeCsv(store, window, params.gzip(), file), reportExecutor).join();
+                return params.gzip()
+                        ? new Output("sales-" + label, ".csv.gz", "application/gzip")
+                        : new Output("sales-" + label, ".csv", "text/csv");
+            }
+            case TYPE_SALES_RANGE -> {
+                List<Store> stores = storeRepository.findAllById(params.storeIds());
+                // Fans out per store on the report executor; this thread only waits
+                Object report = salesReportService.aggregateStores(stores, params.from(), params.to());
+                writeJson(report, file);
+                return new Output("sales-" + params.from() + "_" + params.to(), ".json", "application/json");
+            }
+            case TYPE_EMPLOYEE_SALES -> {
+                List<Store> stores = storeRepository.findAllById(params.storeIds());
+                Object report = CompletableFuture.supplyAsync(
+                        () -> employeeSalesReportService.report(stores, params.from(), params.to()), reportExecutor).join();
+                writeJson(report, file);
+                return new Output("employee-sales-" + params.from() + "_" + params.to(), ".json", "application/json");
+            }
+            default -> throw new IllegalArgumentException("Unknown report type: " + job.getReportType());
+        }
+    }
+
+    private void writeCsv(Store store, DateWindow window, boolean gzip, Path file) {
+        try (OutputStream fileOut = Files.newOutputStream(file)) {
+            OutputStream target = gzip ? new GZIPOutputStream(fileOut, BUFFER_SIZE) : fileOut;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), BUFFER_SIZE);
+            salesExportService.writeSalesCsv(store.getId(), window.start(), window.end(), writer);
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeJson(Object report, Path file) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            objectMapper.writeValue(out, report);
+        }
+    }
+
+    private boolean isFinished(ReportJob job) {
+        return COMPLETED.equals(job.getStatus()) || FAILED.equals(job.getStatus());
+    }
+
+    private void notifySubscribers(ReportJob job) {
+        List<SseEmitter> emitters = subscribers.remove(job.getId());
+        if (emitters == null) {
+            return;
+        }
+        ReportJobDto dto = toDto(job);
+        for (SseEmitter emitter : emitters) {
+            if (emitters.remove(emitter)) {
+                sendStatus(emitter, dto);
+            }
+        }
+    }
+
+    private void sendStatus(SseEmitter emitter, ReportJobDto dto) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(dto));
+            emitter.complete();
+        } catch (Exception e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private record Output(String fileName, String extension, String contentType) {
+    }
+}
@@ -0,0 +1,81 @@
+package com.slipsync.Services;
+
+import com.slipsync.DTO.SalesExportRowDto;
+import com.slipsync.Repositories.OrderRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Writes sales CSV exports row by row from a database cursor.
+ * Memory use is bounded by the query fetch size and the writer's buffer, not by the
+ * number of orders in the window.
+ */
+@Service
+public class SalesExportService {
+
+    private static final String HEADER = "Order Number,Placed At,Subtotal,Discounts,Taxes,Total,Currency";
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final OrderRepository orderRepository;
+
+    public SalesExportService(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    /**
+     * Streams the CSV for a store's orders placed in [start, end] into the writer.
+     * The writer is flushed but not closed.
+     */
+    @Transactional(readOnly = true)
+    public void writeSalesCsv(UUID storeId, LocalDateTime start, LocalDateTime end, Writer writer) throws IOException {
+        writer.write(HEADER);
+        try (Stream<SalesExportRowDto> rows = orderRepository.streamSalesExportRows(storeId, start, end)) {
+            rows.forEach(row -> {
+                try {
+                    writer.write('\n');
+                    writer.write(toCsvLine(row));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private String toCsvLine(SalesExportRowDto row) {
+        String orderNumber = row.orderNumber() != null ? row.orderNumber() : "";
+        String placedAt = row.placedAt() != null ? FORMATTER.format(row.placedAt()) : "";
+        BigDecimal subtotal = row.subtotal() != null ? row.subtotal() : BigDecimal.ZERO;
+        BigDecimal discounts = row.discountsTotal() != null ? row.discountsTotal() : BigDecimal.ZERO;
+        BigDecimal taxes = row.taxesTotal() != null ? row.taxesTotal() : BigDecimal.ZERO;
+        BigDecimal total = row.totalAmount() != null ? row.totalAmount() : BigDecimal.ZERO;
+        String currency = row.currency() != null ? row.currency() : "";
+        return String.join(",",
+                escape(orderNumber),
+                escape(placedAt),
+                subtotal.toPlainString(),
+                discounts.toPlainString(),
+                taxes.toPlainString(),
+                total.toPlainString(),
+                escape(currency));
+    }
+
+    private String escape(String value) {
+        if (value == null) return "";
+        if (value.contains(",") || value.contains("\"")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
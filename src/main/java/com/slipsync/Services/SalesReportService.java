@@ -0,0 +1,330 @@
+package com.slipsync.Services;
+
+import com.slipsync.DTO.MultiStoreSalesReportDto;
+import com.slipsync.DTO.ProductSalesDto;
+import com.slipsync.DTO.SalesBucketDto;
+import com.slipsync.DTO.SalesChangePercentDto;
+import com.slipsync.DTO.SalesComparisonDto;
+import com.slipsync.DTO.SalesComparisonTotalsDto;
+import com.slipsync.DTO.SalesTimeSeriesDto;
+import com.slipsync.DTO.SalesTotalsDto;
+import com.slipsync.DTO.StoreSalesReportDto;
+import com.slipsync.DTO.TopProductsReportDto;
+import com.slipsync.Entities.Store;
+import com.slipsync.Repositories.OrderItemRepository;
+import com.slipsync.Repositories.OrderRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Sales aggregation shared by the report endpoints.
+ * Totals are summed in the database; multi-store reports fan out one aggregate
+ * query per store on the bounded report executor and merge the results.
+ */
+@Service
+public class SalesReportService {
+
+    private static final long MAX_BUCKETS = 1000;
+    private static final long MINUTES_PER_DAY = 24 * 60;
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ReportCacheService reportCache;
+    private final TaskExecutor reportExecutor;
+
+    public SalesReportService(OrderRepository orderRepository,
+                              OrderItemRepository orderItemRepository,
+                              ReportCacheService reportCache,
+                              @Qualifier("reportExecutor") TaskExecutor reportExecutor) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.reportCache = reportCache;
+        this.reportExecutor = reportExecutor;
+    }
+
+    /**
+     * Sales totals for the window, served from the report cache when another request
+     * has already computed the same store and range.
+     * @param rangeKey stable name of the window (periodKey, or "from..to")
+     */
+    public SalesTotalsDto aggregate(UUID storeId, String rangeKey, DateWindow window) {
+        return reportCache.get(new ReportCacheService.Key(storeId, "sales-totals", rangeKey, "total"),
+                () -> orderRepository.summarizeSales(storeId, window.start(), window.end()));
+    }
+
+    /**
+     * Period-to-date sales against the same elapsed span of the previous period
+     * ("previous") or of the same period a year earlier ("last_year").
+     * @param period "day", "week" (weeks start on Monday) or "month"
+     */
+    public SalesComparisonDto compare(Store store, String period, String against) {
+        ZoneId zone = resolveZone(store);
+        // Whole minutes, and part of the cache key, so cached totals always match the returned bounds
+        ZonedDateTime now = ZonedDateTime.now(zone).truncatedTo(ChronoUnit.MINUTES);
+        LocalDate today = now.toLocalDate();
+        LocalDate periodStart = switch (period) {
+            case "week" -> today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case "month" -> today.withDayOfMonth(1);
+            default -> today;
+        };
+        LocalDate previousStart;
+        if ("last_year".equals(against)) {
+            // 52 weeks keeps weekdays aligned for week and day comparisons
+            previousStart = "month".equals(period) ? periodStart.minusYears(1) : periodStart.minusWeeks(52);
+        } else {
+            previousStart = switch (period) {
+                case "week" -> periodStart.minusWeeks(1);
+                case "month" -> periodStart.minusMonths(1);
+                default -> periodStart.minusDays(1);
+            };
+        }
+
+        ZonedDateTime currentStart = periodStart.atStartOfDay(zone);
+        ZonedDateTime previousFrom = previousStart.atStartOfDay(zone);
+        ZonedDateTime previousTo = previousFrom.plus(Duration.between(currentStart, now));
+        if ("previous".equals(against) && previousTo.isAfter(currentStart)) {
+            // A longer current month (31 vs 30 days) must not spill into the current window
+            previousTo = currentStart.minusNanos(1);
+        }
+        return compare(store, period, against, period + ":" + against + ":" + now.toLocalDateTime(),
+                currentStart, now, previousFrom, previousTo);
+    }
+
+    /**
+     * Whole-day window [from, to] against [compareFrom, compareTo], defaulting to the
+     * same number of days immediately before.
+     */
+    public SalesComparisonDto compare(Store store, LocalDate from, LocalDate to,
+                                      LocalDate compareFrom, LocalDate compareTo) {
+        ZoneId zone = resolveZone(store);
+        if (compareFrom == null || compareTo == null) {
+            long days = ChronoUnit.DAYS.between(from, to) + 1;
+            compareTo = from.minusDays(1);
+            compareFrom = from.minusDays(days);
+        }
+        return compare(store, "custom", "custom", from + ".." + to + "|" + compareFrom + ".." + compareTo,
+                from.atStartOfDay(zone), to.atTime(LocalTime.MAX).atZone(zone),
+                compareFrom.atStartOfDay(zone), compareTo.atTime(LocalTime.MAX).atZone(zone));
+    }
+
+    private SalesComparisonDto compare(Store store, String period, String against, String rangeKey,
+                                       ZonedDateTime currentStart, ZonedDateTime currentEnd,
+                                       ZonedDateTime previousStart, ZonedDateTime previousEnd) {
+        SalesComparisonTotalsDto totals = reportCache.get(
+                new ReportCacheService.Key(store.getId(), "sales-compare", rangeKey, "total"),
+                () -> orderRepository.compareSales(store.getId(),
+                        toServerTime(currentStart), toServerTime(currentEnd),
+                        toServerTime(previousStart), toServerTime(previousEnd)));
+        SalesTotalsDto current = totals.current();
+        SalesTotalsDto previous = totals.previous();
+        return new SalesComparisonDto(
+                period,
+                against,
+                currentStart.toLocalDateTime(),
+                currentEnd.toLocalDateTime(),
+                previousStart.toLocalDateTime(),
+                previousEnd.toLocalDateTime(),
+                current,
+                previous,
+                current.subtract(previous),
+                SalesChangePercentDto.between(current, previous));
+    }
+
+    /**
+     * Top variants by units and by revenue for the window, each with its average
+     * units sold per day over the window.
+     */
+    public TopProductsReportDto topProducts(UUID storeId, String rangeKey, DateWindow window, int limit) {
+        return reportCache.get(new ReportCacheService.Key(storeId, "top-products:" + limit, rangeKey, "variant"),
+                () -> computeTopProducts(storeId, window, limit));
+    }
+
+    private TopProductsReportDto computeTopProducts(UUID storeId, DateWindow window, int limit) {
+        long days = (long) Math.ceil(Duration.between(window.start(), window.end()).toMinutes() / (double) MINUTES_PER_DAY);
+        PageRequest page = PageRequest.of(0, limit);
+        List<ProductSalesDto> byUnits = orderItemRepository
+                .findTopVariantsByUnits(storeId, window.start(), window.end(), page)
+                .stream()
+                .map(row -> row.withVelocity(days))
+                .toList();
+        List<ProductSalesDto> byRevenue = orderItemRepository
+                .findTopVariantsByRevenue(storeId, window.start(), window.end(), page)
+                .stream()
+                .map(row -> row.withVelocity(days))
+                .toList();
+        return new TopProductsReportDto(window.start(), window.end(), days, byUnits, byRevenue);
+    }
+
+    /**
+     * Aggregates each store over [from, to] (whole days, in each store's timezone)
+     * in parallel and merges the results. Must not be called inside a transaction: the
+     * caller would hold a connection while it waits for workers that each need one.
+     * @throws java.util.concurrent.RejectedExecutionException when the report queue is full
+     */
+    public MultiStoreSalesReportDto aggregateStores(List<Store> stores, LocalDate from, LocalDate to) {
+        List<CompletableFuture<SalesTotalsDto>> futures = stores.stream()
+                .map(store -> CompletableFuture.supplyAsync(() -> {
+                    DateWindow window = windowFor(store, from, to);
+                    return aggregate(store.getId(), from + ".." + to, window);
+                }, reportExecutor))
+                .toList();
+
+        List<StoreSalesReportDto> perStore = new ArrayList<>(stores.size());
+        SalesTotalsDto merged = SalesTotalsDto.empty();
+        try {
+            for (int i = 0; i < stores.size(); i++) {
+                Store store = stores.get(i);
+                SalesTotalsDto totals = futures.get(i).join();
+                perStore.add(new StoreSalesReportDto(store.getId(), store.getName(), totals.toReport("custom")));
+                merged = merged.add(totals);
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+
+        return new MultiStoreSalesReportDto(from, to, merged.toReport("custom"), perStore);
+    }
+
+    /**
+     * Sales per hour, day or week over [from, to] in the store's timezone, computed by a
+     * single GROUP BY date_trunc query. Buckets without orders are returned as zeros so
+     * the response size depends only on the number of buckets.
+     * @throws IllegalArgumentException for an unknown bucket or too many buckets
+     */
+    public SalesTimeSeriesDto timeSeries(Store store, LocalDate from, LocalDate to, String bucket) {
+        ChronoUnit step = switch (bucket) {
+            case "hour" -> ChronoUnit.HOURS;
+            case "day" -> ChronoUnit.DAYS;
+            case "week" -> ChronoUnit.WEEKS;
+            default -> throw new IllegalArgumentException("bucket must be hour, day or week");
+        };
+        // Stepped in the store's zone: a day has 23 or 25 hourly buckets when clocks change
+        ZoneId zone = resolveZone(store);
+        ZonedDateTime first = ("week".equals(bucket)
+                ? from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                : from).atStartOfDay(zone);
+        ZonedDateTime end = to.plusDays(1).atStartOfDay(zone);
+        long bucketCount = step.between(first, end.minusNanos(1)) + 1;
+        if (bucketCount > MAX_BUCKETS) {
+            throw new IllegalArgumentException("Too many buckets (" + bucketCount + "), max is " + MAX_BUCKETS);
+        }
+
+        DateWindow window = windowFor(store, from, to);
+        return reportCache.get(new ReportCacheService.Key(store.getId(), "sales-series", from + ".." + to, bucket), () -> {
+            Map<Instant, Object[]> byStart = new HashMap<>();
+            for (Object[] row : orderRepository.sumSalesByBucket(store.getId(), window.start(), window.end(),
+                    bucket, ZoneId.systemDefault().getId(), zone.getId())) {
+                byStart.put(toInstant(row[0]), row);
+            }
+
+            List<SalesBucketDto> points = new ArrayList<>((int) bucketCount);
+            for (ZonedDateTime cursor = first; cursor.isBefore(end); cursor = cursor.plus(1, step)) {
+                Object[] row = byStart.get(cursor.toInstant());
+                points.add(row == null
+                        ? new SalesBucketDto(cursor.toLocalDateTime(), 0, BigDecimal.ZERO, BigDecimal.ZERO)
+                        : new SalesBucketDto(
+                                cursor.toLocalDateTime(),
+                                ((Number) row[1]).longValue(),
+                                row[2] != null ? (BigDecimal) row[2] : BigDecimal.ZERO,
+                                row[3] != null ? (BigDecimal) row[3] : BigDecimal.ZERO));
+            }
+            return new SalesTimeSeriesDto(bucket, zone.getId(), from, to, points);
+        });
+    }
+
+    /**
+     * Window from the start of the current day ("daily") or month ("monthly") up to now,
+     * in the store's timezone.
+     */
+    public DateWindow resolveWindow(String range, Store store) {
+        ZoneId zoneId = resolveZone(store);
+        ZonedDateTime now = ZonedDateTime.now(zoneId);
+        ZonedDateTime start;
+        if ("monthly".equals(range)) {
+            start = now.withDayOfMonth(1).toLocalDate().atStartOfDay(zoneId);
+        } else {
+            start = now.toLocalDate().atStartOfDay(zoneId);
+        }
+        return new DateWindow(toServerTime(start), toServerTime(now));
+    }
+
+    /**
+     * Cache key for a window from resolveWindow: the range name plus the store-local date the
+     * window starts on, so "daily" and "monthly" entries do not outlive their day or month.
+     */
+    public String periodKey(String range, Store store, DateWindow window) {
+        LocalDate start = window.start().atZone(ZoneId.systemDefault())
+                .withZoneSameInstant(resolveZone(store)).toLocalDate();
+        return range + ":" + start;
+    }
+
+    /**
+     * Whole-day window covering [from, to] in the store's timezone.
+     */
+    public DateWindow windowFor(Store store, LocalDate from, LocalDate to) {
+        ZoneId zone = resolveZone(store);
+        return new DateWindow(
+                toServerTime(from.atStartOfDay(zone)),
+                toServerTime(to.atTime(LocalTime.MAX).atZone(zone)));
+    }
+
+    public ZoneId resolveZone(Store store) {
+        return zoneOf(store != null ? store.getTimezone() : null);
+    }
+
+    public static ZoneId zoneOf(String timezone) {
+        if (timezone != null && !timezone.isBlank()) {
+            try {
+                return ZoneId.of(timezone);
+            } catch (Exception ignored) {
+            }
+        }
+        return ZoneId.systemDefault();
+    }
+
+    // placed_at is written by Hibernate as wall time in the JVM's zone, so store-zone
+    // boundaries are shifted into that zone before being compared against it
+    private LocalDateTime toServerTime(ZonedDateTime time) {
+        return time.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+    }
+
+    private Instant toInstant(Object value) {
+        if (value instanceof Instant instant) {
+            return instant;
+        }
+        if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toInstant();
+        }
+        return ((Timestamp) value).toInstant();
+    }
+
+    /**
+     * Report window as server wall-clock times, ready to compare against placed_at.
+     */
+    public record DateWindow(LocalDateTime start, LocalDateTime end) {
+    }
+}
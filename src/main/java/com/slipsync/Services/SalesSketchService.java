@@ -0,0 +1,223 @@
+package com.slipsync.Services;
+
+import com.slipsync.DTO.CustomerInsightDto;
+import com.slipsync.DTO.CustomerInsightsReportDto;
+import com.slipsync.Entities.Store;
+import com.slipsync.Entities.StoreHourlySketch;
+import com.slipsync.Events.OrderChangedEvent;
+import com.slipsync.Repositories.StoreHourlySketchRepository;
+import com.slipsync.Repositories.StoreRepository;
+import com.slipsync.Sketches.HyperLogLog;
+import com.slipsync.Sketches.QuantileSketch;
+import jakarta.annotation.PreDestroy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming sketches of placed orders per store and store-local hour:
+ * distinct customers (HyperLogLog) and ticket size / items per order (quantile sketches).
+ * - Committed orders are folded into an in-memory accumulator for their hour.
+ * - Accumulators are merged into store_hourly_sketches on a fixed delay and on shutdown,
+ *   so the order path never touches the sketch table.
+ * - Queries merge the stored hours with anything not yet flushed, so results are current.
+ */
+@Service
+public class SalesSketchService {
+
+    private final Map<BucketKey, Accumulator> pending = new ConcurrentHashMap<>();
+
+    private final StoreHourlySketchRepository sketchRepository;
+    private final StoreRepository storeRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public SalesSketchService(StoreHourlySketchRepository sketchRepository,
+                              StoreRepository storeRepository,
+                              PlatformTransactionManager transactionManager) {
+        this.sketchRepository = sketchRepository;
+        this.storeRepository = storeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (!OrderChangedEvent.PLACED.equals(event.reason()) || event.occurredAt() == null) {
+            return;
+        }
+        LocalDateTime hour = LocalDateTime.ofInstant(event.occurredAt(), SalesReportService.zoneOf(event.storeTimezone()))
+                .truncatedTo(ChronoUnit.HOURS);
+        // compute() holds the key's lock, so a concurrent flush either sees this order or
+        // removes the accumulator first and this call starts a new one
+        pending.compute(new BucketKey(event.storeId(), hour), (key, acc) -> {
+            Accumulator target = acc != null ? acc : new Accumulator();
+            target.add(event);
+            return target;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${reports.sketch.flush-ms:30000}")
+    public void flush() {
+        int flushed = 0;
+        for (BucketKey key : new ArrayList<>(pending.keySet())) {
+            Accumulator acc = pending.remove(key);
+            if (acc == null) {
+                continue;
+            }
+            try {
+                persist(key, acc);
+                flushed++;
+            } catch (Exception e) {
+                // Put it back so the next flush retries; orders added meanwhile are merged in
+                pending.merge(key, acc, Accumulator::mergeInto);
+                System.out.println("⚠️  [SalesSketch] Failed to flush " + key + ": " + e.getMessage());
+            }
+        }
+        if (flushed > 0) {
+            System.out.println("📈 [SalesSketch] Flushed " + flushed + " hourly sketch(es)");
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Per-day and whole-range insights for the given stores over [from, to] (store-local days).
+     */
+    public CustomerInsightsReportDto insights(Collection<Store> stores, LocalDate from, LocalDate to) {
+        List<UUID> storeIds = stores.stream().map(Store::getId).toList();
+        LocalDateTime start = from.atStartOfDay();
+        LocalDateTime end = to.plusDays(1).atStartOfDay();
+
+        TreeMap<LocalDate, Accumulator> byDay = new TreeMap<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            byDay.put(day, new Accumulator());
+        }
+        for (StoreHourlySketch row : sketchRepository.findInRange(storeIds, start, end)) {
+            byDay.get(row.getBucketStart().toLocalDate()).mergeRow(row);
+        }
+        for (Map.Entry<BucketKey, Accumulator> entry : pending.entrySet()) {
+            BucketKey key = entry.getKey();
+            if (storeIds.contains(key.storeId()) && !key.hour().isBefore(start) && key.hour().isBefore(end)) {
+                Accumulator acc = byDay.get(key.hour().toLocalDate());
+                synchronized (entry.getValue()) {
+                    acc.merge(entry.getValue());
+                }
+            }
+        }
+
+        Accumulator total = new Accumulator();
+        List<CustomerInsightDto> days = new ArrayList<>();
+        for (Map.Entry<LocalDate, Accumulator> entry : byDay.entrySet()) {
+            total.merge(entry.getValue());
+            days.add(entry.getValue().toDto(entry.getKey()));
+        }
+        return new CustomerInsightsReportDto(from, to, total.toDto(null), days);
+    }
+
+    private void persist(BucketKey key, Accumulator acc) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> mergeIntoRow(key, acc));
+        } catch (DataIntegrityViolationException e) {
+            // Another instance inserted the row first; merge into theirs
+            transactionTemplate.executeWithoutResult(status -> mergeIntoRow(key, acc));
+        }
+    }
+
+    /**
+     * Writes acc plus whatever the row already holds. acc itself is left untouched so a
+     * rolled-back attempt can be retried or re-queued without counting the row twice.
+     */
+    private void mergeIntoRow(BucketKey key, Accumulator acc) {
+        StoreHourlySketch row = sketchRepository.findForUpdate(key.storeId(), key.hour()).orElse(null);
+        Accumulator merged = new Accumulator();
+        merged.merge(acc);
+        if (row == null) {
+            row = new StoreHourlySketch();
+            row.setStore(storeRepository.getReferenceById(key.storeId()));
+            row.setBucketStart(key.hour());
+        } else {
+            merged.mergeRow(row);
+        }
+        row.setOrderCount(merged.orders);
+        row.setCustomerHll(merged.customers.toBytes());
+        row.setOrderTotalSketch(merged.tickets.toBytes());
+        row.setItemCountSketch(merged.items.toBytes());
+        sketchRepository.saveAndFlush(row);
+    }
+
+    private record BucketKey(UUID storeId, LocalDateTime hour) {
+    }
+
+    private static final class Accumulator {
+        private final HyperLogLog customers = new HyperLogLog();
+        private final QuantileSketch tickets = new QuantileSketch();
+        private final QuantileSketch items = new QuantileSketch();
+        private long orders;
+
+        synchronized void add(OrderChangedEvent event) {
+            orders++;
+            if (event.customerId() != null) {
+                customers.add(event.customerId());
+            }
+            if (event.totalAmount() != null) {
+                tickets.add(event.totalAmount().doubleValue());
+            }
+            items.add(event.itemCount());
+        }
+
+        void merge(Accumulator other) {
+            orders += other.orders;
+            customers.merge(other.customers);
+            tickets.merge(other.tickets);
+            items.merge(other.items);
+        }
+
+        void mergeRow(StoreHourlySketch row) {
+            orders += row.getOrderCount() != null ? row.getOrderCount() : 0;
+            if (row.getCustomerHll() != null) {
+                customers.merge(HyperLogLog.fromBytes(row.getCustomerHll()));
+            }
+            if (row.getOrderTotalSketch() != null) {
+                tickets.merge(QuantileSketch.fromBytes(row.getOrderTotalSketch()));
+            }
+            if (row.getItemCountSketch() != null) {
+                items.merge(QuantileSketch.fromBytes(row.getItemCountSketch()));
+            }
+        }
+
+        static Accumulator mergeInto(Accumulator existing, Accumulator failed) {
+            synchronized (existing) {
+                existing.merge(failed);
+            }
+            return existing;
+        }
+
+        CustomerInsightDto toDto(LocalDate date) {
+            return new CustomerInsightDto(
+                    date,
+                    orders,
+                    customers.estimate(),
+                    tickets.quantile(0.5),
+                    tickets.quantile(0.9),
+                    items.quantile(0.5),
+                    items.quantile(0.9));
+        }
+    }
+}
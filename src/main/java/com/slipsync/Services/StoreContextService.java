@@ -7,6 +7,7 @@ import com.slipsync.Repositories.StoreRepository;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -119,5 +120,21 @@ public class StoreContextService {
         
         return Set.of();
     }
-}
 
+    /**
+     * Stores a multi-store report covers: the requested ids, or every store the user can see.
+     * Returns null when any requested store is not accessible.
+     */
+    public List<Store> resolveRequestedStores(User user, List<UUID> storeIds, HttpServletRequest request) {
+        List<Store> accessibleStores = permissionService.filterAccessibleStores(
+                user, storeRepository.findByMerchantId(user.getMerchant().getId()), getStoreAccess(request, user));
+        if (storeIds == null || storeIds.isEmpty()) {
+            return accessibleStores;
+        }
+        Set<UUID> requested = new LinkedHashSet<>(storeIds);
+        List<Store> stores = accessibleStores.stream()
+                .filter(store -> requested.contains(store.getId()))
+                .toList();
+        return stores.size() == requested.size() ? stores : null;
+    }
+}
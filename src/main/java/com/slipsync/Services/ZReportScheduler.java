@@ -0,0 +1,105 @@
+package com.slipsync.Services;
+
+import com.slipsync.Entities.Store;
+import com.slipsync.Repositories.StoreDailyReportRepository;
+import com.slipsync.Repositories.StoreRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Materializes yesterday's Z-report for every store shortly after its local midnight.
+ * Runs every 15 minutes so stores in any timezone are picked up soon after they close;
+ * stores are processed in pages, and each page fans out on the bounded report executor.
+ */
+@Component
+public class ZReportScheduler {
+
+    private final StoreRepository storeRepository;
+    private final StoreDailyReportRepository dailyReportRepository;
+    private final ZReportService zReportService;
+    private final TaskExecutor reportExecutor;
+    private final int batchSize;
+
+    public ZReportScheduler(StoreRepository storeRepository,
+                            StoreDailyReportRepository dailyReportRepository,
+                            ZReportService zReportService,
+                            @Qualifier("reportExecutor") TaskExecutor reportExecutor,
+                            @Value("${reports.zreport.batch-size:100}") int batchSize) {
+        this.storeRepository = storeRepository;
+        this.dailyReportRepository = dailyReportRepository;
+        this.zReportService = zReportService;
+        this.reportExecutor = reportExecutor;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${reports.zreport.cron:0 2/15 * * * *}")
+    public void materializeClosedDays() {
+        int page = 0;
+        int created = 0;
+        List<Store> batch;
+        do {
+            batch = storeRepository.findAllWithMerchant(PageRequest.of(page++, batchSize));
+            created += processBatch(batch);
+        } while (batch.size() == batchSize);
+
+        if (created > 0) {
+            System.out.println("🧾 [ZReportScheduler] Materialized " + created + " end-of-day reports");
+        }
+    }
+
+    private int processBatch(List<Store> stores) {
+        // Stores in different timezones may be closing different days
+        Map<LocalDate, List<Store>> byBusinessDate = stores.stream()
+                .collect(Collectors.groupingBy(zReportService::lastClosedDay));
+
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        int[] deferred = {0};
+        byBusinessDate.forEach((businessDate, candidates) -> {
+            Set<UUID> done = new HashSet<>(dailyReportRepository.findStoreIdsWithReport(
+                    candidates.stream().map(Store::getId).toList(), businessDate));
+            for (Store store : candidates) {
+                if (done.contains(store.getId())) {
+                    continue;
+                }
+                CompletableFuture<Boolean> future;
+                try {
+                    future = CompletableFuture.supplyAsync(() -> {
+                        zReportService.materialize(store, businessDate);
+                        return true;
+                    }, reportExecutor);
+                } catch (RejectedExecutionException e) {
+                    // Report executor is saturated; the store still has no report, so the next run picks it up
+                    deferred[0]++;
+                    continue;
+                }
+                futures.add(future.exceptionally(e -> {
+                    System.out.println("⚠️  [ZReportScheduler] Failed for store " + store.getId()
+                            + " on " + businessDate + ": " + e.getMessage());
+                    return false;
+                }));
+            }
+        });
+
+        if (deferred[0] > 0) {
+            System.out.println("⚠️  [ZReportScheduler] Report executor busy, " + deferred[0]
+                    + " stores deferred to the next run");
+        }
+
+        return (int) futures.stream().map(CompletableFuture::join).filter(Boolean::booleanValue).count();
+    }
+}
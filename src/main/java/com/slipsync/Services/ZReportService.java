@@ -0,0 +1,192 @@
+package com.slipsync.Services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.slipsync.DTO.InvoiceRangeDto;
+import com.slipsync.DTO.ProductSalesDto;
+import com.slipsync.DTO.SalesTotalsDto;
+import com.slipsync.DTO.TaxBreakdownDto;
+import com.slipsync.DTO.ZReportDto;
+import com.slipsync.Entities.Store;
+import com.slipsync.Entities.StoreDailyReport;
+import com.slipsync.Repositories.InvoiceRepository;
+import com.slipsync.Repositories.OrderItemRepository;
+import com.slipsync.Repositories.OrderRepository;
+import com.slipsync.Repositories.StoreDailyReportRepository;
+import com.slipsync.Services.SalesReportService.DateWindow;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Builds and reads end-of-day (Z) reports.
+ * A report is computed once from aggregate queries after the business day closes
+ * and stored as an immutable row; later reads never touch orders.
+ */
+@Service
+public class ZReportService {
+
+    private static final int TOP_ITEMS = 5;
+
+    private final StoreDailyReportRepository dailyReportRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final SalesReportService salesReportService;
+    private final ObjectMapper objectMapper;
+
+    public ZReportService(StoreDailyReportRepository dailyReportRepository,
+                          OrderRepository orderRepository,
+                          OrderItemRepository orderItemRepository,
+                          InvoiceRepository invoiceRepository,
+                          SalesReportService salesReportService,
+                          ObjectMapper objectMapper) {
+        this.dailyReportRepository = dailyReportRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.invoiceRepository = invoiceRepository;
+        this.salesReportService = salesReportService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Last business day that has fully closed in the store's timezone.
+     */
+    public LocalDate lastClosedDay(Store store) {
+        return LocalDate.now(salesReportService.resolveZone(store)).minusDays(1);
+    }
+
+    /**
+     * Computes and stores the report for a closed business day, or returns the existing one.
+     * Two writers racing on the same day hit the (store_id, business_date) unique constraint.
+     */
+    @Transactional
+    public StoreDailyReport materialize(Store store, LocalDate businessDate) {
+        Optional<StoreDailyReport> existing = dailyReportRepository
+                .findByStoreIdAndBusinessDate(store.getId(), businessDate);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        DateWindow window = salesReportService.windowFor(store, businessDate, businessDate);
+        SalesTotalsDto totals = orderRepository.summarizeSales(store.getId(), window.start(), window.end());
+        long itemCount = orderItemRepository.sumQuantityForStore(store.getId(), window.start(), window.end());
+        BigDecimal costOfGoods = orderItemRepository.sumCostOfGoods(store.getId(), window.start(), window.end());
+        List<TaxBreakdownDto> taxBreakdown = orderRepository
+                .sumTaxesByRate(store.getId(), window.start(), window.end())
+                .stream()
+                .map(row -> new TaxBreakdownDto(
+                        (BigDecimal) row[0],
+                        ((Number) row[1]).longValue(),
+                        row[2] != null ? (BigDecimal) row[2] : BigDecimal.ZERO,
+                        row[3] != null ? (BigDecimal) row[3] : BigDecimal.ZERO))
+                .toList();
+        List<ProductSalesDto> topItems = orderItemRepository
+                .findTopVariantsByUnits(store.getId(), window.start(), window.end(), PageRequest.of(0, TOP_ITEMS))
+                .stream()
+                .map(row -> row.withVelocity(1))
+                .toList();
+        InvoiceRangeDto invoices = invoiceRepository.findInvoiceRange(store.getId(), window.start(), window.end());
+
+        StoreDailyReport report = new StoreDailyReport();
+        report.setMerchant(store.getMerchant());
+        report.setStore(store);
+        report.setBusinessDate(businessDate);
+        report.setTimezone(salesReportService.resolveZone(store).getId());
+        report.setGrossSales(totals.grossSales());
+        report.setDiscountsTotal(totals.discountsTotal());
+        report.setTaxesTotal(totals.taxesTotal());
+        report.setNetSales(totals.netSales());
+        report.setCostOfGoods(costOfGoods != null ? costOfGoods : BigDecimal.ZERO);
+        report.setOrderCount(totals.orderCount());
+        report.setItemCount(itemCount);
+        report.setTaxBreakdown(toJson(taxBreakdown));
+        report.setTopItems(toJson(topItems));
+        report.setFirstInvoiceNumber(invoices.firstInvoiceNumber());
+        report.setLastInvoiceNumber(invoices.lastInvoiceNumber());
+        report.setInvoiceCount(invoices.invoiceCount() != null ? invoices.invoiceCount() : 0L);
+        if (store.getCurrency() != null) {
+            report.setCurrency(store.getCurrency());
+        }
+        return dailyReportRepository.saveAndFlush(report);
+    }
+
+    public Optional<ZReportDto> find(UUID storeId, LocalDate businessDate) {
+        return dailyReportRepository.findByStoreIdAndBusinessDate(storeId, businessDate).map(this::toDto);
+    }
+
+    public List<ZReportDto> recent(UUID storeId) {
+        return dailyReportRepository.findTop30ByStoreIdOrderByBusinessDateDesc(storeId).stream()
+                .map(this::toDto)
+                .toList();
+    }
+
+    /**
+     * Whether the store has taken orders on or before the day; days before its first order
+     * are not materialized, so an early date cannot leave a permanent all-zero report.
+     */
+    public boolean hasSalesHistory(Store store, LocalDate businessDate) {
+        LocalDateTime firstPlacedAt = orderRepository.findFirstPlacedAt(store.getId());
+        if (firstPlacedAt == null) {
+            return false;
+        }
+        LocalDate firstDay = firstPlacedAt.atZone(ZoneId.systemDefault())
+                .withZoneSameInstant(salesReportService.resolveZone(store)).toLocalDate();
+        return !businessDate.isBefore(firstDay);
+    }
+
+    public boolean isClosed(Store store, LocalDate businessDate) {
+        return !businessDate.isAfter(lastClosedDay(store));
+    }
+
+    public ZReportDto toDto(StoreDailyReport report) {
+        return new ZReportDto(
+                report.getId(),
+                report.getStore().getId(),
+                report.getStore().getName(),
+                report.getBusinessDate(),
+                report.getTimezone(),
+                report.getGrossSales(),
+                report.getDiscountsTotal(),
+                report.getTaxesTotal(),
+                report.getNetSales(),
+                report.getCostOfGoods(),
+                report.getOrderCount(),
+                report.getItemCount(),
+                fromJson(report.getTaxBreakdown(), new TypeReference<List<TaxBreakdownDto>>() {}),
+                fromJson(report.getTopItems(), new TypeReference<List<ProductSalesDto>>() {}),
+                report.getFirstInvoiceNumber(),
+                report.getLastInvoiceNumber(),
+                report.getInvoiceCount(),
+                report.getCurrency(),
+                report.getGeneratedAt());
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize Z-report section", e);
+        }
+    }
+
+    private <T> List<T> fromJson(String json, TypeReference<List<T>> type) {
+        if (json == null || json.isBlank()) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read Z-report section", e);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.slipsync.Controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.slipsync.DTO.PrintJobAckDto;
+import com.slipsync.Entities.Merchant;
+import com.slipsync.Entities.PrintDevice;
+import com.slipsync.Entities.PrintJob;
+import com.slipsync.Repositories.PrintDeviceRepository;
+import com.slipsync.Repositories.PrintJobRepository;
+import com.slipsync.Repositories.UserRepository;
+import com.slipsync.Services.DeviceHeartbeatRegistry;
+import com.slipsync.Services.PermissionService;
+import com.slipsync.Services.PrintAgentChannelService;
+import com.slipsync.Services.PrintJobLeaseService;
+import com.slipsync.Services.PrintJobRetryService;
+import com.slipsync.Services.PrintJobRouter;
+import com.slipsync.Services.PrintJobWaitService;
+import com.slipsync.Services.ReceiptPayloadService;
+import com.slipsync.Services.ReceiptRenderService;
+import com.slipsync.Services.StoreContextService;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Agent acks (POST /print-jobs/responses and the single-job /print-jobs/{jobId}/response)
+ * only touch jobs addressed to the acking device.
+ */
+class PrintingControllerAckTest {
+
+	private static final String MERCHANT = "merchant-1";
+	private static final String SECRET = "device-secret";
+
+	private final PrintJobRepository jobRepository = mock(PrintJobRepository.class);
+	private final PrintJobRetryService retryService = mock(PrintJobRetryService.class);
+	private final PrintingController controller = new PrintingController(mock(PrintDeviceRepository.class), jobRepository,
+			mock(UserRepository.class), mock(ReceiptPayloadService.class), mock(ReceiptRenderService.class),
+			mock(PermissionService.class), new ObjectMapper(), mock(StoreContextService.class),
+			mock(PrintJobWaitService.class), mock(PrintAgentChannelService.class), mock(PrintJobLeaseService.class),
+			mock(ApplicationEventPublisher.class), mock(DeviceHeartbeatRegistry.class), retryService,
+			mock(PrintJobRouter.class));
+
+	@Test
+	void acksAreScopedToTheDeviceAndCounted() {
+		UUID printed = UUID.randomUUID();
+		UUID otherDevicesJob = UUID.randomUUID();
+		UUID failed = UUID.randomUUID();
+		// Only one of the two printed jobs is addressed to this device
+		when(jobRepository.completeJobs(eq(MERCHANT), eq(SECRET), eq(Set.of(printed, otherDevicesJob)), any()))
+				.thenReturn(1);
+		when(retryService.failAll(MERCHANT, SECRET, Map.of(failed, "Paper out"))).thenReturn(List.of(new PrintJob()));
+
+		ResponseEntity<?> response = controller.updateJobStatuses(deviceRequest(), List.of(
+				new PrintJobAckDto(printed, "success", null),
+				new PrintJobAckDto(otherDevicesJob, "success", null),
+				new PrintJobAckDto(failed, "failed", "Paper out")));
+
+		assertEquals(200, response.getStatusCode().value());
+		assertEquals(Map.of("acknowledged", 2, "ignored", 1), response.getBody());
+	}
+
+	@Test
+	void jobReportedBothWaysCountsAsPrinted() {
+		UUID job = UUID.randomUUID();
+		when(jobRepository.completeJobs(eq(MERCHANT), eq(SECRET), eq(Set.of(job)), any())).thenReturn(1);
+		when(retryService.failAll(MERCHANT, SECRET, Collections.emptyMap())).thenReturn(List.of());
+
+		controller.updateJobStatuses(deviceRequest(), List.of(
+				new PrintJobAckDto(job, "failed", "Paper out"),
+				new PrintJobAckDto(job, "success", null)));
+
+		verify(retryService).failAll(MERCHANT, SECRET, Collections.emptyMap());
+	}
+
+	@Test
+	void unknownStatusRejectsTheWholeBatch() {
+		ResponseEntity<?> response = controller.updateJobStatuses(deviceRequest(), List.of(
+				new PrintJobAckDto(UUID.randomUUID(), "success", null),
+				new PrintJobAckDto(UUID.randomUUID(), "printing", null)));
+
+		assertEquals(400, response.getStatusCode().value());
+		verifyNoInteractions(jobRepository);
+		verify(retryService, never()).failAll(any(), any(), anyMap());
+	}
+
+	@Test
+	void requestWithoutADeviceIsUnauthorized() {
+		ResponseEntity<?> response = controller.updateJobStatuses(new MockHttpServletRequest(), List.of());
+
+		assertEquals(401, response.getStatusCode().value());
+		verifyNoInteractions(jobRepository, retryService);
+	}
+
+	@Test
+	void singleSuccessAckCompletesOnlyThisDevicesJob() {
+		PrintJob job = new PrintJob();
+		job.setId(UUID.randomUUID());
+		job.setStatus("success");
+		when(jobRepository.findByIdAndMerchantIdAndPrintDeviceId(job.getId(), MERCHANT, SECRET))
+				.thenReturn(Optional.of(job));
+
+		ResponseEntity<?> response = controller.updateJobStatus(deviceRequest(), job.getId(), Map.of("status", "success"));
+
+		assertEquals(200, response.getStatusCode().value());
+		assertSame(job, response.getBody());
+		verify(jobRepository).completeJobs(eq(MERCHANT), eq(SECRET), eq(Set.of(job.getId())), any());
+		verify(jobRepository, never()).save(any());
+	}
+
+	@Test
+	void singleAckForAnotherDevicesJobIsNotFound() {
+		UUID jobId = UUID.randomUUID();
+		when(jobRepository.findByIdAndMerchantIdAndPrintDeviceId(jobId, MERCHANT, SECRET)).thenReturn(Optional.empty());
+		when(retryService.fail(MERCHANT, SECRET, jobId, "Paper out")).thenReturn(Optional.empty());
+
+		assertEquals(404, controller.updateJobStatus(deviceRequest(), jobId, Map.of("status", "success"))
+				.getStatusCode().value());
+		assertEquals(404, controller.updateJobStatus(deviceRequest(), jobId,
+				Map.of("status", "failed", "error", "Paper out")).getStatusCode().value());
+		verify(jobRepository, never()).findById(any());
+	}
+
+	@Test
+	void singleAckAcceptsOnlySuccessOrFailed() {
+		ResponseEntity<?> response = controller.updateJobStatus(deviceRequest(), UUID.randomUUID(),
+				Map.of("status", "cancelled"));
+
+		assertEquals(400, response.getStatusCode().value());
+		verifyNoInteractions(jobRepository, retryService);
+	}
+
+	@Test
+	void singleAckWithoutADeviceIsUnauthorized() {
+		ResponseEntity<?> response = controller.updateJobStatus(new MockHttpServletRequest(), UUID.randomUUID(),
+				Map.of("status", "success"));
+
+		assertEquals(401, response.getStatusCode().value());
+		verifyNoInteractions(jobRepository, retryService);
+	}
+
+	private static MockHttpServletRequest deviceRequest() {
+		Merchant merchant = new Merchant();
+		merchant.setId(MERCHANT);
+		PrintDevice device = new PrintDevice();
+		device.setMerchant(merchant);
+		device.setApiSecret(SECRET);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute("print.device", device);
+		return request;
+	}
+}
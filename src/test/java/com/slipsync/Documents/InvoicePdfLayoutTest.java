@@ -0,0 +1,96 @@
+package com.slipsync.Documents;
+
+import com.slipsync.Entities.Invoice;
+import com.slipsync.Entities.Merchant;
+import com.slipsync.Entities.Order;
+import com.slipsync.Entities.OrderItem;
+import com.slipsync.Entities.Product;
+import com.slipsync.Entities.ProductVariant;
+import com.slipsync.Entities.Store;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.slipsync.Documents.SimplePdfWriterTest.assertStructure;
+import static com.slipsync.Documents.SimplePdfWriterTest.latin1;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvoicePdfLayoutTest {
+
+	private static final ZoneId UTC = ZoneId.of("UTC");
+	private static final ZoneId KARACHI = ZoneId.of("Asia/Karachi");
+
+	@Test
+	void shortInvoiceFitsOnOnePage() {
+		String doc = latin1(InvoicePdfLayout.render(invoice(), items(3), UTC, KARACHI));
+
+		assertStructure(doc, 1);
+		assertTrue(doc.contains("(Invoice #: INV-20261019-0042)"));
+		// 09:05 UTC is 14:05 in the store's zone
+		assertTrue(doc.contains("(Date: 2026-10-19 14:05)"));
+		assertTrue(doc.contains("(Page 1 of 1)"));
+	}
+
+	@Test
+	void longItemTableContinuesOnNewPagesWithHeaders() {
+		String doc = latin1(InvoicePdfLayout.render(invoice(), items(60), UTC, KARACHI));
+
+		assertStructure(doc, 3);
+		assertTrue(doc.contains("(Page 1 of 3)"));
+		assertTrue(doc.contains("(Page 3 of 3)"));
+		assertFalse(doc.contains("of 4)"));
+		// The table header is repeated on each page the items run onto
+		assertTrue(doc.split("\\(Product\\) Tj", -1).length - 1 >= 2);
+		assertTrue(doc.contains("(Item 60)"));
+	}
+
+	@Test
+	void renderingIsDeterministic() {
+		assertArrayEquals(InvoicePdfLayout.render(invoice(), items(5), UTC, KARACHI),
+				InvoicePdfLayout.render(invoice(), items(5), UTC, KARACHI));
+	}
+
+	private static Invoice invoice() {
+		Merchant merchant = new Merchant();
+		merchant.setName("Acme Retail");
+		Store store = new Store();
+		store.setName("Acme Gulberg");
+		Order order = new Order();
+		order.setOrderNumber("ORD-20261019-0042");
+		order.setSubtotal(new BigDecimal("1000.00"));
+		order.setDiscountsTotal(BigDecimal.ZERO);
+		order.setTaxesTotal(BigDecimal.ZERO);
+		Invoice invoice = new Invoice();
+		invoice.setInvoiceNumber("INV-20261019-0042");
+		invoice.setIssuedAt(LocalDateTime.of(2026, 10, 19, 9, 5));
+		invoice.setTotal(new BigDecimal("1000.00"));
+		invoice.setMerchant(merchant);
+		invoice.setStore(store);
+		invoice.setOrder(order);
+		return invoice;
+	}
+
+	private static List<OrderItem> items(int count) {
+		List<OrderItem> items = new ArrayList<>(count);
+		for (int i = 1; i <= count; i++) {
+			Product product = new Product();
+			product.setName("Item " + i);
+			ProductVariant variant = new ProductVariant();
+			variant.setProduct(product);
+			variant.setSku("SKU-" + i);
+			OrderItem item = new OrderItem();
+			item.setVariant(variant);
+			item.setQuantity(1);
+			item.setUnitPrice(new BigDecimal("10.00"));
+			item.setTotalPrice(new BigDecimal("10.00"));
+			items.add(item);
+		}
+		return items;
+	}
+}
@@ -0,0 +1,169 @@
+package com.slipsync.Documents;
+
+import com.slipsync.DTO.ReceiptPayloadDto;
+import com.slipsync.DTO.ReceiptPayloadDto.Header;
+import com.slipsync.DTO.ReceiptPayloadDto.Line;
+import com.slipsync.DTO.ReceiptPayloadDto.Totals;
+import com.slipsync.Services.ReceiptRenderService;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Locks down the ESC/POS bytes produced for receipts. Golden files are hex dumps under
+ * src/test/resources/receipts/golden; after an intended output change, regenerate them with
+ * mvn test -Dtest=ReceiptTemplateGoldenTest -Dgolden.update=true and review the diff.
+ */
+class ReceiptTemplateGoldenTest {
+
+	private static final Path GOLDEN_DIR = Paths.get("src/test/resources/receipts/golden");
+
+	@Test
+	void defaultTemplateFullReceipt() throws IOException {
+		ReceiptTemplate template = ReceiptTemplate.compile(ReceiptRenderService.loadDefaultSource());
+		ReceiptPayloadDto receipt = new ReceiptPayloadDto(ReceiptPayloadDto.VERSION,
+				new Header("Acme Retail", "Acme Gulberg", "12 Main Boulevard, Lahore", "+92 42 1234567",
+						"ORD-20261019-0042", "INV-20261019-0042", "2026-10-19 14:05", "Ayesha Khan"),
+				List.of(
+						new Line("Green Tea 250g", "GT-250", 2, new BigDecimal("450.00"), BigDecimal.ZERO,
+								new BigDecimal("72.00"), new BigDecimal("900.00")),
+						new Line("Extra Long Product Name That Does Not Fit On One Receipt Line", "XL-1", 1,
+								new BigDecimal("1299.99"), new BigDecimal("100.00"), BigDecimal.ZERO,
+								new BigDecimal("1199.99")),
+						new Line("Biscuits", null, 12, new BigDecimal("35.50"), BigDecimal.ZERO, BigDecimal.ZERO,
+								new BigDecimal("426.00"))),
+				new Totals(new BigDecimal("2625.99"), new BigDecimal("100.00"), new BigDecimal("72.00"),
+						new BigDecimal("2597.99"), "PKR"),
+				"Thank you for your purchase!");
+
+		assertGolden("default-full", template.render(receipt, null));
+	}
+
+	@Test
+	void defaultTemplateSkipsEmptyOptionalLines() throws IOException {
+		ReceiptTemplate template = ReceiptTemplate.compile(ReceiptRenderService.loadDefaultSource());
+		ReceiptPayloadDto receipt = new ReceiptPayloadDto(ReceiptPayloadDto.VERSION,
+				new Header(null, "Corner Shop", null, null, "ORD-1", null, "2026-10-19 09:00", null),
+				List.of(new Line("Water 1.5L", "W-15", 1, new BigDecimal("80"), BigDecimal.ZERO, BigDecimal.ZERO,
+						new BigDecimal("80"))),
+				new Totals(new BigDecimal("80"), BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("80"), "PKR"),
+				null);
+
+		assertGolden("default-minimal", template.render(receipt, null));
+	}
+
+	@Test
+	void narrowTemplateWithDoubleSizeAndCodePage() throws IOException {
+		ReceiptTemplate template = ReceiptTemplate.compile("""
+				@width 32
+				@align center
+				@size 2
+				{storeName}
+				@size 1
+				Café crème ☕
+				@align left
+				@rule =
+				#{orderNumber}|{placedAt}
+				@items
+				@rule
+				Total due|{currency} {total}
+				@cut
+				""");
+		ReceiptPayloadDto receipt = new ReceiptPayloadDto(ReceiptPayloadDto.VERSION,
+				new Header("M", "Kiosk 7", null, null, "A-9", null, "2026-10-19 18:30", null),
+				List.of(new Line("Espresso", "ESP", 3, new BigDecimal("250"), BigDecimal.ZERO, BigDecimal.ZERO,
+						new BigDecimal("750"))),
+				new Totals(new BigDecimal("750"), BigDecimal.ZERO, BigDecimal.ZERO, new BigDecimal("750"), "PKR"),
+				null);
+
+		assertEquals(32, template.columns());
+		assertGolden("narrow-double-size", template.render(receipt, null));
+	}
+
+	@Test
+	void logoIsRasterizedIntoTheReceipt() throws IOException {
+		BufferedImage image = new BufferedImage(20, 6, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = image.createGraphics();
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, 20, 6);
+		g.setColor(Color.BLACK);
+		g.fillRect(2, 1, 12, 4);
+		g.dispose();
+
+		ReceiptTemplate template = ReceiptTemplate.compile("""
+				@align center
+				@logo
+				{storeName}
+				@cut
+				""");
+		byte[] logo = EscPosRaster.rasterize(image, template.widthDots());
+		ReceiptPayloadDto receipt = new ReceiptPayloadDto(ReceiptPayloadDto.VERSION,
+				new Header(null, "Logo Store", null, null, "L-1", null, null, null),
+				List.of(),
+				new Totals(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, "PKR"),
+				null);
+
+		assertTrue(template.usesLogo());
+		assertGolden("logo", template.render(receipt, logo));
+	}
+
+	@Test
+	void compileRejectsUnknownDirectivesAndFields() {
+		IllegalArgumentException directive = assertThrows(IllegalArgumentException.class,
+				() -> ReceiptTemplate.compile("@align center\n@barcode 123\n"));
+		assertEquals("Template line 2: unknown directive @barcode", directive.getMessage());
+
+		IllegalArgumentException field = assertThrows(IllegalArgumentException.class,
+				() -> ReceiptTemplate.compile("Hello {cashierName}\n"));
+		assertEquals("Template line 1: unknown field {cashierName}", field.getMessage());
+	}
+
+	private void assertGolden(String name, byte[] actual) throws IOException {
+		String dump = hexDump(actual);
+		Path golden = GOLDEN_DIR.resolve(name + ".hex");
+		if (Boolean.getBoolean("golden.update")) {
+			Files.createDirectories(GOLDEN_DIR);
+			Files.writeString(golden, dump, StandardCharsets.UTF_8);
+			return;
+		}
+		try (InputStream in = getClass().getResourceAsStream("/receipts/golden/" + name + ".hex")) {
+			assertTrue(in != null, "Missing golden file " + golden + " (run with -Dgolden.update=true)");
+			assertEquals(new String(in.readAllBytes(), StandardCharsets.UTF_8), dump,
+					"ESC/POS output for '" + name + "' differs from " + golden);
+		}
+	}
+
+	// 16 bytes per row: offset, hex, then printable ASCII, so a diff shows where and what changed
+	private static String hexDump(byte[] bytes) {
+		StringBuilder dump = new StringBuilder();
+		for (int offset = 0; offset < bytes.length; offset += 16) {
+			dump.append(String.format("%08x ", offset));
+			StringBuilder text = new StringBuilder();
+			for (int i = offset; i < offset + 16; i++) {
+				if (i < bytes.length) {
+					int b = bytes[i] & 0xFF;
+					dump.append(String.format(" %02x", b));
+					text.append(b >= 0x20 && b < 0x7F ? (char) b : '.');
+				} else {
+					dump.append("   ");
+				}
+			}
+			dump.append("  |").append(text).append("|\n");
+		}
+		return dump.toString();
+	}
+}
@@ -0,0 +1,110 @@
+package com.slipsync.Documents;
+
+import com.slipsync.Documents.SimplePdfWriter.Align;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Structural checks on the writer's output: the cross-reference table and stream lengths
+ * must point at the right bytes, or viewers fall back to repairing the file.
+ */
+class SimplePdfWriterTest {
+
+	private static final Pattern STARTXREF = Pattern.compile("startxref\n(\\d+)\n%%EOF\n$");
+	private static final Pattern XREF_SIZE = Pattern.compile("xref\n0 (\\d+)\n");
+	private static final Pattern STREAM = Pattern.compile("/Length (\\d+) >>\nstream\n");
+
+	@Test
+	void singlePageHasValidStructure() {
+		SimplePdfWriter pdf = new SimplePdfWriter();
+		pdf.text("Hello", 20f, 20f, 10f, false, 0f, Align.LEFT);
+		pdf.line(20f, 190f, 25f, 0.5f);
+
+		String doc = latin1(pdf.toBytes());
+
+		assertTrue(doc.startsWith("%PDF-1.4\n"));
+		assertStructure(doc, 1);
+		assertTrue(doc.contains("(Hello) Tj"));
+	}
+
+	@Test
+	void everyPageIsListedAndReachable() {
+		SimplePdfWriter pdf = new SimplePdfWriter();
+		pdf.newPage();
+		pdf.newPage();
+		for (int i = 0; i < pdf.pageCount(); i++) {
+			pdf.selectPage(i);
+			pdf.text("Page " + (i + 1), 105f, 285f, 8f, false, 0.4f, Align.CENTER);
+		}
+
+		String doc = latin1(pdf.toBytes());
+
+		assertStructure(doc, 3);
+		assertTrue(doc.contains("/Kids [5 0 R 7 0 R 9 0 R] /Count 3"));
+		assertTrue(doc.indexOf("(Page 1)") < doc.indexOf("(Page 2)"));
+		assertTrue(doc.indexOf("(Page 2)") < doc.indexOf("(Page 3)"));
+	}
+
+	@Test
+	void escapesDelimitersAndReplacesUnencodableCharacters() {
+		SimplePdfWriter pdf = new SimplePdfWriter();
+		pdf.text("a (b) c\\d €", 20f, 20f, 10f, false, 0f, Align.LEFT);
+
+		String doc = latin1(pdf.toBytes());
+
+		assertTrue(doc.contains("(a \\(b\\) c\\\\d ?) Tj"));
+		assertStructure(doc, 1);
+	}
+
+	@Test
+	void sameContentGivesSameBytes() {
+		assertArrayEquals(sample().toBytes(), sample().toBytes());
+	}
+
+	private static SimplePdfWriter sample() {
+		SimplePdfWriter pdf = new SimplePdfWriter();
+		pdf.text("Total:", 130f, 100f, 12f, true, 0f, Align.LEFT);
+		pdf.text("PKR 1,250.00", 190f, 100f, 12f, true, 0f, Align.RIGHT);
+		return pdf;
+	}
+
+	/** Checks the xref offsets, the object count and every stream's /Length. */
+	static void assertStructure(String doc, int pages) {
+		Matcher startxref = STARTXREF.matcher(doc);
+		assertTrue(startxref.find(), "trailer ends with startxref and %%EOF");
+		int xref = Integer.parseInt(startxref.group(1));
+		assertTrue(doc.startsWith("xref\n", xref), "startxref points at the xref table");
+
+		Matcher size = XREF_SIZE.matcher(doc);
+		assertTrue(size.find(xref));
+		int objects = Integer.parseInt(size.group(1));
+		// Catalog, page tree, two fonts, then a page and a content stream per page
+		assertEquals(5 + pages * 2, objects);
+		int entry = size.end() + 20;
+		for (int id = 1; id < objects; id++, entry += 20) {
+			int offset = Integer.parseInt(doc.substring(entry, entry + 10));
+			assertTrue(doc.startsWith(id + " 0 obj\n", offset), "xref entry " + id + " points at its object");
+		}
+		assertTrue(doc.contains("/Size " + objects + " /Root 1 0 R"));
+
+		Matcher stream = STREAM.matcher(doc);
+		int streams = 0;
+		while (stream.find()) {
+			int end = stream.end() + Integer.parseInt(stream.group(1));
+			assertTrue(doc.startsWith("\nendstream\n", end), "stream length matches its content");
+			streams++;
+		}
+		assertEquals(pages, streams);
+	}
+
+	static String latin1(byte[] bytes) {
+		return new String(bytes, StandardCharsets.ISO_8859_1);
+	}
+}
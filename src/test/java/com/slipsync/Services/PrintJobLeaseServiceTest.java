@@ -0,0 +1,84 @@
+package com.slipsync.Services;
+
+import com.slipsync.Entities.PrintJob;
+import com.slipsync.Repositories.PrintJobRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrintJobLeaseServiceTest {
+
+	private static final String DEVICE = "device-secret";
+
+	private final PrintJobRepository jobRepository = mock(PrintJobRepository.class);
+	private final PrintJobLeaseService leases = new PrintJobLeaseService(jobRepository, 60, 20);
+
+	@Test
+	void claimLeasesQueuedJobsUntilTheLeaseRunsOut() {
+		List<PrintJob> claimed = List.of(new PrintJob());
+		when(jobRepository.claimJobs(eq(DEVICE), any(), eq(5), eq(false))).thenReturn(claimed);
+		LocalDateTime before = LocalDateTime.now();
+
+		assertSame(claimed, leases.claim(DEVICE, 5));
+
+		ArgumentCaptor<LocalDateTime> leaseUntil = ArgumentCaptor.forClass(LocalDateTime.class);
+		verify(jobRepository).claimJobs(eq(DEVICE), leaseUntil.capture(), eq(5), eq(false));
+		assertFalse(leaseUntil.getValue().isBefore(before.plusSeconds(60)));
+		assertTrue(leaseUntil.getValue().isBefore(LocalDateTime.now().plusSeconds(61)));
+	}
+
+	@Test
+	void claimIsCappedAtMaxClaim() {
+		leases.claim(DEVICE, 500);
+
+		verify(jobRepository).claimJobs(eq(DEVICE), any(), eq(20), eq(false));
+		assertEquals(20, leases.maxClaim());
+	}
+
+	@Test
+	void reclaimAlsoReissuesTheDevicesOwnLeases() {
+		leases.reclaim(DEVICE, 10);
+
+		verify(jobRepository).claimJobs(eq(DEVICE), any(), eq(10), eq(true));
+	}
+
+	@Test
+	void nothingIsClaimedWithoutADeviceOrRoom() {
+		assertTrue(leases.claim(null, 5).isEmpty());
+		assertTrue(leases.claim(DEVICE, 0).isEmpty());
+
+		verify(jobRepository, never()).claimJobs(anyString(), any(), anyInt(), anyBoolean());
+	}
+
+	@Test
+	void unclaimReturnsTheClaimedJobsUnderTheirOwnLease() {
+		LocalDateTime leaseUntil = LocalDateTime.now().plusSeconds(60);
+		PrintJob first = new PrintJob();
+		first.setId(UUID.randomUUID());
+		first.setLeaseExpiresAt(leaseUntil);
+		PrintJob second = new PrintJob();
+		second.setId(UUID.randomUUID());
+		second.setLeaseExpiresAt(leaseUntil);
+
+		leases.unclaim(DEVICE, List.of(first, second));
+
+		verify(jobRepository).unclaimJobs(DEVICE, List.of(first.getId(), second.getId()), leaseUntil);
+	}
+}
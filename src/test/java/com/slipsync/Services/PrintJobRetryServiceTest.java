@@ -0,0 +1,194 @@
+package com.slipsync.Services;
+
+import com.slipsync.Entities.Merchant;
+import com.slipsync.Entities.PrintJob;
+import com.slipsync.Entities.Store;
+import com.slipsync.Events.PrintJobQueuedEvent;
+import com.slipsync.Repositories.PrintJobRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Retry state transitions as driven by the service. The backoff and dead-letter arithmetic
+ * itself lives in the repository's FAIL_ATTEMPT statement.
+ */
+class PrintJobRetryServiceTest {
+
+	private final PrintJobRepository jobRepository = mock(PrintJobRepository.class);
+	private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+	private final PrintJobRouter router = mock(PrintJobRouter.class);
+	private final PrintJobRetryService retries = new PrintJobRetryService(jobRepository, eventPublisher, router, 5, 15, 900);
+
+	@Test
+	void failReturnsTheRowAsUpdated() {
+		PrintJob retrying = job("retrying", "device-a", null);
+		when(jobRepository.failJob(eq("merchant-1"), eq("device-a"), eq(retrying.getId()), eq("Paper out"), any(),
+				eq(5), eq(15.0), eq(900.0)))
+				.thenReturn(List.of(retrying));
+
+		assertSame(retrying, retries.fail("merchant-1", "device-a", retrying.getId(), "Paper out").orElseThrow());
+		verify(jobRepository, never()).findByIdAndMerchantIdAndPrintDeviceId(any(), any(), any());
+	}
+
+	@Test
+	void failOnAJobNoLongerLeasedLeavesItAsItIs() {
+		PrintJob printed = job("success", "device-a", null);
+		when(jobRepository.failJob(any(), any(), any(), any(), any(), anyInt(), anyDouble(), anyDouble()))
+				.thenReturn(List.of());
+		when(jobRepository.findByIdAndMerchantIdAndPrintDeviceId(printed.getId(), "merchant-1", "device-a"))
+				.thenReturn(Optional.of(printed));
+
+		assertEquals("success", retries.fail("merchant-1", "device-a", printed.getId(), "late failure")
+				.orElseThrow().getStatus());
+	}
+
+	@Test
+	void failNeverReturnsAnotherDevicesJob() {
+		UUID jobId = UUID.randomUUID();
+		when(jobRepository.failJob(any(), any(), any(), any(), any(), anyInt(), anyDouble(), anyDouble()))
+				.thenReturn(List.of());
+		when(jobRepository.findByIdAndMerchantIdAndPrintDeviceId(jobId, "merchant-1", "device-b"))
+				.thenReturn(Optional.empty());
+
+		assertTrue(retries.fail("merchant-1", "device-b", jobId, "Paper out").isEmpty());
+		verify(jobRepository, never()).findById(any());
+	}
+
+	@Test
+	void failAllPairsJobsWithTheirErrorsByPosition() {
+		Map<UUID, String> errors = new LinkedHashMap<>();
+		UUID first = UUID.randomUUID();
+		UUID second = UUID.randomUUID();
+		errors.put(first, "Paper out");
+		errors.put(second, "Cover open");
+
+		retries.failAll("merchant-1", "device-a", errors);
+
+		verify(jobRepository).failJobs(eq("merchant-1"), eq("device-a"),
+				eq(new String[]{first.toString(), second.toString()}),
+				eq(new String[]{"Paper out", "Cover open"}),
+				any(), eq(5), eq(15.0), eq(900.0));
+	}
+
+	@Test
+	void failAllWithNothingToFailSkipsTheStatement() {
+		assertTrue(retries.failAll("merchant-1", "device-a", Map.of()).isEmpty());
+		verify(jobRepository, never()).failJobs(any(), any(), any(), any(), any(), anyInt(), anyDouble(), anyDouble());
+	}
+
+	@Test
+	void expiredStoreQueueLeaseFailsOverAwayFromItsDevice() {
+		PrintJob expired = job("retrying", "device-a", "kitchen");
+		when(jobRepository.failExpiredLeases(any(), eq(100), eq(5), eq(15.0), eq(900.0))).thenReturn(List.of(expired));
+		when(jobRepository.releaseDueRetries(any(), eq(100))).thenReturn(List.of());
+
+		retries.sweep();
+
+		verify(router).reroute(expired, "retrying", "device-a");
+	}
+
+	@Test
+	void deadLetteredLeaseIsNotRerouted() {
+		PrintJob dead = job(PrintJobRetryService.DEAD, "device-a", "kitchen");
+		when(jobRepository.failExpiredLeases(any(), anyInt(), anyInt(), anyDouble(), anyDouble())).thenReturn(List.of(dead));
+		when(jobRepository.releaseDueRetries(any(), anyInt())).thenReturn(List.of());
+
+		retries.sweep();
+
+		verify(router, never()).reroute(any(), any(), any());
+	}
+
+	@Test
+	void dueRetriesAreRoutedOrWokenOnTheirDevice() {
+		PrintJob storeQueue = job("queued", "device-a", "receipt");
+		PrintJob direct = job("queued", "device-b", null);
+		when(jobRepository.failExpiredLeases(any(), anyInt(), anyInt(), anyDouble(), anyDouble())).thenReturn(List.of());
+		when(jobRepository.releaseDueRetries(any(), eq(100))).thenReturn(List.of(storeQueue, direct));
+		when(router.reroute(storeQueue, "queued", null)).thenReturn(true);
+
+		retries.sweep();
+
+		verify(eventPublisher, never()).publishEvent(new PrintJobQueuedEvent(storeQueue.getId(), "device-a"));
+		verify(eventPublisher).publishEvent(new PrintJobQueuedEvent(direct.getId(), "device-b"));
+	}
+
+	@Test
+	void sweepKeepsGoingWhileBatchesAreFull() {
+		List<PrintJob> full = new ArrayList<>(Collections.nCopies(100, job("retrying", "device-a", null)));
+		when(jobRepository.failExpiredLeases(any(), anyInt(), anyInt(), anyDouble(), anyDouble()))
+				.thenReturn(full)
+				.thenReturn(List.of());
+		when(jobRepository.releaseDueRetries(any(), anyInt())).thenReturn(List.of());
+
+		retries.sweep();
+
+		verify(jobRepository, times(2)).failExpiredLeases(any(), anyInt(), anyInt(), anyDouble(), anyDouble());
+	}
+
+	@Test
+	void replayStartsOverAndRoutesStoreQueueJobsAfresh() {
+		PrintJob dead = job(PrintJobRetryService.DEAD, "device-a", "kitchen");
+		dead.setAttempts(5);
+		dead.setError("Lease expired without an ack");
+		dead.setCompletedAt(LocalDateTime.now());
+		when(router.pickDevice("merchant-1", dead.getStore().getId(), "kitchen", null)).thenReturn(Optional.of("device-c"));
+		when(jobRepository.save(dead)).thenReturn(dead);
+
+		PrintJob replayed = retries.replay(dead);
+
+		assertEquals("queued", replayed.getStatus());
+		assertEquals(0, replayed.getAttempts());
+		assertNull(replayed.getError());
+		assertNull(replayed.getCompletedAt());
+		assertEquals("device-c", replayed.getPrintDeviceId());
+		verify(eventPublisher).publishEvent(new PrintJobQueuedEvent(dead.getId(), "device-c"));
+	}
+
+	@Test
+	void replayWithNoLiveDeviceLeavesTheJobUnassigned() {
+		PrintJob dead = job(PrintJobRetryService.DEAD, "device-a", "kitchen");
+		when(router.pickDevice(any(), any(), any(), isNull())).thenReturn(Optional.empty());
+		when(jobRepository.save(dead)).thenReturn(dead);
+
+		assertNull(retries.replay(dead).getPrintDeviceId());
+	}
+
+	private static PrintJob job(String status, String deviceSecret, String role) {
+		Merchant merchant = new Merchant();
+		merchant.setId("merchant-1");
+		Store store = new Store();
+		store.setId(UUID.randomUUID());
+		PrintJob job = new PrintJob();
+		job.setId(UUID.randomUUID());
+		job.setMerchant(merchant);
+		job.setStore(store);
+		job.setStatus(status);
+		job.setPrintDeviceId(deviceSecret);
+		job.setTargetRole(role);
+		return job;
+	}
+}
@@ -0,0 +1,161 @@
+package com.slipsync.Services;
+
+import com.slipsync.Entities.Merchant;
+import com.slipsync.Entities.PrintJob;
+import com.slipsync.Entities.Store;
+import com.slipsync.Events.PrintJobQueuedEvent;
+import com.slipsync.Repositories.PrintJobRepository;
+import com.slipsync.Services.DeviceHeartbeatRegistry.Beat;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrintJobRouterTest {
+
+	private static final String MERCHANT = "merchant-1";
+	private static final UUID STORE = UUID.randomUUID();
+	private static final LocalDateTime NOW = LocalDateTime.now();
+
+	private final DeviceHeartbeatRegistry registry = mock(DeviceHeartbeatRegistry.class);
+	private final PrintJobRepository jobRepository = mock(PrintJobRepository.class);
+	private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+	private final PrintJobRouter router = new PrintJobRouter(registry, jobRepository, eventPublisher);
+
+	@Test
+	void picksTheDeviceWithFewestOpenJobs() {
+		liveKitchen(beat("busy", 5), beat("idle", 30));
+		openJobs(row("busy", 4), row("idle", 1));
+
+		assertEquals(Optional.of("idle"), router.pickDevice(MERCHANT, STORE, "kitchen", null));
+	}
+
+	@Test
+	void tieGoesToTheDeviceHeardFromMostRecently() {
+		liveKitchen(beat("older", 20), beat("newer", 2));
+		openJobs(row("older", 1), row("newer", 1));
+
+		assertEquals(Optional.of("newer"), router.pickDevice(MERCHANT, STORE, "kitchen", null));
+	}
+
+	@Test
+	void excludedDeviceIsNeverPicked() {
+		liveKitchen(beat("expired", 1), beat("other", 20));
+		openJobs(row("other", 9));
+
+		assertEquals(Optional.of("other"), router.pickDevice(MERCHANT, STORE, "kitchen", "expired"));
+	}
+
+	@Test
+	void noLiveDeviceMeansNoRoute() {
+		liveKitchen();
+
+		assertTrue(router.pickDevice(MERCHANT, STORE, "kitchen", null).isEmpty());
+		assertFalse(router.reroute(job(), "retrying", "expired"));
+		verify(jobRepository, never()).countOpenJobs(anyCollection());
+		verify(jobRepository, never()).assign(any(), anyString(), anyString());
+	}
+
+	@Test
+	void rerouteAssignsAndWakesTheDevice() {
+		PrintJob job = job();
+		job.setStatus("retrying");
+		liveKitchen(beat("spare", 3));
+		openJobs();
+		when(jobRepository.assign(job.getId(), "spare", "retrying")).thenReturn(1);
+
+		assertTrue(router.reroute(job, "retrying", "expired"));
+
+		assertEquals("spare", job.getPrintDeviceId());
+		assertEquals("queued", job.getStatus());
+		verify(eventPublisher).publishEvent(new PrintJobQueuedEvent(job.getId(), "spare"));
+	}
+
+	@Test
+	void dispatchSpreadsWaitingJobsByCountingItsOwnPicks() {
+		PrintJob first = job();
+		PrintJob second = job();
+		when(registry.liveStoresByRole()).thenReturn(Map.of("kitchen", Set.of(STORE)));
+		when(jobRepository.findUnassigned(eq(Set.of(STORE)), eq("kitchen"), isNull(), isNull(), any()))
+				.thenReturn(List.of(first, second));
+		liveKitchen(beat("a", 1), beat("b", 2));
+		openJobs();
+		when(jobRepository.assign(any(), anyString(), eq("queued"))).thenReturn(1);
+
+		router.dispatchUnassigned();
+
+		assertEquals("a", first.getPrintDeviceId());
+		assertEquals("b", second.getPrintDeviceId());
+		// Load counts are read once for the store and role, not per job
+		verify(jobRepository).countOpenJobs(anyCollection());
+	}
+
+	@Test
+	void dispatchOnlyQueriesRolesWithALiveDevice() {
+		when(registry.liveStoresByRole()).thenReturn(Map.of("kitchen", Set.of(STORE)));
+		when(jobRepository.findUnassigned(any(), any(), any(), any(), any())).thenReturn(List.of());
+
+		router.dispatchUnassigned();
+
+		verify(jobRepository).findUnassigned(eq(Set.of(STORE)), eq("kitchen"), isNull(), isNull(), any());
+		verify(jobRepository, never()).findUnassigned(any(), eq("receipt"), any(), any(), any());
+		verify(jobRepository, never()).findUnassigned(any(), eq("label"), any(), any(), any());
+	}
+
+	@Test
+	void dispatchWithNoLiveStoresDoesNotQuery() {
+		when(registry.liveStoresByRole()).thenReturn(Map.of());
+
+		router.dispatchUnassigned();
+
+		verify(jobRepository, never()).findUnassigned(any(), any(), any(), any(), any());
+	}
+
+	private void liveKitchen(Beat... beats) {
+		when(registry.liveDevices(MERCHANT, STORE, "kitchen")).thenReturn(List.of(beats));
+	}
+
+	private void openJobs(Object[]... rows) {
+		when(jobRepository.countOpenJobs(anyCollection())).thenReturn(List.of(rows));
+	}
+
+	private static Object[] row(String secret, long open) {
+		return new Object[]{secret, open};
+	}
+
+	private static Beat beat(String secret, long secondsAgo) {
+		return new Beat("id-" + secret, secret, secret, MERCHANT, STORE, "kitchen", NOW.minusSeconds(secondsAgo));
+	}
+
+	private static PrintJob job() {
+		Merchant merchant = new Merchant();
+		merchant.setId(MERCHANT);
+		Store store = new Store();
+		store.setId(STORE);
+		PrintJob job = new PrintJob();
+		job.setId(UUID.randomUUID());
+		job.setMerchant(merchant);
+		job.setStore(store);
+		job.setTargetRole("kitchen");
+		job.setCreatedAt(NOW);
+		return job;
+	}
+}
@@ -0,0 +1,77 @@
+package com.slipsync.Services;
+
+import com.slipsync.Entities.PrintJob;
+import com.slipsync.Events.PrintJobQueuedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PrintJobWaitServiceTest {
+
+	private static final String DEVICE = "device-secret";
+
+	private final PrintJobLeaseService leaseService = mock(PrintJobLeaseService.class);
+	private final PrintJobWaitService waits = new PrintJobWaitService(leaseService, 30);
+
+	@Test
+	void queuedJobIsHandedToTheParkedPoll() {
+		when(leaseService.claim(eq(DEVICE), anyInt())).thenReturn(List.of());
+		DeferredResult<List<PrintJob>> poll = waits.awaitJobs(DEVICE, 30, 5);
+
+		List<PrintJob> jobs = List.of(new PrintJob());
+		when(leaseService.claim(eq(DEVICE), anyInt())).thenReturn(jobs);
+		waits.onPrintJobQueued(new PrintJobQueuedEvent(UUID.randomUUID(), DEVICE));
+
+		assertSame(jobs, poll.getResult());
+		verify(leaseService, never()).unclaim(anyString(), anyList());
+	}
+
+	@Test
+	void nothingIsClaimedWhenEveryParkedPollHasAlreadyBeenAnswered() {
+		when(leaseService.claim(eq(DEVICE), anyInt())).thenReturn(List.of());
+		DeferredResult<List<PrintJob>> poll = waits.awaitJobs(DEVICE, 30, 5);
+		// Stands in for the timeout answering the poll without the completion callback having run yet
+		poll.setResult(List.of());
+		assertTrue(poll.isSetOrExpired());
+
+		waits.onPrintJobQueued(new PrintJobQueuedEvent(UUID.randomUUID(), DEVICE));
+
+		verify(leaseService, times(1)).claim(eq(DEVICE), anyInt());
+	}
+
+	@Test
+	void claimRacingAWakeUpIsHandedBack() {
+		List<PrintJob> jobs = List.of(new PrintJob());
+		AtomicInteger claims = new AtomicInteger();
+		when(leaseService.claim(eq(DEVICE), anyInt())).thenAnswer(invocation -> {
+			if (claims.incrementAndGet() == 1) {
+				// A job commits after the poll registered but before its own claim returns;
+				// the wake-up finds nothing left to claim and answers the poll empty
+				waits.onPrintJobQueued(new PrintJobQueuedEvent(UUID.randomUUID(), DEVICE));
+				return jobs;
+			}
+			return List.of();
+		});
+
+		DeferredResult<List<PrintJob>> poll = waits.awaitJobs(DEVICE, 30, 5);
+
+		assertEquals(List.of(), poll.getResult());
+		verify(leaseService).unclaim(DEVICE, jobs);
+	}
+}
@@ -0,0 +1,141 @@
+package com.slipsync.Services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.slipsync.DTO.ReportJobRequestDto;
+import com.slipsync.Entities.Merchant;
+import com.slipsync.Entities.ReportJob;
+import com.slipsync.Entities.User;
+import com.slipsync.Repositories.ReportJobRepository;
+import com.slipsync.Repositories.StoreRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Dispatch of queued report jobs: global and per-merchant running caps, round-robin
+ * across merchants and the per-merchant queue cap. Workers are captured instead of run,
+ * so each test decides when a job finishes.
+ */
+class ReportJobServiceTest {
+
+	private final ReportJobRepository jobRepository = mock(ReportJobRepository.class);
+	private final Deque<Runnable> workers = new ArrayDeque<>();
+	private final Map<UUID, String> merchantOfJob = new HashMap<>();
+	private final List<String> started = new ArrayList<>();
+
+	@Test
+	void runsOneJobPerMerchantAndRotatesBetweenMerchants() {
+		ReportJobService service = service(2, 1, 20);
+		User alice = user("merchant-a");
+		User bob = user("merchant-b");
+
+		service.submit(alice, null, request());
+		service.submit(alice, null, request());
+		service.submit(bob, null, request());
+		assertEquals(2, workers.size(), "merchant-a's second job waits for its first");
+
+		finishNext();
+		finishNext();
+		finishNext();
+
+		assertEquals(List.of("merchant-a", "merchant-b", "merchant-a"), started);
+	}
+
+	@Test
+	void globalCapHoldsJobsUntilAWorkerIsReleased() {
+		ReportJobService service = service(1, 1, 20);
+		service.submit(user("merchant-a"), null, request());
+		service.submit(user("merchant-b"), null, request());
+		assertEquals(1, workers.size());
+
+		finishNext();
+
+		assertEquals(1, workers.size());
+		finishNext();
+		assertEquals(List.of("merchant-a", "merchant-b"), started);
+	}
+
+	@Test
+	void rejectsSubmissionsOverTheMerchantQueueCap() {
+		ReportJobService service = service(1, 1, 1);
+		User alice = user("merchant-a");
+
+		service.submit(alice, null, request());
+		service.submit(alice, null, request());
+
+		assertThrows(RejectedExecutionException.class, () -> service.submit(alice, null, request()));
+		assertDoesNotThrow(() -> service.submit(user("merchant-b"), null, request()));
+	}
+
+	@Test
+	void failedSaveGivesBackItsQueuePlace() {
+		ReportJobService service = service(0, 1, 1);
+		User alice = user("merchant-a");
+		doThrow(new IllegalStateException("connection lost")).when(jobRepository).save(any());
+
+		assertThrows(IllegalStateException.class, () -> service.submit(alice, null, request()));
+
+		stubSave();
+		assertDoesNotThrow(() -> service.submit(alice, null, request()));
+	}
+
+	private ReportJobService service(int maxRunning, int maxRunningPerMerchant, int maxQueuedPerMerchant) {
+		stubSave();
+		when(jobRepository.findById(any())).thenAnswer(invocation -> {
+			started.add(merchantOfJob.get(invocation.<UUID>getArgument(0)));
+			// A missing row ends the run straight away and releases the worker slot
+			return Optional.empty();
+		});
+		TaskExecutor jobExecutor = workers::addLast;
+		return new ReportJobService(jobRepository, mock(StoreRepository.class), mock(ReportFileStore.class),
+				mock(SalesReportService.class), mock(SalesExportService.class), mock(EmployeeSalesReportService.class),
+				new ObjectMapper().findAndRegisterModules(), Runnable::run, jobExecutor,
+				maxRunning, maxRunningPerMerchant, maxQueuedPerMerchant, 24);
+	}
+
+	private void stubSave() {
+		doAnswer(invocation -> {
+			ReportJob job = invocation.getArgument(0);
+			job.setId(UUID.randomUUID());
+			merchantOfJob.put(job.getId(), job.getMerchant().getId());
+			return job;
+		}).when(jobRepository).save(any());
+	}
+
+	private void finishNext() {
+		workers.pollFirst().run();
+	}
+
+	private static User user(String merchantId) {
+		Merchant merchant = new Merchant();
+		merchant.setId(merchantId);
+		User user = new User();
+		user.setId(UUID.randomUUID());
+		user.setMerchant(merchant);
+		return user;
+	}
+
+	private static ReportJobRequestDto request() {
+		return new ReportJobRequestDto(ReportJobService.TYPE_SALES_RANGE, null,
+				LocalDate.of(2026, 10, 1), LocalDate.of(2026, 10, 18), List.of(), false);
+	}
+}
@@ -0,0 +1,101 @@
+package com.slipsync.Services;
+
+import com.slipsync.Entities.StoreHourlySketch;
+import com.slipsync.Events.OrderChangedEvent;
+import com.slipsync.Repositories.StoreHourlySketchRepository;
+import com.slipsync.Repositories.StoreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Flushes must be retryable: a rolled-back attempt may not fold the stored row into the
+ * pending accumulator, or the next attempt counts the row twice.
+ */
+class SalesSketchServiceTest {
+
+	private static final UUID STORE_ID = UUID.randomUUID();
+	private static final LocalDateTime HOUR = LocalDateTime.of(2026, 10, 19, 14, 0);
+
+	private StoreHourlySketchRepository sketchRepository;
+	private SalesSketchService service;
+
+	@BeforeEach
+	void setUp() {
+		sketchRepository = mock(StoreHourlySketchRepository.class);
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		service = new SalesSketchService(sketchRepository, mock(StoreRepository.class), transactionManager);
+		// Each transaction reads the row as committed, like a fresh persistence context would
+		when(sketchRepository.findForUpdate(STORE_ID, HOUR)).thenAnswer(invocation -> Optional.of(storedRow()));
+	}
+
+	@Test
+	void failedFlushIsRetriedWithoutCountingTheRowTwice() {
+		service.onOrderChanged(placedOrder());
+		when(sketchRepository.saveAndFlush(any()))
+				.thenThrow(new QueryTimeoutException("statement timeout"))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+
+		service.flush();
+		service.flush();
+
+		ArgumentCaptor<StoreHourlySketch> saved = ArgumentCaptor.forClass(StoreHourlySketch.class);
+		verify(sketchRepository, times(2)).saveAndFlush(saved.capture());
+		assertEquals(6L, saved.getAllValues().get(1).getOrderCount());
+	}
+
+	@Test
+	void insertRaceRetryMergesIntoTheStoredRowOnce() {
+		service.onOrderChanged(placedOrder());
+		when(sketchRepository.saveAndFlush(any()))
+				.thenThrow(new DataIntegrityViolationException("duplicate key"))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+
+		service.flush();
+
+		ArgumentCaptor<StoreHourlySketch> saved = ArgumentCaptor.forClass(StoreHourlySketch.class);
+		verify(sketchRepository, times(2)).saveAndFlush(saved.capture());
+		assertEquals(6L, saved.getAllValues().get(1).getOrderCount());
+	}
+
+	@Test
+	void successfulFlushClearsPendingOrders() {
+		service.onOrderChanged(placedOrder());
+		when(sketchRepository.saveAndFlush(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+		service.flush();
+		service.flush();
+
+		verify(sketchRepository, times(1)).saveAndFlush(any());
+	}
+
+	private static StoreHourlySketch storedRow() {
+		StoreHourlySketch row = new StoreHourlySketch();
+		row.setBucketStart(HOUR);
+		row.setOrderCount(5L);
+		return row;
+	}
+
+	private static OrderChangedEvent placedOrder() {
+		return new OrderChangedEvent(STORE_ID, UUID.randomUUID(), OrderChangedEvent.PLACED, UUID.randomUUID(),
+				new BigDecimal("1250.00"), 3, "UTC", Instant.parse("2026-10-19T14:25:00Z"));
+	}
+}
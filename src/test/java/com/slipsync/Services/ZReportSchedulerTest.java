@@ -0,0 +1,63 @@
+package com.slipsync.Services;
+
+import com.slipsync.Entities.Store;
+import com.slipsync.Repositories.StoreDailyReportRepository;
+import com.slipsync.Repositories.StoreRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ZReportSchedulerTest {
+
+	private static final LocalDate YESTERDAY = LocalDate.of(2026, 3, 1);
+
+	private final StoreRepository storeRepository = mock(StoreRepository.class);
+	private final StoreDailyReportRepository dailyReportRepository = mock(StoreDailyReportRepository.class);
+	private final ZReportService zReportService = mock(ZReportService.class);
+
+	@Test
+	void rejectedStoresAreDeferredWhileTheRestOfTheBatchIsMaterialized() {
+		Store first = store();
+		Store second = store();
+		Store third = store();
+		when(storeRepository.findAllWithMerchant(any())).thenReturn(List.of(first, second, third));
+		when(zReportService.lastClosedDay(any())).thenReturn(YESTERDAY);
+		when(dailyReportRepository.findStoreIdsWithReport(any(), eq(YESTERDAY))).thenReturn(List.of());
+
+		// Runs tasks inline, but rejects the second submission as a saturated pool would
+		AtomicInteger submissions = new AtomicInteger();
+		TaskExecutor executor = task -> {
+			if (submissions.incrementAndGet() == 2) {
+				throw new TaskRejectedException("queue full");
+			}
+			task.run();
+		};
+		ZReportScheduler scheduler = new ZReportScheduler(storeRepository, dailyReportRepository,
+				zReportService, executor, 100);
+
+		assertDoesNotThrow(scheduler::materializeClosedDays);
+
+		verify(zReportService, times(2)).materialize(any(), eq(YESTERDAY));
+		verify(zReportService).materialize(first, YESTERDAY);
+		verify(zReportService).materialize(third, YESTERDAY);
+	}
+
+	private static Store store() {
+		Store store = new Store();
+		store.setId(UUID.randomUUID());
+		return store;
+	}
+}
@@ -1,13 +1,27 @@
 package com.slipsync.slipsync;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 @SpringBootTest
 class SlipsyncApplicationTests {
 
+	@Autowired
+	private ApplicationContext context;
+
 	@Test
 	void contextLoads() {
 	}
 
+	// Report event streams, agent streams and long polls must not hold a connection while they wait
+	@Test
+	void requestsDoNotKeepAnEntityManagerOpen() {
+		assertEquals(0, context.getBeanNamesForType(OpenEntityManagerInViewInterceptor.class).length);
+	}
+
 }